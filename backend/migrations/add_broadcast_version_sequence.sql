@@ -0,0 +1,21 @@
+-- Migration: Cluster-wide version sequence for WebSocket broadcasts
+-- Date: 2026-10-19
+-- Description: With websocket.cluster.enabled every node stamps match and
+-- leaderboard broadcasts with versions from this sequence, so a client
+-- connected to any node sees versions in the order the changes were published
+-- cluster-wide. It starts at the current epoch milliseconds so versions stay
+-- above those issued by the old per-node clock-seeded counters.
+--
+-- BroadcastVersionSequence also creates the sequence at startup, so running
+-- this file is only needed when the application user lacks CREATE privileges:
+-- psql -U worldcup -d worldcupdb -f add_broadcast_version_sequence.sql
+
+DO $$
+BEGIN
+    EXECUTE format('CREATE SEQUENCE IF NOT EXISTS ws_broadcast_version_seq START WITH %s',
+                   (extract(epoch FROM clock_timestamp()) * 1000)::bigint);
+END
+$$;
+
+-- Verify
+-- SELECT last_value FROM ws_broadcast_version_seq;
@@ -0,0 +1,9 @@
+-- Add api_fingerprint column to matches
+-- Hash of the Football API fields last applied to the match; the API sync
+-- skips the UPDATE and broadcast when the fingerprint is unchanged.
+-- Existing rows start NULL and get a fingerprint on their next sync.
+
+ALTER TABLE matches
+ADD COLUMN IF NOT EXISTS api_fingerprint VARCHAR(64);
+
+COMMENT ON COLUMN matches.api_fingerprint IS 'SHA-256 of the Football API content last applied by the sync; unchanged fingerprints are not rewritten.';
@@ -0,0 +1,36 @@
+-- Migration: Competition id on matches
+-- Date: 2026-10-19
+-- Description: The sync jobs handle several competitions
+-- (football.api.competition-ids). Each match records the Football API
+-- competition it was synced from, so the syncs, the live planner and the
+-- external id index can work per competition. The column and index are also
+-- declared on Match.
+--
+-- Existing API-linked matches were all synced from the single configured
+-- competition, football.api.competition-id. Pass the same value the
+-- application runs with as psql variable competition_id; like the
+-- application it defaults to 2000 (the World Cup). Rows left NULL are
+-- treated as the primary competition by the application anyway. The
+-- variable handling needs psql 10 or later; with any other tool, drop the
+-- \if block and replace :'competition_id' with the quoted id.
+--
+-- The index is built CONCURRENTLY (see README.md):
+-- psql -U worldcup -d worldcupdb -v competition_id="${FOOTBALL_API_COMPETITION_ID:-2000}" \
+--     -f add_match_competition_id.sql
+
+\if :{?competition_id}
+\else
+    \set competition_id 2000
+\endif
+
+ALTER TABLE matches ADD COLUMN IF NOT EXISTS competition_id VARCHAR(20);
+
+UPDATE matches SET competition_id = :'competition_id'
+    WHERE competition_id IS NULL AND external_api_id IS NOT NULL AND external_api_id <> '';
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_matches_competition_id
+    ON matches (competition_id);
+
+-- Verify the column and index
+-- SELECT competition_id, COUNT(*) FROM matches GROUP BY competition_id;
+-- SELECT indexname, indexdef FROM pg_indexes WHERE tablename = 'matches';
@@ -0,0 +1,22 @@
+-- Migration: Unique index on matches.external_api_id
+-- Date: 2026-10-19
+-- Description: The fixture sync and the Premier League seeder insert new API
+-- fixtures in JDBC batches with
+--   INSERT ... ON CONFLICT (external_api_id) DO UPDATE
+-- (MatchUpsertRepository), which needs a unique index on the conflict column;
+-- it is also declared on Match. NULLs (manually created matches) do not
+-- conflict with each other.
+--
+-- The index cannot be built while duplicates exist. Check first; the query
+-- must return no rows (delete the extra copies and their predictions if it does):
+-- SELECT external_api_id, COUNT(*) FROM matches
+--     WHERE external_api_id IS NOT NULL GROUP BY external_api_id HAVING COUNT(*) > 1;
+--
+-- Built CONCURRENTLY (see README.md):
+-- psql -U worldcup -d worldcupdb -f add_match_external_api_id_unique.sql
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS ux_matches_external_api_id
+    ON matches (external_api_id);
+
+-- Verify the index was created
+-- SELECT indexname, indexdef FROM pg_indexes WHERE tablename = 'matches';
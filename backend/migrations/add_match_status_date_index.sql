@@ -0,0 +1,16 @@
+-- Migration: Index for set-based match status transitions
+-- Date: 2026-10-19
+-- Description: MatchTransitionRepository moves every due match in one
+--   UPDATE matches SET status = ? WHERE status = ? AND match_date <= ? RETURNING id
+-- This index turns the WHERE clause into a range scan over the few SCHEDULED
+-- or LIVE matches that are due instead of a scan of the whole table. Also
+-- declared on Match.
+--
+-- Built CONCURRENTLY (see README.md):
+-- psql -U worldcup -d worldcupdb -f add_match_status_date_index.sql
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_matches_status_match_date
+    ON matches (status, match_date);
+
+-- Verify the index was created
+-- SELECT indexname, indexdef FROM pg_indexes WHERE tablename = 'matches';
@@ -0,0 +1,29 @@
+-- Migration: Indexes for the keyset-paginated notification feed
+-- Date: 2026-10-18
+-- Description: Replaces OFFSET/COUNT(*) paging of GET /api/notifications with
+-- keyset (cursor) paging and makes the unread lookups index-only.
+--
+-- - idx_notifications_user_created_id: serves
+--     WHERE user_id = ? AND (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC
+--   Also declared on Notification.
+-- - idx_notifications_user_unread: partial index over unread rows only, so
+--   countByUserAndReadFalse is an index-only scan and the unread list reads a
+--   handful of index entries instead of the user's whole history. It stays
+--   small because rows leave it as soon as they are marked read. Only here:
+--   JPA cannot declare a partial index.
+--
+-- Built CONCURRENTLY (see README.md):
+-- psql -U worldcup -d worldcupdb -f add_notification_feed_indexes.sql
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notifications_user_created_id
+    ON notifications (user_id, created_at DESC, id DESC);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notifications_user_unread
+    ON notifications (user_id, created_at DESC, id DESC)
+    WHERE read = false;
+
+-- Refresh planner statistics so the new indexes are picked up right away
+ANALYZE notifications;
+
+-- Verify the indexes were created
+-- SELECT indexname, indexdef FROM pg_indexes WHERE tablename = 'notifications';
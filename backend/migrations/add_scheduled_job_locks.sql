@@ -0,0 +1,21 @@
+-- Migration: Lease table for cluster-safe scheduled jobs
+-- Date: 2026-10-19
+-- Description: With more than one backend instance, each @ScheduledJobLock job
+-- (fixture sync, live sync planner, match status reconciliation, league
+-- achievements, notification retention, cluster payload cleanup) runs only on
+-- the instance holding its row here. locked_by is the holder (pid@hostname by
+-- default) and locked_until the end of its lease.
+--
+-- ScheduledJobLockRepository also creates this table on first use, so running
+-- this file is only needed when the application user lacks CREATE privileges:
+-- psql -U worldcup -d worldcupdb -f add_scheduled_job_locks.sql
+
+CREATE TABLE IF NOT EXISTS scheduled_job_locks (
+    name VARCHAR(64) PRIMARY KEY,
+    locked_until TIMESTAMP NOT NULL,
+    locked_at TIMESTAMP NOT NULL,
+    locked_by VARCHAR(255) NOT NULL
+);
+
+-- See which instance holds which job
+-- SELECT name, locked_by, locked_at, locked_until FROM scheduled_job_locks ORDER BY name;
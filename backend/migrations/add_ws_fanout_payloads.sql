@@ -0,0 +1,19 @@
+-- Migration: Table for large WebSocket cluster fan-out payloads
+-- Date: 2026-10-18
+-- Description: With websocket.cluster.enabled=true, backend nodes relay
+-- WebSocket frames to each other via LISTEN/NOTIFY on channel 'ws_fanout'.
+-- NOTIFY payloads are limited to 8000 bytes, so larger frames are stored
+-- here and only the row id is sent; rows are purged after 5 minutes.
+--
+-- ClusterFanoutService also creates this table on first use, so running this
+-- file is only needed when the application user lacks CREATE privileges:
+-- psql -U worldcup -d worldcupdb -f add_ws_fanout_payloads.sql
+
+CREATE TABLE IF NOT EXISTS ws_fanout_payloads (
+    id BIGSERIAL PRIMARY KEY,
+    payload BYTEA NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_ws_fanout_payloads_created_at
+    ON ws_fanout_payloads (created_at);
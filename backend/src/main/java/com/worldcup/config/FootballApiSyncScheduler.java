@@ -1,31 +1,60 @@
 package com.worldcup.config;
 
 import com.worldcup.entity.Match;
-import com.worldcup.entity.MatchStatus;
 import com.worldcup.repository.MatchRepository;
+import com.worldcup.repository.MatchUpsertRepository;
 import com.worldcup.service.FootballApiService;
+import com.worldcup.service.LocalStandingsService;
+import com.worldcup.service.MatchExternalIdIndex;
 import com.worldcup.service.PredictionService;
 import com.worldcup.service.WebSocketService;
+import com.worldcup.util.AfterCommit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.transaction.support.TransactionSynchronization;
-import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * Scheduled job to sync matches from Football API
  * - Fetches fixtures for upcoming matches
- * - Updates live scores for matches in progress
- * - Updates finished match results
+ * - Updates live scores for matches in progress (timed by LiveSyncPlanner)
+ * - Updates finished match results (timed by LiveSyncPlanner)
+ * Matches whose API content fingerprint is unchanged are skipped entirely:
+ * no load, no UPDATE and no broadcast. The fingerprints come from
+ * MatchExternalIdIndex, and only changed matches are loaded, in batches by id.
+ *
+ * Every sync works on one competition (football.api.competition-ids) and its
+ * index partition. Fixture syncs of all competitions run in parallel on the
+ * sync pool; all requests still share the one rate budget of
+ * FootballApiRequestScheduler, which serves live polls first.
+ *
+ * No transaction spans an API request: a sync waits for its rate-limit token
+ * and decodes the response outside any transaction, and each batch of
+ * decoded matches commits in its own short transaction (SyncRun.flush).
  */
 @Component
 @RequiredArgsConstructor
@@ -36,200 +65,329 @@ public class FootballApiSyncScheduler {
     private final MatchRepository matchRepository;
     private final WebSocketService webSocketService;
     private final PredictionService predictionService;
+    private final MeterRegistry meterRegistry;
+    private final MatchExternalIdIndex matchIndex;
+    private final MatchUpsertRepository matchUpsertRepository;
+    private final LocalStandingsService localStandings;
+    private final TransactionTemplate transactionTemplate;
+    private final MatchTransitionTimer transitionTimer;
 
     @Value("${football.api.enabled:false}")
     private boolean apiEnabled;
 
+    @Value("${football.api.sync.batch-size:50}")
+    private int batchSize;
+
+    @Value("${football.api.sync.parallelism:4}")
+    private int parallelism;
+
+    private ExecutorService syncExecutor;
+
+    // Per competition: result counts of its last fixture sync, by "unchanged" / "changed" / "created"
+    private final Map<String, Map<String, AtomicLong>> lastFixtureSync = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threads = new AtomicInteger();
+        syncExecutor = Executors.newFixedThreadPool(Math.max(1, parallelism), r -> {
+            Thread thread = new Thread(r, "football-sync-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        for (String competitionId : footballApiService.getCompetitionIds()) {
+            Map<String, AtomicLong> counts = Map.of(
+                    "unchanged", new AtomicLong(),
+                    "changed", new AtomicLong(),
+                    "created", new AtomicLong());
+            lastFixtureSync.put(competitionId, counts);
+            counts.forEach((result, count) ->
+                Gauge.builder("football.sync.fixtures.last.run", count, AtomicLong::get)
+                    .description("Matches per result in the last fixture sync")
+                    .tag("competition", competitionId)
+                    .tag("result", result)
+                    .register(meterRegistry));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        syncExecutor.shutdownNow();
+    }
+
     /**
      * Sync fixtures - configurable interval (default: every hour).
      * Pulls the entire competition each run so knockout placeholders get
      * upgraded to real teams as soon as the bracket resolves.
      */
     @Scheduled(fixedRateString = "${football.api.sync.fixtures.interval:3600000}")
-    @Transactional
+    @ScheduledJobLock(name = "football-sync-fixtures", lockAtMostFor = "PT30M",
+            lockAtLeastFor = "${football.api.sync.fixtures.lock-at-least-for:PT50M}")
     public void syncFixtures() {
         syncFixturesInternal();
     }
 
     /**
-     * Internal method that can be called manually
+     * Internal method that can be called manually. Syncs every competition in
+     * parallel and returns when all are done.
      */
-    @Transactional
     public void syncFixturesInternal() {
         if (!apiEnabled) {
             return;
         }
+        forEachCompetition("fixtures", this::syncFixtures);
+    }
 
+    private void syncFixtures(String competitionId) {
         try {
-            log.info("Syncing fixtures from Football API...");
-            List<FootballApiService.MatchData> apiMatches = footballApiService.fetchAllMatches();
-
-            // Group existing matches by external API ID
-            // Only fetch matches with external API IDs to avoid loading all matches into memory
-            Map<String, Match> existingMatches = matchRepository.findAllWithExternalApiId().stream()
-                    .collect(Collectors.toMap(Match::getExternalApiId, m -> m));
-
-            int created = 0;
-            int updated = 0;
-
-            for (FootballApiService.MatchData apiMatch : apiMatches) {
-                String externalId = String.valueOf(apiMatch.id);
-                Match existingMatch = existingMatches.get(externalId);
-
-                if (existingMatch != null) {
-                    // Update existing match
-                    footballApiService.updateMatchFromApi(existingMatch, apiMatch);
-                    matchRepository.save(existingMatch);
-                    updated++;
-                    
-                    // Broadcast update via WebSocket
-                    webSocketService.broadcastMatchUpdate(existingMatch.getId());
-                } else {
-                    // Create new match
-                    Match newMatch = footballApiService.convertToMatch(apiMatch);
-                    Match saved = matchRepository.save(newMatch);
-                    created++;
-                    log.debug("Created new match: {} vs {}", saved.getHomeTeam(), saved.getAwayTeam());
-                }
+            log.info("Syncing fixtures for competition {} from Football API...", competitionId);
+            // Full resync: also picks up matches changed outside the entity listener
+            matchIndex.rebuild(competitionId);
+
+            SyncRun run = new SyncRun(competitionId, true, (match, apiMatch) -> {
+                footballApiService.updateMatchFromApi(match, apiMatch);
+                matchRepository.save(match);
+
+                // Queue broadcast; WebSocketService drops it if nothing visible changed
+                webSocketService.broadcastMatchUpdate(match);
+            });
+
+            // Each match is handled as it is decoded from the response
+            if (footballApiService.streamAllMatches(competitionId, run::accept) < 0) {
+                // API unavailable: create fixtures missing locally (e.g. after a restart on
+                // a fresh database) from the last good response; never overwrite newer data
+                footballApiService.replayAllMatchesSnapshot(competitionId, apiMatch -> {
+                    if (matchIndex.get(competitionId, String.valueOf(apiMatch.id)) == null) {
+                        run.accept(apiMatch);
+                    }
+                });
             }
-
-            log.info("Fixture sync completed: {} created, {} updated", created, updated);
+            run.flush();
+
+            recordSyncResults("fixtures", competitionId, run.unchanged, run.changed, run.created);
+            Map<String, AtomicLong> last = lastFixtureSync.get(competitionId);
+            if (last != null) {
+                last.get("unchanged").set(run.unchanged);
+                last.get("changed").set(run.changed);
+                last.get("created").set(run.created);
+            }
+            log.info("Fixture sync for competition {} completed: {} created, {} changed, {} unchanged",
+                    competitionId, run.created, run.changed, run.unchanged);
         } catch (Exception e) {
-            log.error("Error syncing fixtures from Football API: {}", e.getMessage(), e);
+            log.error("Error syncing fixtures for competition {} from Football API: {}", competitionId, e.getMessage(), e);
         }
     }
 
     /**
-     * Sync live scores - configurable interval (default: every 60 seconds)
-     * Fetches matches that are currently live
+     * Sync live scores of one competition. Fetches matches that are currently live.
+     * Run by LiveSyncPlanner, which polls only around that competition's kickoffs.
      */
-    @Scheduled(fixedRateString = "${football.api.sync.live.interval:60000}")
-    @Transactional
-    public void syncLiveScores() {
+    public void syncLiveScores(String competitionId) {
         if (!apiEnabled) {
             return;
         }
 
         try {
-            List<FootballApiService.MatchData> liveMatches = footballApiService.fetchLiveMatches();
-
-            if (liveMatches.isEmpty()) {
-                return;
+            SyncRun run = new SyncRun(competitionId, false, (match, apiMatch) -> {
+                // Update match with live data
+                footballApiService.updateMatchFromApi(match, apiMatch);
+                matchRepository.save(match);
+
+                webSocketService.broadcastMatchUpdate(match);
+                log.debug("Updated live match: {} vs {} - {}:{}",
+                        match.getHomeTeam(), match.getAwayTeam(),
+                        match.getHomeScore(), match.getAwayScore());
+            });
+
+            footballApiService.streamLiveMatches(competitionId, run::accept);
+            run.flush();
+
+            if (run.changed + run.unchanged > 0) {
+                log.info("Live sync for competition {} completed: {} changed, {} unchanged",
+                        competitionId, run.changed, run.unchanged);
+                recordSyncResults("live", competitionId, run.unchanged, run.changed, 0);
             }
+        } catch (Exception e) {
+            log.error("Error syncing live scores for competition {} from Football API: {}", competitionId, e.getMessage(), e);
+        }
+    }
 
-            log.info("Syncing {} live matches from Football API...", liveMatches.size());
-
-            // Group existing matches by external API ID
-            // Only fetch matches with external API IDs to avoid loading all matches into memory
-            Map<String, Match> existingMatches = matchRepository.findAllWithExternalApiId().stream()
-                    .collect(Collectors.toMap(Match::getExternalApiId, m -> m));
+    /**
+     * Sync one competition's finished matches from the last 24 hours and calculate points.
+     * Run by LiveSyncPlanner after the final whistle until results are confirmed.
+     * Returns the external API ids the API reports as FINISHED.
+     */
+    public Set<String> syncFinishedMatches(String competitionId) {
+        Set<String> confirmed = new HashSet<>();
+        if (!apiEnabled) {
+            return confirmed;
+        }
 
-            for (FootballApiService.MatchData apiMatch : liveMatches) {
-                String externalId = String.valueOf(apiMatch.id);
-                Match existingMatch = existingMatches.get(externalId);
+        try {
+            // Fetch matches from the last 24 hours
+            LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+            LocalDateTime startDate = now.minusDays(1);
 
-                if (existingMatch != null) {
-                    MatchStatus oldStatus = existingMatch.getStatus();
-                    Integer oldHomeScore = existingMatch.getHomeScore();
-                    Integer oldAwayScore = existingMatch.getAwayScore();
+            // Applied when the final data differs from what was last applied, e.g. a
+            // match finished locally by MatchStatusScheduler with the last live score
+            SyncRun run = new SyncRun(competitionId, false, (match, apiMatch) -> {
+                // Update match to finished status with final scores
+                footballApiService.updateMatchFromApi(match, apiMatch);
+                matchRepository.save(match);
+
+                // Calculate points after the batch commits if match has scores
+                Long matchId = match.getId();
+                if (match.getHomeScore() != null && match.getAwayScore() != null) {
+                    AfterCommit.run(() -> {
+                        try {
+                            log.info("Calculating points for finished match {} from API sync after transaction commit", matchId);
+                            predictionService.calculatePointsForMatch(matchId);
+                        } catch (Exception e) {
+                            log.error("Error calculating points for match {} after commit: {}", matchId, e.getMessage(), e);
+                        }
+                    });
+                }
 
-                    // Update match with live data
-                    footballApiService.updateMatchFromApi(existingMatch, apiMatch);
-                    matchRepository.save(existingMatch);
+                // Broadcast update via WebSocket
+                webSocketService.broadcastMatchUpdate(match);
 
-                    // Broadcast update if status or scores changed
-                    boolean changed = !existingMatch.getStatus().equals(oldStatus) ||
-                            !java.util.Objects.equals(existingMatch.getHomeScore(), oldHomeScore) ||
-                            !java.util.Objects.equals(existingMatch.getAwayScore(), oldAwayScore);
+                log.debug("Updated finished match: {} vs {} - {}:{}",
+                        match.getHomeTeam(), match.getAwayTeam(),
+                        match.getHomeScore(), match.getAwayScore());
+            });
 
-                    if (changed) {
-                        webSocketService.broadcastMatchUpdate(existingMatch.getId());
-                        log.debug("Updated live match: {} vs {} - {}:{}", 
-                                existingMatch.getHomeTeam(), existingMatch.getAwayTeam(),
-                                existingMatch.getHomeScore(), existingMatch.getAwayScore());
-                    }
+            footballApiService.streamMatches(competitionId, startDate, now, apiMatch -> {
+                // Only finished matches
+                if (!"FINISHED".equals(apiMatch.status)) {
+                    return;
                 }
+                confirmed.add(String.valueOf(apiMatch.id));
+                run.accept(apiMatch);
+            });
+            run.flush();
+
+            if (!confirmed.isEmpty()) {
+                log.info("Confirmed {} finished matches of competition {} from Football API ({} updated)",
+                        confirmed.size(), competitionId, run.changed);
             }
         } catch (Exception e) {
-            log.error("Error syncing live scores from Football API: {}", e.getMessage(), e);
+            log.error("Error syncing finished matches for competition {} from Football API: {}",
+                    competitionId, e.getMessage(), e);
         }
+        return confirmed;
     }
 
     /**
-     * Sync finished matches - configurable interval (default: every 5 minutes)
-     * Updates scores for recently finished matches
+     * Run sync for every configured competition on the sync pool and wait for
+     * all of them. A slow or failing competition does not hold back the others.
      */
-    @Scheduled(fixedRateString = "${football.api.sync.finished.interval:300000}")
-    @Transactional
-    public void syncFinishedMatches() {
-        if (!apiEnabled) {
-            return;
+    private void forEachCompetition(String job, Consumer<String> sync) {
+        List<CompletableFuture<Void>> runs = new ArrayList<>();
+        for (String competitionId : footballApiService.getCompetitionIds()) {
+            runs.add(CompletableFuture
+                    .runAsync(() -> sync.accept(competitionId), syncExecutor)
+                    .exceptionally(e -> {
+                        log.error("{} sync for competition {} failed: {}", job, competitionId, e.getMessage(), e);
+                        return null;
+                    }));
         }
+        CompletableFuture.allOf(runs.toArray(CompletableFuture[]::new)).join();
+    }
 
-        try {
-            // Fetch matches from the last 24 hours
-            LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
-            LocalDateTime startDate = now.minusDays(1);
-
-            List<FootballApiService.MatchData> apiMatches = footballApiService.fetchMatches(startDate, now);
+    /**
+     * One streamed sync run. API matches whose fingerprint equals the indexed
+     * one are counted as unchanged without touching the database; changed ones
+     * are loaded batch-size at a time with findAllById and passed to update;
+     * unknown ones are, if createMissing, upserted batch-size at a time in one
+     * JDBC batch (MatchUpsertRepository). Matches are collected outside any
+     * transaction, and every flush commits its batch in a transaction of its
+     * own, so at most batch-size changed plus batch-size new matches are held.
+     */
+    private final class SyncRun {
+        private final String competitionId;
+        private final boolean createMissing;
+        private final BiConsumer<Match, FootballApiService.MatchData> update;
+        private final Map<Long, FootballApiService.MatchData> pending = new LinkedHashMap<>();
+        private final List<Match> newMatches = new ArrayList<>();
+        int unchanged;
+        int changed;
+        int created;
+
+        SyncRun(String competitionId, boolean createMissing, BiConsumer<Match, FootballApiService.MatchData> update) {
+            this.competitionId = competitionId;
+            this.createMissing = createMissing;
+            this.update = update;
+        }
 
-            // Filter for finished matches
-            List<FootballApiService.MatchData> finishedMatches = apiMatches.stream()
-                    .filter(m -> "FINISHED".equals(m.status))
-                    .toList();
+        void accept(FootballApiService.MatchData apiMatch) {
+            MatchExternalIdIndex.Entry entry = matchIndex.get(competitionId, String.valueOf(apiMatch.id));
+            if (entry == null) {
+                if (createMissing) {
+                    newMatches.add(footballApiService.convertToMatch(apiMatch, competitionId));
+                    if (newMatches.size() >= batchSize) {
+                        flush();
+                    }
+                }
+                return;
+            }
+            if (footballApiService.fingerprint(apiMatch).equals(entry.apiFingerprint())) {
+                unchanged++;
+                return;
+            }
+            pending.put(entry.matchId(), apiMatch);
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
 
-            if (finishedMatches.isEmpty()) {
+        void flush() {
+            if (newMatches.isEmpty() && pending.isEmpty()) {
                 return;
             }
+            transactionTemplate.executeWithoutResult(status -> {
+                flushNew();
+                flushChanged();
+            });
+        }
 
-            log.info("Syncing {} finished matches from Football API...", finishedMatches.size());
-
-            // Group existing matches by external API ID
-            // Only fetch matches with external API IDs to avoid loading all matches into memory
-            Map<String, Match> existingMatches = matchRepository.findAllWithExternalApiId().stream()
-                    .collect(Collectors.toMap(Match::getExternalApiId, m -> m));
-
-            for (FootballApiService.MatchData apiMatch : finishedMatches) {
-                String externalId = String.valueOf(apiMatch.id);
-                Match existingMatch = existingMatches.get(externalId);
-
-                if (existingMatch != null && existingMatch.getStatus() != MatchStatus.FINISHED) {
-                    // Update match to finished status with final scores
-                    footballApiService.updateMatchFromApi(existingMatch, apiMatch);
-                    matchRepository.save(existingMatch);
-                    
-                    // Calculate points after transaction commits if match has scores
-                    Long matchId = existingMatch.getId();
-                    if (existingMatch.getHomeScore() != null && existingMatch.getAwayScore() != null) {
-                        if (TransactionSynchronizationManager.isActualTransactionActive()) {
-                            TransactionSynchronizationManager.registerSynchronization(
-                                new TransactionSynchronization() {
-                                    @Override
-                                    public void afterCommit() {
-                                        try {
-                                            log.info("Calculating points for finished match {} from API sync after transaction commit", matchId);
-                                            predictionService.calculatePointsForMatch(matchId);
-                                        } catch (Exception e) {
-                                            log.error("Error calculating points for match {} after commit: {}", matchId, e.getMessage(), e);
-                                        }
-                                    }
-                                }
-                            );
-                        }
-                    }
-                    
-                    // Broadcast update via WebSocket
-                    webSocketService.broadcastMatchUpdate(existingMatch.getId());
-                    
-                    log.debug("Updated finished match: {} vs {} - {}:{}", 
-                            existingMatch.getHomeTeam(), existingMatch.getAwayTeam(),
-                            existingMatch.getHomeScore(), existingMatch.getAwayScore());
+        private void flushChanged() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            try {
+                for (Match match : matchRepository.findAllById(pending.keySet())) {
+                    update.accept(match, pending.get(match.getId()));
+                    changed++;
                 }
+            } finally {
+                pending.clear();
             }
-        } catch (Exception e) {
-            log.error("Error syncing finished matches from Football API: {}", e.getMessage(), e);
         }
-    }
-}
 
+        private void flushNew() {
+            if (newMatches.isEmpty()) {
+                return;
+            }
+            try {
+                created += matchUpsertRepository.upsertAll(newMatches);
+                matchIndex.reloadAfterCommit(newMatches.stream().map(Match::getExternalApiId).toList());
+                localStandings.invalidateAll();
+                transitionTimer.rebuildAfterCommit();
+                log.debug("Upserted {} new matches", newMatches.size());
+            } finally {
+                newMatches.clear();
+            }
+        }
+    }
 
+    private void recordSyncResults(String sync, String competitionId, int unchanged, int changed, int created) {
+        Map.of("unchanged", unchanged, "changed", changed, "created", created).forEach((result, count) ->
+            Counter.builder("football.sync.matches")
+                .description("Matches processed by API syncs, by outcome")
+                .tag("sync", sync)
+                .tag("competition", competitionId)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment(count));
+    }
+}
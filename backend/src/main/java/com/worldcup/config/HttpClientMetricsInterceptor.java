@@ -0,0 +1,63 @@
+package com.worldcup.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Times every outgoing request as football.api.http.requests, tagged by
+ * endpoint and status. The endpoint tag is the path with numeric segments
+ * collapsed to {id} plus the query parameter names, e.g.
+ * "/v4/competitions/{id}/matches?status", so it stays low-cardinality.
+ */
+public class HttpClientMetricsInterceptor implements ClientHttpRequestInterceptor {
+
+    private final MeterRegistry meterRegistry;
+
+    public HttpClientMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        long start = System.nanoTime();
+        String status = "IO_ERROR";
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            status = String.valueOf(response.getStatusCode().value());
+            return response;
+        } finally {
+            Timer.builder("football.api.http.requests")
+                .description("Football API HTTP request latency (until response headers)")
+                .tag("method", request.getMethod().name())
+                .tag("endpoint", endpoint(request.getURI()))
+                .tag("status", status)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    static String endpoint(URI uri) {
+        String path = uri.getPath() == null ? "" : uri.getPath().replaceAll("/\\d+(?=/|$)", "/{id}");
+        String query = uri.getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return path;
+        }
+        String names = Arrays.stream(query.split("&"))
+            .map(param -> param.split("=", 2)[0])
+            .sorted()
+            .distinct()
+            .collect(Collectors.joining("&"));
+        return path + "?" + names;
+    }
+}
@@ -31,6 +31,7 @@ public class LeagueAchievementScheduler {
      * Runs daily at 2 AM to check for finished leagues and award achievements
      */
     @Scheduled(cron = "0 0 2 * * ?") // Daily at 2 AM
+    @ScheduledJobLock(name = "league-achievements", lockAtMostFor = "PT30M", lockAtLeastFor = "PT5M")
     public void checkFinishedLeagues() {
         log.info("Checking for finished leagues to award achievements...");
         
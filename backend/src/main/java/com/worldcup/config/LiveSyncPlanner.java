@@ -0,0 +1,314 @@
+package com.worldcup.config;
+
+import com.worldcup.entity.Match;
+import com.worldcup.entity.MatchStatus;
+import com.worldcup.repository.MatchRepository;
+import com.worldcup.service.FootballApiService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decides when the live-score and finished-match syncs run, from the match
+ * calendar instead of fixed intervals. Each competition in
+ * football.api.competition-ids has its own plan and phase:
+ * - IDLE: no match near kickoff, no API calls at all; wakes up pre-kickoff
+ *   before the next kickoff.
+ * - LIVE: from pre-kickoff before a kickoff until live-window after it (or
+ *   while a match is LIVE), live scores are polled at the fastest interval the
+ *   rate budget allows (live-budget-share of the requests per minute, split
+ *   between the competitions that are LIVE at the same time).
+ * - CONFIRMING: once a match could be over (min-duration after kickoff) and
+ *   until the API reports it FINISHED, finished matches are polled every
+ *   confirm-interval, or every fallback-interval once confirm-window has
+ *   passed (up to 24h after kickoff).
+ * The plans are rebuilt from MatchRepository every plan-refresh-ms and after
+ * every confirmation poll; ticks in between only compare timestamps.
+ *
+ * Syncs run on the planner's pool, one at a time per competition: a slow poll
+ * of one competition skips that competition's next turn but never delays
+ * another competition's polls. Idle competitions cost no requests.
+ *
+ * With several instances only the holder of the planner's job lease plans and
+ * polls. Syncs are work of the lease (ScheduledJobLockAspect.beginWork): the
+ * lease is not shortened while one is running, and a sync that was queued
+ * when the lease was lost does not start.
+ */
+@Slf4j
+@Component
+public class LiveSyncPlanner {
+
+    enum Phase { IDLE, LIVE, CONFIRMING }
+
+    static final String LOCK_NAME = "football-live-planner";
+
+    // How far back plans (and the finished-match sync) look for kickoffs
+    private static final Duration LOOKBACK = Duration.ofHours(24);
+
+    private final FootballApiSyncScheduler syncScheduler;
+    private final MatchRepository matchRepository;
+    private final FootballApiService footballApiService;
+    private final MeterRegistry meterRegistry;
+    private final ScheduledJobLockAspect jobLocks;
+
+    @Value("${football.api.enabled:false}")
+    private boolean apiEnabled;
+
+    @Value("${football.api.sync.live.pre-kickoff:PT10M}")
+    private Duration preKickoff;
+
+    @Value("${football.api.sync.live.live-window:PT2H30M}")
+    private Duration liveWindow;
+
+    @Value("${football.api.sync.live.min-duration:PT1H45M}")
+    private Duration minDuration;
+
+    @Value("${football.api.sync.live.confirm-window:PT4H}")
+    private Duration confirmWindow;
+
+    @Value("${football.api.sync.live.confirm-interval:PT1M}")
+    private Duration confirmInterval;
+
+    @Value("${football.api.sync.live.fallback-interval:PT30M}")
+    private Duration fallbackInterval;
+
+    @Value("${football.api.sync.live.min-interval:PT10S}")
+    private Duration minLiveInterval;
+
+    @Value("${football.api.sync.live.live-budget-share:0.5}")
+    private double liveBudgetShare;
+
+    @Value("${football.api.rate-limit.requests-per-minute:10}")
+    private int requestsPerMinute;
+
+    @Value("${football.api.sync.live.plan-refresh:PT5M}")
+    private Duration planRefresh;
+
+    // External ids the API has reported FINISHED; no more confirmation polls for
+    // them. Pruned to matches within LOOKBACK on every plan.
+    private final Set<String> confirmedFinished = ConcurrentHashMap.newKeySet();
+
+    // Competition id -> plan; fixed after the first tick
+    private final Map<String, CompetitionPlan> plans = new LinkedHashMap<>();
+
+    private final ExecutorService syncExecutor;
+
+    public LiveSyncPlanner(FootballApiSyncScheduler syncScheduler,
+                           MatchRepository matchRepository,
+                           FootballApiService footballApiService,
+                           MeterRegistry meterRegistry,
+                           ScheduledJobLockAspect jobLocks,
+                           @Value("${football.api.sync.parallelism:4}") int parallelism) {
+        this.syncScheduler = syncScheduler;
+        this.matchRepository = matchRepository;
+        this.footballApiService = footballApiService;
+        this.meterRegistry = meterRegistry;
+        this.jobLocks = jobLocks;
+
+        AtomicInteger threads = new AtomicInteger();
+        this.syncExecutor = Executors.newFixedThreadPool(Math.max(1, parallelism), r -> {
+            Thread thread = new Thread(r, "live-sync-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        syncExecutor.shutdownNow();
+    }
+
+    // Held past the next tick, so one instance keeps planning and polling
+    @Scheduled(fixedDelayString = "${football.api.sync.planner.tick-ms:5000}")
+    @ScheduledJobLock(name = LOCK_NAME, lockAtMostFor = "PT1M", lockAtLeastFor = "PT15S")
+    public void tick() {
+        if (!apiEnabled) {
+            return;
+        }
+        if (plans.isEmpty()) {
+            for (String competitionId : footballApiService.getCompetitionIds()) {
+                CompetitionPlan plan = new CompetitionPlan(competitionId);
+                plans.put(competitionId, plan);
+                Gauge.builder("football.sync.live.phase", plan, p -> p.phase.ordinal())
+                    .description("Live sync planner phase: 0 = idle, 1 = live, 2 = confirming")
+                    .tag("competition", competitionId)
+                    .register(meterRegistry);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        if (plans.values().stream().anyMatch(plan -> !now.isBefore(plan.nextPlanAt))) {
+            plan(now);
+        }
+
+        Duration liveInterval = liveInterval();
+        for (CompetitionPlan plan : plans.values()) {
+            boolean liveDue = plan.phase == Phase.LIVE && !now.isBefore(plan.nextLiveSyncAt);
+            boolean confirmDue = plan.confirming && !now.isBefore(plan.nextConfirmSyncAt);
+            if ((!liveDue && !confirmDue) || !plan.busy.compareAndSet(false, true)) {
+                // Nothing due, or this competition's previous sync is still running
+                continue;
+            }
+            if (!jobLocks.beginWork(LOCK_NAME)) {
+                plan.busy.set(false);
+                continue;
+            }
+            if (liveDue) {
+                plan.nextLiveSyncAt = now.plus(liveInterval);
+            }
+            if (confirmDue) {
+                plan.nextConfirmSyncAt = now.plus(plan.currentConfirmInterval);
+            }
+            syncExecutor.execute(() -> {
+                try {
+                    if (!jobLocks.holds(LOCK_NAME)) {
+                        // Queued behind other syncs until the lease ran out
+                        log.warn("Live sync for competition {} skipped: planner lease lost", plan.competitionId);
+                        return;
+                    }
+                    if (liveDue) {
+                        syncScheduler.syncLiveScores(plan.competitionId);
+                    }
+                    if (confirmDue) {
+                        confirmedFinished.addAll(syncScheduler.syncFinishedMatches(plan.competitionId));
+                        // Confirmed matches may end the window; re-plan on the next tick
+                        plan.nextPlanAt = LocalDateTime.MIN;
+                    }
+                } catch (Exception e) {
+                    log.error("Live sync for competition {} failed: {}", plan.competitionId, e.getMessage(), e);
+                } finally {
+                    plan.busy.set(false);
+                    jobLocks.endWork(LOCK_NAME);
+                }
+            });
+        }
+    }
+
+    /**
+     * Fastest live polling interval per competition the request budget allows,
+     * with the live share of the budget split between the LIVE competitions.
+     */
+    Duration liveInterval() {
+        long liveCompetitions = Math.max(1, plans.values().stream().filter(plan -> plan.phase == Phase.LIVE).count());
+        long budgetMs = (long) Math.ceil(60_000d * liveCompetitions / Math.max(1d, requestsPerMinute * liveBudgetShare));
+        return minLiveInterval.compareTo(Duration.ofMillis(budgetMs)) >= 0 ? minLiveInterval : Duration.ofMillis(budgetMs);
+    }
+
+    private void plan(LocalDateTime now) {
+        Map<String, List<Match>> byCompetition = new LinkedHashMap<>();
+        Set<String> recent = new HashSet<>();
+        for (Match match : matchRepository.findByMatchDateBetween(now.minus(LOOKBACK), now.plus(planRefresh).plus(preKickoff))) {
+            if (match.getExternalApiId() != null) {
+                recent.add(match.getExternalApiId());
+            }
+            String competitionId = match.getCompetitionId() != null
+                    ? match.getCompetitionId() : footballApiService.getPrimaryCompetitionId();
+            byCompetition.computeIfAbsent(competitionId, c -> new ArrayList<>()).add(match);
+        }
+        // Matches that kicked off before the lookback are never planned again
+        confirmedFinished.retainAll(recent);
+        for (CompetitionPlan plan : plans.values()) {
+            if (!now.isBefore(plan.nextPlanAt)) {
+                plan(plan, byCompetition.getOrDefault(plan.competitionId, List.of()), now);
+            }
+        }
+    }
+
+    private void plan(CompetitionPlan plan, List<Match> matches, LocalDateTime now) {
+        boolean live = false;
+        boolean confirmSoon = false;
+        boolean confirmLate = false;
+        LocalDateTime nextWindowStart = null;
+
+        for (Match match : matches) {
+            LocalDateTime kickoff = match.getMatchDate();
+            if (kickoff == null || match.getStatus() == MatchStatus.CANCELLED) {
+                continue;
+            }
+            boolean finishedByApi = match.getExternalApiId() == null
+                    || confirmedFinished.contains(match.getExternalApiId());
+
+            LocalDateTime windowStart = kickoff.minus(preKickoff);
+            if (now.isBefore(windowStart)) {
+                if (nextWindowStart == null || windowStart.isBefore(nextWindowStart)) {
+                    nextWindowStart = windowStart;
+                }
+                continue;
+            }
+            if (finishedByApi) {
+                continue;
+            }
+
+            boolean inLiveWindow = now.isBefore(kickoff.plus(liveWindow));
+            if (inLiveWindow || (match.getStatus() == MatchStatus.LIVE && now.isBefore(kickoff.plus(confirmWindow)))) {
+                live = true;
+            }
+            if (!now.isBefore(kickoff.plus(minDuration))) {
+                if (now.isBefore(kickoff.plus(confirmWindow))) {
+                    confirmSoon = true;
+                } else {
+                    confirmLate = true;
+                }
+            }
+        }
+
+        Phase previous = plan.phase;
+        plan.phase = live ? Phase.LIVE : (confirmSoon || confirmLate) ? Phase.CONFIRMING : Phase.IDLE;
+        plan.confirming = confirmSoon || confirmLate;
+        Duration interval = confirmSoon ? confirmInterval : fallbackInterval;
+        if (plan.currentConfirmInterval != null && interval.compareTo(plan.currentConfirmInterval) < 0) {
+            // Tightened (a match just reached min-duration): poll promptly
+            plan.nextConfirmSyncAt = LocalDateTime.MIN;
+        }
+        plan.currentConfirmInterval = interval;
+
+        LocalDateTime nextPlanAt = now.plus(planRefresh);
+        if (nextWindowStart != null && nextWindowStart.isBefore(nextPlanAt)) {
+            nextPlanAt = nextWindowStart;
+        }
+        plan.nextPlanAt = nextPlanAt;
+
+        if (plan.phase != previous) {
+            log.info("Live sync planner for competition {}: {} -> {} (live interval {} s, next plan at {})",
+                    plan.competitionId, previous, plan.phase, liveInterval().toSeconds(), nextPlanAt);
+        }
+    }
+
+    /**
+     * Plan state of one competition. Timestamps are set by the tick thread;
+     * nextPlanAt is also reset by a finished confirmation poll.
+     */
+    private static final class CompetitionPlan {
+        final String competitionId;
+        final AtomicBoolean busy = new AtomicBoolean();
+        volatile Phase phase = Phase.IDLE;
+        volatile boolean confirming;
+        volatile LocalDateTime nextPlanAt = LocalDateTime.MIN;
+        volatile LocalDateTime nextLiveSyncAt = LocalDateTime.MIN;
+        volatile LocalDateTime nextConfirmSyncAt = LocalDateTime.MIN;
+        volatile Duration currentConfirmInterval;
+
+        CompetitionPlan(String competitionId) {
+            this.competitionId = competitionId;
+        }
+    }
+}
@@ -1,26 +1,63 @@
 package com.worldcup.config;
 
 import com.worldcup.entity.Match;
+import com.worldcup.service.LocalStandingsService;
+import com.worldcup.service.MatchExternalIdIndex;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
 import jakarta.persistence.PostUpdate;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 
 /**
  * Entity listener for match updates.
  * Point calculation is now handled manually in controllers after transaction commits
  * to avoid transaction conflicts.
+ * Keeps MatchExternalIdIndex, the local standings and MatchTransitionTimer in
+ * step with inserts, updates and deletes.
  */
 @Component
 @Slf4j
 public class MatchEntityListener {
 
+    // Resolved lazily: the index depends on MatchRepository, which needs the
+    // entity manager factory that creates this listener
+    private final ObjectProvider<MatchExternalIdIndex> externalIdIndex;
+    private final ObjectProvider<LocalStandingsService> localStandings;
+    private final ObjectProvider<MatchTransitionTimer> transitionTimer;
+
+    public MatchEntityListener(ObjectProvider<MatchExternalIdIndex> externalIdIndex,
+                               ObjectProvider<LocalStandingsService> localStandings,
+                               ObjectProvider<MatchTransitionTimer> transitionTimer) {
+        this.externalIdIndex = externalIdIndex;
+        this.localStandings = localStandings;
+        this.transitionTimer = transitionTimer;
+    }
+
+    @PostPersist
+    public void onMatchCreate(Match match) {
+        externalIdIndex.ifAvailable(index -> index.saved(match));
+        localStandings.ifAvailable(standings -> standings.matchChanged(match));
+        transitionTimer.ifAvailable(timer -> timer.matchChanged(match, false));
+    }
+
     @PostUpdate
     public void onMatchUpdate(Match match) {
         // Temporarily disabled to avoid transaction conflicts
         // Point calculation is now handled manually in controllers after transaction commits
         // This prevents 500 errors when updating match results from admin panel
-        log.debug("Match {} updated to status {} - point calculation handled separately", 
+        log.debug("Match {} updated to status {} - point calculation handled separately",
             match.getId(), match.getStatus());
+        externalIdIndex.ifAvailable(index -> index.saved(match));
+        localStandings.ifAvailable(standings -> standings.matchChanged(match));
+        transitionTimer.ifAvailable(timer -> timer.matchChanged(match, false));
     }
-}
 
+    @PostRemove
+    public void onMatchDelete(Match match) {
+        externalIdIndex.ifAvailable(index -> index.removed(match));
+        localStandings.ifAvailable(standings -> standings.matchChanged(match));
+        transitionTimer.ifAvailable(timer -> timer.matchChanged(match, true));
+    }
+}
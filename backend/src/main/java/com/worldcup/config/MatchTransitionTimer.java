@@ -0,0 +1,294 @@
+package com.worldcup.config;
+
+import com.worldcup.entity.Match;
+import com.worldcup.entity.MatchStatus;
+import com.worldcup.repository.MatchRepository;
+import com.worldcup.service.ClusterFanoutService;
+import com.worldcup.service.MatchTransitionService;
+import com.worldcup.util.AfterCommit;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires match status transitions when they fall due instead of polling for
+ * them. Every SCHEDULED or LIVE match has its upcoming events in a DelayQueue:
+ * - KICKOFF at matchDate (SCHEDULED -> LIVE, which locks predictions);
+ * - FULL_TIME at matchDate + full-time-after (the LIVE -> FINISHED fallback).
+ * One daemon thread blocks on the queue, so nothing touches the database
+ * until an event is due. It then takes every other due event too and runs
+ * MatchTransitionService once for all of them, within milliseconds of kickoff.
+ *
+ * The queue is built from the database at startup and after bulk writes that
+ * bypass JPA (fixture upserts, admin cleanup); single matches are rescheduled
+ * by MatchEntityListener after commit. A due transition that did not happen
+ * here is checked against the database: a match moved on by another instance
+ * is rescheduled from its current status, one still held (e.g. kept LIVE
+ * while the Football API is down) is retried every retry-interval.
+ *
+ * Every instance runs its own timer; the set-based transitions make sure each
+ * match is still moved (and broadcast) exactly once. Reschedules are also
+ * published over ClusterFanoutService, so a match added or moved through one
+ * instance is timed correctly on all of them.
+ */
+@Slf4j
+@Component
+public class MatchTransitionTimer {
+
+    enum Kind { KICKOFF, FULL_TIME }
+
+    // Cluster event: lines "matchId status kickoff" (tab-separated, "-" for
+    // none), or REBUILD
+    private static final String CHANGED_EVENT = "match-schedule-changed";
+    private static final String REBUILD = "*";
+    private static final String NONE = "-";
+
+    private final MatchRepository matchRepository;
+    private final MatchTransitionService matchTransitionService;
+    private final MeterRegistry meterRegistry;
+    private final ClusterFanoutService clusterFanoutService;
+
+    @Value("${match.status.full-time-after:PT2H30M}")
+    private Duration fullTimeAfter;
+
+    @Value("${match.status.retry-interval:PT1M}")
+    private Duration retryInterval;
+
+    private final DelayQueue<Due> queue = new DelayQueue<>();
+
+    // Match id -> status last seen and its queued events; guarded by "this"
+    private final Map<Long, Tracked> tracked = new HashMap<>();
+
+    private volatile Thread worker;
+
+    public MatchTransitionTimer(MatchRepository matchRepository,
+                                MatchTransitionService matchTransitionService,
+                                MeterRegistry meterRegistry,
+                                ClusterFanoutService clusterFanoutService) {
+        this.matchRepository = matchRepository;
+        this.matchTransitionService = matchTransitionService;
+        this.meterRegistry = meterRegistry;
+        this.clusterFanoutService = clusterFanoutService;
+        clusterFanoutService.subscribe(CHANGED_EVENT, this::applyClusterChange);
+
+        Gauge.builder("match.transitions.pending", queue, DelayQueue::size)
+            .description("Kickoff and full-time events waiting in the transition timer")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuild();
+        worker = new Thread(this::run, "match-transition-timer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread thread = worker;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Reload every SCHEDULED and LIVE match from the database.
+     */
+    public synchronized void rebuild() {
+        queue.clear();
+        tracked.clear();
+        List<Match> open = matchRepository.findByStatusIn(List.of(MatchStatus.SCHEDULED, MatchStatus.LIVE));
+        for (Match match : open) {
+            schedule(match.getId(), match.getStatus(), match.getMatchDate());
+        }
+        log.info("Match transition timer loaded {} events for {} matches", queue.size(), tracked.size());
+    }
+
+    /**
+     * Rebuild once the current transaction commits, after bulk SQL changes
+     * that bypass the entity listener.
+     */
+    public void rebuildAfterCommit() {
+        AfterCommit.run(() -> {
+            rebuild();
+            publishChange(REBUILD);
+        });
+    }
+
+    /**
+     * A match was saved or deleted; reschedule it once the change is committed.
+     */
+    public void matchChanged(Match match, boolean deleted) {
+        Long matchId = match.getId();
+        if (matchId == null) {
+            return;
+        }
+        MatchStatus status = deleted ? null : match.getStatus();
+        LocalDateTime kickoff = match.getMatchDate();
+        AfterCommit.run(() -> {
+            reschedule(matchId, status, kickoff);
+            publishChange(matchId + "\t" + (status != null ? status.name() : NONE)
+                    + "\t" + (kickoff != null ? kickoff.toString() : NONE));
+        });
+    }
+
+    private void publishChange(String change) {
+        clusterFanoutService.publishEvent(CHANGED_EVENT, change.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Another instance committed this change
+    private void applyClusterChange(byte[] payload) {
+        String change = new String(payload, StandardCharsets.UTF_8);
+        if (REBUILD.equals(change)) {
+            rebuild();
+            return;
+        }
+        String[] fields = change.split("\t");
+        if (fields.length != 3) {
+            log.warn("Ignoring malformed match schedule event: {}", change);
+            return;
+        }
+        reschedule(Long.valueOf(fields[0]),
+                NONE.equals(fields[1]) ? null : MatchStatus.valueOf(fields[1]),
+                NONE.equals(fields[2]) ? null : LocalDateTime.parse(fields[2]));
+    }
+
+    private synchronized void reschedule(Long matchId, MatchStatus status, LocalDateTime kickoff) {
+        Tracked previous = tracked.remove(matchId);
+        if (previous != null) {
+            previous.events.forEach(queue::remove);
+        }
+        schedule(matchId, status, kickoff);
+    }
+
+    private void schedule(Long matchId, MatchStatus status, LocalDateTime kickoff) {
+        if (kickoff == null || (status != MatchStatus.SCHEDULED && status != MatchStatus.LIVE)) {
+            return;
+        }
+        List<Due> events = new ArrayList<>(2);
+        if (status == MatchStatus.SCHEDULED) {
+            events.add(new Due(matchId, Kind.KICKOFF, epochMillis(kickoff)));
+        }
+        events.add(new Due(matchId, Kind.FULL_TIME, epochMillis(kickoff.plus(fullTimeAfter))));
+        events.forEach(queue::add);
+        tracked.put(matchId, new Tracked(status, events));
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                List<Due> fired = new ArrayList<>();
+                fired.add(queue.take());
+                queue.drainTo(fired);
+
+                long firedAt = System.currentTimeMillis();
+                Timer lag = Timer.builder("match.transitions.lag")
+                    .description("Delay between a kickoff/full-time event falling due and its transition run")
+                    .register(meterRegistry);
+                fired.forEach(due -> lag.record(Duration.ofMillis(Math.max(0, firedAt - due.atMillis))));
+                log.debug("Match transition timer fired {} events", fired.size());
+
+                matchTransitionService.transitionDueMatches();
+                retryUnchanged(fired);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("Match transition timer run failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Handle events whose match is still tracked in the status the event should
+     * have moved it out of (matches moved here were already rescheduled after
+     * commit): reschedule those another instance moved on, re-arm the rest.
+     */
+    private void retryUnchanged(List<Due> fired) {
+        List<Long> stuckIds = stuck(fired).stream().map(due -> due.matchId).distinct().toList();
+        if (stuckIds.isEmpty()) {
+            return;
+        }
+        Map<Long, Match> current = new HashMap<>();
+        matchRepository.findAllById(stuckIds).forEach(match -> current.put(match.getId(), match));
+
+        synchronized (this) {
+            long retryAt = System.currentTimeMillis() + retryInterval.toMillis();
+            for (Due due : stuck(fired)) {
+                Tracked tracking = tracked.get(due.matchId);
+                if (tracking == null || !tracking.events.contains(due)) {
+                    continue;
+                }
+                Match match = current.get(due.matchId);
+                if (match == null || match.getStatus() != tracking.status) {
+                    reschedule(due.matchId, match != null ? match.getStatus() : null,
+                            match != null ? match.getMatchDate() : null);
+                    continue;
+                }
+                Due retry = new Due(due.matchId, due.kind, retryAt);
+                tracking.events.remove(due);
+                tracking.events.add(retry);
+                queue.add(retry);
+            }
+        }
+    }
+
+    private synchronized List<Due> stuck(List<Due> fired) {
+        List<Due> stuck = new ArrayList<>();
+        for (Due due : fired) {
+            Tracked current = tracked.get(due.matchId);
+            if (current != null && current.events.contains(due)
+                    && current.status == (due.kind == Kind.KICKOFF ? MatchStatus.SCHEDULED : MatchStatus.LIVE)) {
+                stuck.add(due);
+            }
+        }
+        return stuck;
+    }
+
+    private static long epochMillis(LocalDateTime utc) {
+        return utc.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private record Tracked(MatchStatus status, List<Due> events) {
+    }
+
+    private static final class Due implements Delayed {
+        final long matchId;
+        final Kind kind;
+        final long atMillis;
+
+        Due(long matchId, Kind kind, long atMillis) {
+            this.matchId = matchId;
+            this.kind = kind;
+            this.atMillis = atMillis;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(atMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(atMillis, ((Due) other).atMillis);
+        }
+    }
+}
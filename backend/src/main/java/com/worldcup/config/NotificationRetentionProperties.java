@@ -0,0 +1,33 @@
+package com.worldcup.config;
+
+import com.worldcup.entity.Notification;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Retention rules for the notifications table (notification.retention.*).
+ * TTLs are per notification type and configured separately for read and
+ * unread rows; a type without an entry is kept forever.
+ */
+@Component
+@ConfigurationProperties(prefix = "notification.retention")
+@Data
+public class NotificationRetentionProperties {
+
+    private boolean enabled = true;
+
+    // Width of each id range deleted in one short transaction
+    private int chunkSize = 5000;
+
+    // Pause between chunks so the purge never monopolises locks or I/O
+    private long pauseMs = 250;
+
+    private Map<Notification.NotificationType, Duration> readTtl = new EnumMap<>(Notification.NotificationType.class);
+
+    private Map<Notification.NotificationType, Duration> unreadTtl = new EnumMap<>(Notification.NotificationType.class);
+}
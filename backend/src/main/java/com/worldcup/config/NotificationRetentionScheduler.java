@@ -0,0 +1,29 @@
+package com.worldcup.config;
+
+import com.worldcup.service.NotificationRetentionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduler that purges expired notifications according to the
+ * notification.retention.* TTLs. Runs nightly by default.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationRetentionScheduler {
+
+    private final NotificationRetentionService retentionService;
+
+    @Scheduled(cron = "${notification.retention.cron:0 30 3 * * ?}") // Daily at 3:30 AM
+    @ScheduledJobLock(name = "notification-retention", lockAtMostFor = "PT1H", lockAtLeastFor = "PT5M")
+    public void purgeExpiredNotifications() {
+        try {
+            retentionService.purgeExpired();
+        } catch (Exception e) {
+            log.error("Error purging expired notifications: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -3,7 +3,9 @@ package com.worldcup.config;
 import com.worldcup.entity.Match;
 import com.worldcup.entity.MatchStatus;
 import com.worldcup.repository.MatchRepository;
+import com.worldcup.repository.MatchUpsertRepository;
 import com.worldcup.service.FootballApiService;
+import com.worldcup.service.MatchExternalIdIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -27,6 +29,8 @@ public class PremierLeagueSeeder implements CommandLineRunner {
 
     private final MatchRepository matchRepository;
     private final FootballApiService footballApiService;
+    private final MatchUpsertRepository matchUpsertRepository;
+    private final MatchExternalIdIndex matchExternalIdIndex;
 
     @Value("${football.api.enabled:false}")
     private boolean apiEnabled;
@@ -34,6 +38,9 @@ public class PremierLeagueSeeder implements CommandLineRunner {
     @Value("${football.api.competition-id:}")
     private String competitionId;
 
+    @Value("${football.api.sync.batch-size:50}")
+    private int batchSize;
+
     private static final String PREMIER_LEAGUE_COMPETITION_ID = "2021";
 
     // Premier League teams
@@ -104,7 +111,11 @@ public class PremierLeagueSeeder implements CommandLineRunner {
             }
 
             if (!matches.isEmpty()) {
-                matchRepository.saveAll(matches);
+                // One JDBC batch per batch-size matches instead of an INSERT each
+                for (int from = 0; from < matches.size(); from += batchSize) {
+                    matchUpsertRepository.upsertAll(matches.subList(from, Math.min(from + batchSize, matches.size())));
+                }
+                matchExternalIdIndex.reloadAfterCommit(matches.stream().map(Match::getExternalApiId).toList());
                 log.info("Successfully seeded {} real Premier League matches from API", matches.size());
             } else {
                 log.warn("No matches were created from API. Falling back to mock data.");
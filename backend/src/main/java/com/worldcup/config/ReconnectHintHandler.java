@@ -0,0 +1,102 @@
+package com.worldcup.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.StompSubProtocolErrorHandler;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Adds a "reconnect-delay-ms" header to CONNECTED and ERROR frames telling the
+ * client how long to wait before reconnecting. Each frame gets its own random
+ * delay in [base-delay-ms, base-delay-ms + jitter-ms], so clients dropped
+ * together (node restart, network blip) come back spread over the window
+ * rather than all at once. CONNECTED carries it because a client cut off by a
+ * restart never receives an ERROR frame.
+ */
+@Component
+public class ReconnectHintHandler extends StompSubProtocolErrorHandler {
+
+    public static final String RECONNECT_DELAY_HEADER = "reconnect-delay-ms";
+
+    // Same preference order as Spring's StompSubProtocolHandler
+    private static final List<String> SUPPORTED_VERSIONS = List.of("1.2", "1.1", "1.0");
+
+    @Value("${websocket.reconnect.base-delay-ms:1000}")
+    private long baseDelayMs;
+
+    @Value("${websocket.reconnect.jitter-ms:15000}")
+    private long jitterMs;
+
+    private final ChannelInterceptor connectedInterceptor = new ConnectedInterceptor();
+
+    /**
+     * Outbound channel interceptor adding the hint to CONNECTED frames.
+     */
+    public ChannelInterceptor connectedInterceptor() {
+        return connectedInterceptor;
+    }
+
+    public long nextDelayMs() {
+        return baseDelayMs + ThreadLocalRandom.current().nextLong(jitterMs + 1);
+    }
+
+    @Override
+    protected Message<byte[]> handleInternal(StompHeaderAccessor errorHeaderAccessor, byte[] errorPayload,
+                                             Throwable cause, StompHeaderAccessor clientHeaderAccessor) {
+        if (cause != null) {
+            // Report e.g. "Server busy" rather than the channel's generic delivery failure
+            errorHeaderAccessor.setMessage(NestedExceptionUtils.getMostSpecificCause(cause).getMessage());
+        }
+        errorHeaderAccessor.setNativeHeader(RECONNECT_DELAY_HEADER, String.valueOf(nextDelayMs()));
+        return super.handleInternal(errorHeaderAccessor, errorPayload, cause, clientHeaderAccessor);
+    }
+
+    private final class ConnectedInterceptor implements ChannelInterceptor {
+        /**
+         * The broker answers CONNECT with a protocol-neutral CONNECT_ACK that the
+         * STOMP handler turns into CONNECTED without copying headers, so build the
+         * CONNECTED frame here the same way and add the hint to it.
+         */
+        @Override
+        public Message<?> preSend(Message<?> message, MessageChannel channel) {
+            if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.CONNECT_ACK) {
+                return message;
+            }
+            Message<?> connect = (Message<?>) message.getHeaders().get(SimpMessageHeaderAccessor.CONNECT_MESSAGE_HEADER);
+            StompHeaderAccessor connectHeaders = connect != null
+                    ? MessageHeaderAccessor.getAccessor(connect, StompHeaderAccessor.class) : null;
+            if (connectHeaders == null) {
+                return message;
+            }
+            Set<String> acceptVersions = connectHeaders.getAcceptVersion();
+            String version = SUPPORTED_VERSIONS.stream().filter(acceptVersions::contains).findFirst().orElse(null);
+            if (version == null) {
+                // Leave the version error to Spring
+                return message;
+            }
+
+            StompHeaderAccessor connected = StompHeaderAccessor.create(StompCommand.CONNECTED);
+            connected.setVersion(version);
+            long[] heartbeat = (long[]) message.getHeaders().get(SimpMessageHeaderAccessor.HEART_BEAT_HEADER);
+            connected.setHeartbeat(heartbeat != null ? heartbeat[0] : 0, heartbeat != null ? heartbeat[1] : 0);
+            connected.setSessionId(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+            connected.setUser(SimpMessageHeaderAccessor.getUser(message.getHeaders()));
+            connected.setNativeHeader(RECONNECT_DELAY_HEADER, String.valueOf(nextDelayMs()));
+            connected.setLeaveMutable(true);
+            return MessageBuilder.createMessage(message.getPayload(), connected.getMessageHeaders());
+        }
+    }
+}
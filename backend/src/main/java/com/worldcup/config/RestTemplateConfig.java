@@ -1,16 +1,90 @@
 package com.worldcup.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+/**
+ * HTTP client for the Football API (the only RestTemplate user).
+ *
+ * Pooled keep-alive connections with bounded connect, read and pool-lease
+ * timeouts, so a hung request fails instead of blocking a sync thread
+ * forever. HttpClient 5 sends Accept-Encoding: gzip and decompresses
+ * responses transparently.
+ */
 @Configuration
 public class RestTemplateConfig {
 
+    @Value("${football.api.http.connect-timeout-ms:5000}")
+    private long connectTimeoutMs;
+
+    @Value("${football.api.http.read-timeout-ms:15000}")
+    private long readTimeoutMs;
+
+    @Value("${football.api.http.pool-lease-timeout-ms:5000}")
+    private long leaseTimeoutMs;
+
+    @Value("${football.api.http.max-connections:10}")
+    private int maxConnections;
+
+    @Value("${football.api.http.idle-eviction-ms:30000}")
+    private long idleEvictionMs;
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public PoolingHttpClientConnectionManager httpConnectionManager(MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxConnections)
+            .setMaxConnPerRoute(maxConnections)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                // Re-check connections the provider may have closed while idle
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build())
+            .build();
+
+        Gauge.builder("football.api.http.pool.leased", connectionManager, cm -> cm.getTotalStats().getLeased())
+            .description("Football API HTTP connections in use")
+            .register(meterRegistry);
+        Gauge.builder("football.api.http.pool.available", connectionManager, cm -> cm.getTotalStats().getAvailable())
+            .description("Idle keep-alive Football API HTTP connections")
+            .register(meterRegistry);
+        Gauge.builder("football.api.http.pool.pending", connectionManager, cm -> cm.getTotalStats().getPending())
+            .description("Requests waiting for a Football API HTTP connection")
+            .register(meterRegistry);
+
+        return connectionManager;
     }
-}
 
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager httpConnectionManager) {
+        return HttpClients.custom()
+            .setConnectionManager(httpConnectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(leaseTimeoutMs))
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                .build())
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.ofMilliseconds(idleEvictionMs))
+            .build();
+    }
 
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient httpClient, MeterRegistry meterRegistry) {
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        restTemplate.getInterceptors().add(new HttpClientMetricsInterceptor(meterRegistry));
+        return restTemplate;
+    }
+}
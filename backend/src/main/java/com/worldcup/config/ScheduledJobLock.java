@@ -0,0 +1,34 @@
+package com.worldcup.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a @Scheduled method on at most one backend instance at a time, see
+ * ScheduledJobLockAspect. Durations are ISO-8601 (PT10M) and may be
+ * ${property:default} placeholders.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ScheduledJobLock {
+
+    /**
+     * Lock name, shared by every instance running the job.
+     */
+    String name();
+
+    /**
+     * How long the lock is held if the holder dies without releasing it.
+     * Must exceed the longest expected run.
+     */
+    String lockAtMostFor() default "PT10M";
+
+    /**
+     * Minimum time the lock is held after the run starts, so instances whose
+     * schedule fires a little later (or whose clock is a little behind) skip
+     * the run instead of repeating it.
+     */
+    String lockAtLeastFor() default "PT0S";
+}
@@ -0,0 +1,204 @@
+package com.worldcup.config;
+
+import com.worldcup.repository.ScheduledJobLockRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Makes @ScheduledJobLock methods cluster-safe: every instance still fires
+ * the schedule, but only the one that takes the job's lease row in
+ * scheduled_job_locks runs it; the others skip that run. With several
+ * replicas, API quota, broadcasts and scoring are not duplicated. The other
+ * replicas only see a job's updates through cluster fan-out
+ * (websocket.cluster.enabled); a warning is logged when that is off.
+ *
+ * The lease is taken for lockAtMostFor (the bound if the holder dies mid-run)
+ * and shortened when the run ends, to lockAtLeastFor after its start. A
+ * holder may renew its own lease, so a job that runs more often than
+ * lockAtLeastFor stays on one instance until that instance stops.
+ * Lease times come from each instance's clock; lockAtLeastFor should cover
+ * the clock skew between instances.
+ *
+ * A job that hands work off to other threads brackets it with beginWork /
+ * endWork: while any such work is open, runs end without shortening the
+ * lease, so it stays at lockAtMostFor from the last run and no other
+ * instance starts the same work meanwhile.
+ *
+ * Ordered before the transaction advisor (lowest precedence) so the lease is
+ * taken outside any transaction of the job.
+ * Metrics, tagged job=<name>: scheduled.job.lock.held (1 while this instance
+ * holds the lease), scheduled.job.runs{result=executed|skipped|failed|lock-error},
+ * scheduled.job.duration.
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(0)
+public class ScheduledJobLockAspect {
+
+    private final ScheduledJobLockRepository lockRepository;
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final String owner;
+
+    // Job name -> end of the lease this instance last took (or shortened to)
+    private final Map<String, LocalDateTime> heldUntil = new ConcurrentHashMap<>();
+
+    // Job name -> work started by its runs that is still going on other threads
+    private final Map<String, AtomicInteger> openWork = new ConcurrentHashMap<>();
+
+    public ScheduledJobLockAspect(ScheduledJobLockRepository lockRepository,
+                                  Environment environment,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${scheduling.lock.enabled:true}") boolean enabled,
+                                  @Value("${scheduling.lock.owner:}") String owner) {
+        this.lockRepository = lockRepository;
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        // pid@hostname: unique per JVM, and readable when checking who holds a lock
+        this.owner = owner.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : owner;
+        log.info("Scheduled job locks {} (owner {})", enabled ? "enabled" : "disabled", this.owner);
+        if (enabled && !environment.getProperty("websocket.cluster.enabled", Boolean.class, false)) {
+            // Locked jobs run on one instance, but without cluster fan-out their
+            // broadcasts, cache invalidations and schedule changes stay on that one
+            log.warn("Scheduled job locks are enabled but websocket.cluster.enabled is false: with more than one "
+                    + "instance, clients and caches on the instances not running a job miss its updates. "
+                    + "Enable cluster fan-out, or disable scheduling.lock.enabled for a single instance.");
+        }
+    }
+
+    @Around("@annotation(lock)")
+    public Object runLocked(ProceedingJoinPoint joinPoint, ScheduledJobLock lock) throws Throwable {
+        if (!enabled) {
+            return joinPoint.proceed();
+        }
+        String job = lock.name();
+        Duration atMost = duration(lock.lockAtMostFor());
+        Duration atLeast = duration(lock.lockAtLeastFor());
+        registerGauge(job);
+
+        LocalDateTime start = LocalDateTime.now(ZoneOffset.UTC);
+        boolean locked;
+        try {
+            locked = lockRepository.tryLock(job, owner, start, start.plus(atMost));
+        } catch (Exception e) {
+            // Without the lock table we cannot tell whether another instance is running it
+            count(job, "lock-error");
+            log.warn("Skipping scheduled job {}: could not take its lock: {}", job, e.getMessage());
+            return null;
+        }
+        if (!locked) {
+            heldUntil.remove(job);
+            count(job, "skipped");
+            log.debug("Skipping scheduled job {}: locked by another instance", job);
+            return null;
+        }
+        heldUntil.put(job, start.plus(atMost));
+
+        long startNanos = System.nanoTime();
+        String result = "executed";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable t) {
+            result = "failed";
+            throw t;
+        } finally {
+            Timer.builder("scheduled.job.duration")
+                .description("Run time of scheduled jobs executed on this instance")
+                .tag("job", job)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(System.nanoTime() - startNanos));
+            count(job, result);
+            if (openWork.computeIfAbsent(job, j -> new AtomicInteger()).get() == 0) {
+                release(job, start.plus(atLeast));
+            }
+        }
+    }
+
+    /**
+     * True while this instance holds job's lease.
+     */
+    public boolean holds(String job) {
+        LocalDateTime until = heldUntil.get(job);
+        return until != null && until.isAfter(LocalDateTime.now(ZoneOffset.UTC));
+    }
+
+    /**
+     * Open a piece of work of job that outlives the current run (e.g. handed
+     * to a thread pool). Returns false, opening nothing, if this instance
+     * does not hold the lease. Close it with endWork.
+     */
+    public boolean beginWork(String job) {
+        if (enabled && !holds(job)) {
+            return false;
+        }
+        openWork.computeIfAbsent(job, j -> new AtomicInteger()).incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Close work opened by beginWork. The lease is shortened again by the
+     * next run that ends with no work open.
+     */
+    public void endWork(String job) {
+        AtomicInteger open = openWork.get(job);
+        if (open != null) {
+            open.decrementAndGet();
+        }
+    }
+
+    private void release(String job, LocalDateTime atLeastUntil) {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        LocalDateTime until = atLeastUntil.isAfter(now) ? atLeastUntil : now;
+        heldUntil.put(job, until);
+        try {
+            lockRepository.release(job, owner, until);
+        } catch (Exception e) {
+            // The lease still expires at lockAtMostFor
+            log.warn("Could not release lock of scheduled job {}: {}", job, e.getMessage());
+        }
+    }
+
+    private void registerGauge(String job) {
+        Gauge.builder("scheduled.job.lock.held", heldUntil, held -> {
+                LocalDateTime until = held.get(job);
+                return until != null && until.isAfter(LocalDateTime.now(ZoneOffset.UTC)) ? 1 : 0;
+            })
+            .description("1 while this instance holds the scheduled job's lock")
+            .tag("job", job)
+            .register(meterRegistry);
+    }
+
+    private void count(String job, String result) {
+        Counter.builder("scheduled.job.runs")
+            .description("Scheduled job firings on this instance, by result")
+            .tag("job", job)
+            .tag("result", result)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    private Duration duration(String value) {
+        return Duration.parse(environment.resolveRequiredPlaceholders(value));
+    }
+}
@@ -47,9 +47,12 @@ public class SecurityConfig {
                 session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/actuator/health", "/h2-console/**").permitAll()
+                // API quota, job locks, connection and cache stats are operator-only
+                .requestMatchers("/actuator/metrics/**").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/ws/**").permitAll() // Allow WebSocket connections
+                .requestMatchers(HttpMethod.GET, "/api/matches/live/stream").permitAll() // EventSource cannot send auth headers
                 .anyRequest().authenticated()
             )
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
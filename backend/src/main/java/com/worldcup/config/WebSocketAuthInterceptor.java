@@ -1,60 +1,114 @@
 package com.worldcup.config;
 
+import com.worldcup.repository.LeagueMembershipRepository;
 import com.worldcup.security.JwtTokenProvider;
 import com.worldcup.security.CustomUserDetailsService;
-import lombok.RequiredArgsConstructor;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.security.Principal;
 import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
- * Interceptor to authenticate WebSocket connections using JWT token
+ * Interceptor to authenticate WebSocket connections using JWT token.
+ *
+ * CONNECT is authenticated from the verified token claims alone (subject and
+ * role), so a reconnect storm after a restart does not turn into one user
+ * query per client. Only tokens issued before the role claim existed fall
+ * back to loading the user; they expire within jwt.expiration.
+ *
+ * A per-node semaphore caps concurrent CONNECT handshakes. Clients over the
+ * limit get an ERROR frame carrying a jittered reconnect hint
+ * (see ReconnectHintHandler) instead of queueing on the node.
+ *
+ * League leaderboards carry member names and points, so SUBSCRIBE to
+ * /topic/leagues/{id}/leaderboard is only accepted from members of that league.
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class WebSocketAuthInterceptor implements ChannelInterceptor {
 
+    private static final Pattern LEAGUE_TOPIC = Pattern.compile("^/topic/leagues/(\\d+)/.*$");
+
     private final JwtTokenProvider tokenProvider;
     private final CustomUserDetailsService userDetailsService;
+    private final LeagueMembershipRepository membershipRepository;
+
+    private final Semaphore connectPermits;
+    private final long admissionWaitMs;
+    private final Counter rejectedConnects;
+    private final Counter legacyTokenLookups;
+    private final Counter rejectedSubscriptions;
+
+    public WebSocketAuthInterceptor(JwtTokenProvider tokenProvider,
+                                    CustomUserDetailsService userDetailsService,
+                                    LeagueMembershipRepository membershipRepository,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${websocket.connect.max-concurrent:64}") int maxConcurrentConnects,
+                                    @Value("${websocket.connect.admission-wait-ms:200}") long admissionWaitMs) {
+        this.tokenProvider = tokenProvider;
+        this.userDetailsService = userDetailsService;
+        this.membershipRepository = membershipRepository;
+        this.connectPermits = new Semaphore(maxConcurrentConnects);
+        this.admissionWaitMs = admissionWaitMs;
+
+        Gauge.builder("websocket.connect.in.progress", connectPermits, permits -> maxConcurrentConnects - permits.availablePermits())
+            .description("STOMP CONNECT handshakes being processed on this node")
+            .register(meterRegistry);
+        this.rejectedConnects = Counter.builder("websocket.connect.rejected")
+            .description("STOMP CONNECT frames rejected by the admission limiter")
+            .register(meterRegistry);
+        this.legacyTokenLookups = Counter.builder("websocket.connect.legacy.lookups")
+            .description("CONNECTs with a token lacking the role claim, authenticated by loading the user")
+            .register(meterRegistry);
+        this.rejectedSubscriptions = Counter.builder("websocket.subscribe.rejected")
+            .description("SUBSCRIBE frames to league topics rejected for non-members")
+            .register(meterRegistry);
+    }
 
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
         StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
-        
+
         if (accessor != null && StompCommand.CONNECT.equals(accessor.getCommand())) {
+            acquireConnectPermit();
+
             // Get JWT token from headers
             List<String> authHeaders = accessor.getNativeHeader("Authorization");
             String token = null;
-            
+
             if (authHeaders != null && !authHeaders.isEmpty()) {
                 String authHeader = authHeaders.get(0);
                 if (authHeader != null && authHeader.startsWith("Bearer ")) {
                     token = authHeader.substring(7);
                 }
             }
-            
-            if (token != null && tokenProvider.validateToken(token)) {
+
+            Claims claims = token != null ? verify(token) : null;
+            if (claims != null) {
                 try {
-                    String username = tokenProvider.getUsernameFromToken(token);
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                    UsernamePasswordAuthenticationToken authentication = 
-                        new UsernamePasswordAuthenticationToken(
-                            userDetails, 
-                            null, 
-                            userDetails.getAuthorities()
-                        );
-                    accessor.setUser(authentication);
-                    log.debug("Authenticated WebSocket connection for user: {}", username);
+                    accessor.setUser(authenticate(claims));
+                    log.debug("Authenticated WebSocket connection for user: {}", claims.getSubject());
                 } catch (Exception e) {
                     log.error("Error authenticating WebSocket connection: {}", e.getMessage());
                 }
@@ -62,9 +116,72 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
                 log.warn("WebSocket connection attempted without valid JWT token");
             }
         }
-        
+
+        if (accessor != null && StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            authorizeSubscribe(accessor.getDestination(), accessor.getUser());
+        }
+
         return message;
     }
-}
 
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        // Only reached for frames whose preSend completed, i.e. CONNECTs that hold a permit
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor != null && StompCommand.CONNECT.equals(accessor.getCommand())) {
+            connectPermits.release();
+        }
+    }
+
+    private void acquireConnectPermit() {
+        boolean acquired;
+        try {
+            acquired = connectPermits.tryAcquire(admissionWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejectedConnects.increment();
+            throw new MessageDeliveryException("Server busy, reconnect later");
+        }
+    }
 
+    private void authorizeSubscribe(String destination, Principal user) {
+        if (destination == null) {
+            return;
+        }
+        Matcher league = LEAGUE_TOPIC.matcher(destination);
+        if (!league.matches()) {
+            return;
+        }
+        Long leagueId = Long.valueOf(league.group(1));
+        if (user == null || !membershipRepository.existsByLeagueIdAndUserEmail(leagueId, user.getName())) {
+            rejectedSubscriptions.increment();
+            log.warn("Rejected SUBSCRIBE to {} for {}", destination, user != null ? user.getName() : "anonymous");
+            throw new MessageDeliveryException("Not a member of league " + leagueId);
+        }
+    }
+
+    private Claims verify(String token) {
+        try {
+            return tokenProvider.parseClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private UsernamePasswordAuthenticationToken authenticate(Claims claims) {
+        String username = claims.getSubject();
+        String role = claims.get(JwtTokenProvider.ROLE_CLAIM, String.class);
+        if (role != null) {
+            // The principal name (email) is all user destinations need
+            return new UsernamePasswordAuthenticationToken(username, null, AuthorityUtils.createAuthorityList(role));
+        }
+
+        // Token issued before the role claim was added
+        legacyTokenLookups.increment();
+        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+}
@@ -0,0 +1,275 @@
+package com.worldcup.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Connection metrics for the STOMP endpoint, used to size nodes for peak load:
+ * - websocket.sessions.active: open sessions on this node
+ * - websocket.subscriptions{topic}: subscriptions per topic, ids collapsed (e.g. /topic/matches/{id})
+ * - websocket.outbound.queued.bytes / .frames: payload accepted for sessions but not yet written
+ * - websocket.frames.dropped: frames discarded because their session was closed or evicted
+ * - websocket.sessions.evicted: slow consumers closed for exceeding the send time or buffer limit
+ *
+ * Hooks in three places: an inbound interceptor tracks SUBSCRIBE/UNSUBSCRIBE,
+ * an outbound interceptor counts frames handed to each session, and a handler
+ * decorator wraps every session to see when frames are actually written.
+ * Queued bytes cover both the outbound channel queue and the per-session
+ * send buffer, measured as STOMP payload size.
+ */
+@Slf4j
+@Component
+public class WebSocketSessionMetrics implements WebSocketHandlerDecoratorFactory {
+
+    private static final Pattern DATE_SEGMENT = Pattern.compile("/\\d{4}-\\d{2}-\\d{2}(?=/|$)");
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, SessionStats> sessions = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> subscriptionsByTopic = new ConcurrentHashMap<>();
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private final AtomicLong queuedFrames = new AtomicLong();
+    private final Counter droppedFrames;
+    private final Counter evictedSessions;
+
+    private final ChannelInterceptor inboundInterceptor = new InboundInterceptor();
+    private final ChannelInterceptor outboundInterceptor = new OutboundInterceptor();
+
+    public WebSocketSessionMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("websocket.sessions.active", sessions, Map::size)
+            .description("Open WebSocket sessions on this node")
+            .register(meterRegistry);
+        Gauge.builder("websocket.outbound.queued.bytes", queuedBytes, AtomicLong::get)
+            .description("Payload bytes accepted for sessions but not yet written")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("websocket.outbound.queued.frames", queuedFrames, AtomicLong::get)
+            .description("Frames accepted for sessions but not yet written")
+            .register(meterRegistry);
+        droppedFrames = Counter.builder("websocket.frames.dropped")
+            .description("Outbound frames discarded because their session closed first")
+            .register(meterRegistry);
+        evictedSessions = Counter.builder("websocket.sessions.evicted")
+            .description("Slow sessions closed for exceeding the send time or buffer size limit")
+            .register(meterRegistry);
+    }
+
+    public ChannelInterceptor inboundInterceptor() {
+        return inboundInterceptor;
+    }
+
+    public ChannelInterceptor outboundInterceptor() {
+        return outboundInterceptor;
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                SessionStats stats = new SessionStats();
+                sessions.put(session.getId(), stats);
+                // The STOMP handler wraps this again with its buffering decorator, so
+                // sendMessage below runs only when a frame is really written out
+                super.afterConnectionEstablished(new MeteredSession(session, stats));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessionClosed(session.getId(), closeStatus);
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    private void sessionClosed(String sessionId, CloseStatus closeStatus) {
+        SessionStats stats = sessions.remove(sessionId);
+        if (stats == null) {
+            return;
+        }
+        stats.closed = true;
+        stats.subscriptions.values().forEach(this::decrementTopic);
+
+        // Whatever is still queued for the session will never be written
+        int dropped = drop(stats);
+
+        // ConcurrentWebSocketSessionDecorator closes slow consumers with SESSION_NOT_RELIABLE
+        if (CloseStatus.SESSION_NOT_RELIABLE.equalsCode(closeStatus)) {
+            evictedSessions.increment();
+            log.warn("Evicted slow WebSocket session {} ({} queued frame(s) dropped)", sessionId, dropped);
+        }
+    }
+
+    private int drop(SessionStats stats) {
+        int dropped = 0;
+        while (release(stats)) {
+            dropped++;
+        }
+        if (dropped > 0) {
+            droppedFrames.increment(dropped);
+        }
+        return dropped;
+    }
+
+    private boolean release(SessionStats stats) {
+        Integer size = stats.pendingSizes.poll();
+        if (size == null) {
+            return false;
+        }
+        queuedBytes.addAndGet(-size);
+        queuedFrames.decrementAndGet();
+        return true;
+    }
+
+    private void incrementTopic(String topic) {
+        subscriptionsByTopic.computeIfAbsent(topic, key -> {
+            AtomicInteger count = new AtomicInteger();
+            Gauge.builder("websocket.subscriptions", count, AtomicInteger::get)
+                .description("Active subscriptions per topic on this node")
+                .tag("topic", key)
+                .register(meterRegistry);
+            return count;
+        }).incrementAndGet();
+    }
+
+    private void decrementTopic(String topic) {
+        AtomicInteger count = subscriptionsByTopic.get(topic);
+        if (count != null) {
+            count.decrementAndGet();
+        }
+    }
+
+    /**
+     * Collapse ids and dates so per-match and per-league topics share one gauge,
+     * e.g. /topic/matches/42 -> /topic/matches/{id}.
+     */
+    static String topicKey(String destination) {
+        if (destination == null) {
+            return "unknown";
+        }
+        String key = DATE_SEGMENT.matcher(destination).replaceAll("/{date}");
+        return ID_SEGMENT.matcher(key).replaceAll("/{id}");
+    }
+
+    private static int payloadSize(Message<?> message) {
+        Object payload = message.getPayload();
+        return payload instanceof byte[] bytes ? bytes.length : 0;
+    }
+
+    private static final class SessionStats {
+        // subscription id -> topic key
+        final Map<String, String> subscriptions = new ConcurrentHashMap<>();
+        // sizes of frames accepted but not yet written, oldest first
+        final Queue<Integer> pendingSizes = new ConcurrentLinkedQueue<>();
+        volatile boolean closed;
+    }
+
+    private final class InboundInterceptor implements ChannelInterceptor {
+        @Override
+        public Message<?> preSend(Message<?> message, MessageChannel channel) {
+            SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+            if (type != SimpMessageType.SUBSCRIBE && type != SimpMessageType.UNSUBSCRIBE) {
+                return message;
+            }
+            SessionStats stats = sessions.get(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+            String subscriptionId = SimpMessageHeaderAccessor.getSubscriptionId(message.getHeaders());
+            if (stats == null || subscriptionId == null) {
+                return message;
+            }
+
+            if (type == SimpMessageType.SUBSCRIBE) {
+                String topic = topicKey(SimpMessageHeaderAccessor.getDestination(message.getHeaders()));
+                if (stats.subscriptions.putIfAbsent(subscriptionId, topic) == null) {
+                    incrementTopic(topic);
+                }
+            } else {
+                String topic = stats.subscriptions.remove(subscriptionId);
+                if (topic != null) {
+                    decrementTopic(topic);
+                }
+            }
+            return message;
+        }
+    }
+
+    private final class OutboundInterceptor implements ChannelInterceptor {
+        @Override
+        public Message<?> preSend(Message<?> message, MessageChannel channel) {
+            SessionStats stats = sessions.get(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+            if (stats == null) {
+                // Session already gone: the STOMP handler will discard the frame
+                if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE) {
+                    droppedFrames.increment();
+                }
+                return message;
+            }
+            int size = payloadSize(message);
+            stats.pendingSizes.add(size);
+            queuedBytes.addAndGet(size);
+            queuedFrames.incrementAndGet();
+            if (stats.closed) {
+                // Raced with the session closing after it was drained
+                drop(stats);
+            }
+            return message;
+        }
+
+        @Override
+        public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+            if (sent) {
+                return;
+            }
+            // Rejected by the outbound executor (queue full): the frame is lost
+            SessionStats stats = sessions.get(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+            if (stats != null) {
+                release(stats);
+            }
+            droppedFrames.increment();
+        }
+    }
+
+    private final class MeteredSession extends WebSocketSessionDecorator {
+        private final SessionStats stats;
+
+        MeteredSession(WebSocketSession delegate, SessionStats stats) {
+            super(delegate);
+            this.stats = stats;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            try {
+                super.sendMessage(message);
+            } finally {
+                release(stats);
+            }
+        }
+    }
+}
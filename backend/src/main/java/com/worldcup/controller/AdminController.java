@@ -19,7 +19,10 @@ import com.worldcup.repository.UserAchievementRepository;
 import com.worldcup.repository.UserRepository;
 import com.worldcup.security.AdminRequired;
 import com.worldcup.config.FootballApiSyncScheduler;
+import com.worldcup.config.MatchTransitionTimer;
 import com.worldcup.entity.Notification;
+import com.worldcup.service.LocalStandingsService;
+import com.worldcup.service.MatchExternalIdIndex;
 import com.worldcup.service.MatchService;
 import com.worldcup.service.NotificationService;
 import com.worldcup.service.PredictionService;
@@ -55,6 +58,9 @@ public class AdminController {
     private final LeagueRepository leagueRepository;
     private final UserAchievementRepository userAchievementRepository;
     private final NotificationRepository notificationRepository;
+    private final MatchExternalIdIndex matchExternalIdIndex;
+    private final LocalStandingsService localStandingsService;
+    private final MatchTransitionTimer matchTransitionTimer;
 
     private static final String CLEANUP_CONFIRM_TOKEN = "YES_DELETE_TEST_DATA";
     private static final long MIN_KEEP_MATCHES = 50;
@@ -112,7 +118,7 @@ public class AdminController {
                 request.getGroup()
         );
         // Broadcast new match via WebSocket
-        webSocketService.broadcastMatchUpdate(match.getId());
+        webSocketService.broadcastMatchUpdate(match);
         return ResponseEntity.status(HttpStatus.CREATED).body(convertToDTO(match));
     }
 
@@ -160,7 +166,7 @@ public class AdminController {
             
             // Broadcast match update via WebSocket
             try {
-                webSocketService.broadcastMatchUpdate(id);
+                webSocketService.broadcastMatchUpdate(match);
                 log.info("WebSocket broadcast sent for match {}", id);
             } catch (Exception e) {
                 log.error("Error broadcasting match update for match {}: {}", id, e.getMessage(), e);
@@ -194,7 +200,7 @@ public class AdminController {
         // No need to calculate manually here to avoid concurrent modification issues.
         
         // Broadcast match status change via WebSocket
-        webSocketService.broadcastMatchUpdate(id);
+        webSocketService.broadcastMatchUpdate(match);
         
         return ResponseEntity.ok(convertToDTO(match));
     }
@@ -205,6 +211,7 @@ public class AdminController {
         matchService.findById(id)
                 .orElseThrow(() -> new MatchNotFoundException(id));
         matchService.deleteMatch(id);
+        webSocketService.forgetMatch(id);
         return ResponseEntity.ok().body(java.util.Map.of("message", "Match deleted successfully"));
     }
 
@@ -372,6 +379,10 @@ public class AdminController {
 
         int predictionsDeleted = predictionRepository.deletePredictionsForNonWorldCupMatches();
         int matchesDeleted = matchRepository.deleteNonWorldCupMatches();
+        // Bulk SQL delete bypasses the entity listener
+        matchExternalIdIndex.rebuildAfterCommit();
+        localStandingsService.invalidateAll();
+        matchTransitionTimer.rebuildAfterCommit();
         int leaguesHidden = leagueRepository.hideAllAndResetAchievementsProcessed();
 
         long userAchievementsDeleted = userAchievementRepository.count();
@@ -379,6 +390,8 @@ public class AdminController {
 
         long notificationsDeleted = notificationRepository.count();
         notificationRepository.deleteAllInBatch();
+        // Bulk delete bypasses the unread counts; dropped on every node after commit
+        notificationService.invalidateUnreadCounts();
 
         long keepCountAfter = matchRepository.countMatchesToKeep();
 
@@ -7,17 +7,21 @@ import com.worldcup.entity.Match;
 import com.worldcup.entity.MatchStatus;
 import com.worldcup.exception.MatchNotFoundException;
 import com.worldcup.security.AdminRequired;
+import com.worldcup.service.LiveScoreStreamService;
 import com.worldcup.service.MatchService;
 import com.worldcup.service.PredictionService;
 import com.worldcup.service.WebSocketService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -31,6 +35,7 @@ public class MatchController {
     private final MatchService matchService;
     private final PredictionService predictionService;
     private final WebSocketService webSocketService;
+    private final LiveScoreStreamService liveScoreStreamService;
 
     @GetMapping
     public ResponseEntity<List<MatchDTO>> getAllMatches(
@@ -53,6 +58,18 @@ public class MatchController {
         return ResponseEntity.ok(matchDTOs);
     }
 
+    /**
+     * Live match deltas as Server-Sent Events ("matches" events, same JSON as
+     * /topic/matches/batch). Public, and resumable via the Last-Event-ID header;
+     * new or unresumable connections start with a "snapshot" of every match.
+     */
+    @GetMapping(value = "/live/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SseEmitter streamLiveMatches(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return liveScoreStreamService.subscribe(lastEventId);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<MatchDTO> getMatchById(@PathVariable Long id) {
         Match match = matchService.findById(id)
@@ -107,7 +124,7 @@ public class MatchController {
         }
 
         // Broadcast update via WebSocket
-        webSocketService.broadcastMatchUpdate(id);
+        webSocketService.broadcastMatchUpdate(match);
 
         return ResponseEntity.ok(convertToDTO(match));
     }
@@ -131,7 +148,7 @@ public class MatchController {
         }
         
         // Broadcast update via WebSocket
-        webSocketService.broadcastMatchUpdate(id);
+        webSocketService.broadcastMatchUpdate(match);
         
         return ResponseEntity.ok(convertToDTO(match));
     }
@@ -1,11 +1,11 @@
 package com.worldcup.controller;
 
 import com.worldcup.dto.NotificationDTO;
+import com.worldcup.dto.NotificationFeedDTO;
 import com.worldcup.security.CurrentUser;
 import com.worldcup.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -22,15 +22,15 @@ public class NotificationController {
     private final CurrentUser currentUser;
 
     /**
-     * Get user's notifications (paginated)
+     * Get user's notifications (cursor-paginated, newest first).
+     * Pass the previous response's nextCursor as ?before= to load older notifications.
      */
     @GetMapping
-    public ResponseEntity<Page<NotificationDTO>> getNotifications(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "50") int size) {
+    public ResponseEntity<NotificationFeedDTO> getNotifications(
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "50") int limit) {
         var user = currentUser.getCurrentUserOrThrow();
-        Page<NotificationDTO> notifications = notificationService.getUserNotifications(user, page, size);
-        return ResponseEntity.ok(notifications);
+        return ResponseEntity.ok(notificationService.getNotificationFeed(user, before, limit));
     }
 
     /**
@@ -42,18 +42,6 @@ public class NotificationController {
         return ResponseEntity.ok(notificationService.getUnreadNotifications(user));
     }
 
-    /**
-     * Get unread count
-     */
-    @GetMapping("/unread-count")
-    public ResponseEntity<Map<String, Long>> getUnreadCount() {
-        var user = currentUser.getCurrentUserOrThrow();
-        long count = notificationService.getUnreadCount(user);
-        Map<String, Long> response = new HashMap<>();
-        response.put("count", count);
-        return ResponseEntity.ok(response);
-    }
-
     /**
      * Mark notification as read
      */
@@ -1,7 +1,9 @@
 package com.worldcup.controller;
 
 import com.worldcup.service.FootballApiService;
+import com.worldcup.service.LocalStandingsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -15,9 +17,17 @@ import java.util.List;
 public class StandingsController {
 
     private final FootballApiService footballApiService;
+    private final LocalStandingsService localStandingsService;
+
+    // "local" computes tables from our match results; "api" proxies the Football API
+    @Value("${standings.source:local}")
+    private String source;
 
     @GetMapping
     public ResponseEntity<List<FootballApiService.StandingData>> getStandings() {
-        return ResponseEntity.ok(footballApiService.fetchStandings());
+        if ("api".equalsIgnoreCase(source)) {
+            return ResponseEntity.ok(footballApiService.fetchStandings());
+        }
+        return ResponseEntity.ok(localStandingsService.getStandings());
     }
 }
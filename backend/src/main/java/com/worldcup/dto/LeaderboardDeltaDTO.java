@@ -0,0 +1,15 @@
+package com.worldcup.dto;
+
+import java.util.List;
+
+/**
+ * League leaderboard update sent on /topic/leagues/{id}/leaderboard.
+ * Carries only the entries whose points, rank or prize changed since the
+ * previous broadcast, plus the user ids that left the leaderboard.
+ */
+public record LeaderboardDeltaDTO(
+    Long leagueId,
+    long version,
+    List<LeaderboardEntryDTO> changed,
+    List<Long> removed
+) {}
@@ -0,0 +1,70 @@
+package com.worldcup.dto;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Match update sent over WebSocket: the match id, a version number and only
+ * the fields that changed since the previous broadcast (serialized flat, e.g.
+ * {"id": 7, "version": 1718000000123, "homeScore": 1}). Clients merge it into
+ * their copy of the match and ignore deltas with a version they have already seen.
+ */
+public final class MatchDeltaDTO {
+
+    // Wire name -> accessor for every field a delta can carry (id is always sent)
+    private static final Map<String, Function<MatchDTO, Object>> FIELDS = new LinkedHashMap<>();
+
+    static {
+        FIELDS.put("homeTeam", MatchDTO::homeTeam);
+        FIELDS.put("homeTeamCrest", MatchDTO::homeTeamCrest);
+        FIELDS.put("awayTeam", MatchDTO::awayTeam);
+        FIELDS.put("awayTeamCrest", MatchDTO::awayTeamCrest);
+        FIELDS.put("matchDate", MatchDTO::matchDate);
+        FIELDS.put("venue", MatchDTO::venue);
+        FIELDS.put("group", MatchDTO::group);
+        FIELDS.put("status", MatchDTO::status);
+        FIELDS.put("homeScore", MatchDTO::homeScore);
+        FIELDS.put("awayScore", MatchDTO::awayScore);
+    }
+
+    private final Long id;
+    private final long version;
+    private final Map<String, Object> changes;
+
+    private MatchDeltaDTO(Long id, long version, Map<String, Object> changes) {
+        this.id = id;
+        this.version = version;
+        this.changes = changes;
+    }
+
+    /**
+     * Fields of current that differ from previous; every field if previous is null.
+     */
+    public static MatchDeltaDTO between(MatchDTO previous, MatchDTO current, long version) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        FIELDS.forEach((name, accessor) -> {
+            Object after = accessor.apply(current);
+            if (previous == null || !Objects.equals(accessor.apply(previous), after)) {
+                changes.put(name, after);
+            }
+        });
+        return new MatchDeltaDTO(current.id(), version, changes);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @JsonAnyGetter
+    public Map<String, Object> getChanges() {
+        return changes;
+    }
+}
@@ -0,0 +1,15 @@
+package com.worldcup.dto;
+
+import java.util.List;
+
+/**
+ * One page of the keyset-paginated notification feed.
+ * nextCursor is null when there are no older notifications; otherwise it is
+ * passed back as ?before= to fetch the next page. unreadCount seeds the
+ * badge; later changes arrive on /user/queue/unread-count.
+ */
+public record NotificationFeedDTO(
+    List<NotificationDTO> items,
+    String nextCursor,
+    long unreadCount
+) {}
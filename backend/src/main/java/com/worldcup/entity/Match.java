@@ -14,7 +14,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "matches")
+@Table(name = "matches", indexes = {
+    // Upsert key for MatchUpsertRepository (ON CONFLICT / MERGE KEY)
+    @Index(name = "ux_matches_external_api_id", columnList = "external_api_id", unique = true),
+    @Index(name = "ix_matches_competition_id", columnList = "competition_id"),
+    // Due-match lookups of MatchTransitionRepository (status = ? AND match_date <= ?)
+    @Index(name = "ix_matches_status_match_date", columnList = "status, match_date")
+})
 @EntityListeners(MatchEntityListener.class)
 @Data
 @NoArgsConstructor
@@ -62,6 +68,13 @@ public class Match {
     @Column(name = "external_api_id", length = 100)
     private String externalApiId; // ID from external API (e.g., Football-Data.org, API-Football)
 
+    @Column(name = "competition_id", length = 20)
+    private String competitionId; // Football API competition synced from ("2000" = World Cup); null = primary / manual
+
+    @Column(name = "api_fingerprint", length = 64)
+    @JsonIgnore
+    private String apiFingerprint; // FootballApiService.fingerprint() of the API data last applied
+
     @OneToMany(mappedBy = "match", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonIgnore
     private List<Prediction> predictions = new ArrayList<>();
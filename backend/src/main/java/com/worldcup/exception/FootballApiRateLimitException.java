@@ -0,0 +1,13 @@
+package com.worldcup.exception;
+
+/**
+ * Exception thrown when a Football API request cannot get a rate-limit token
+ * within the allowed wait.
+ */
+public class FootballApiRateLimitException extends WorldCupException {
+
+    public FootballApiRateLimitException(String priority, long waitedMs) {
+        super("FOOTBALL_API_RATE_LIMITED",
+                "Football API request (" + priority + ") not sent: no rate-limit token after " + waitedMs + " ms");
+    }
+}
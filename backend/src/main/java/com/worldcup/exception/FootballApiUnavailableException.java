@@ -0,0 +1,13 @@
+package com.worldcup.exception;
+
+/**
+ * Exception thrown when a Football API request is not sent because the
+ * circuit breaker is open (the API failed repeatedly and is being rested).
+ */
+public class FootballApiUnavailableException extends WorldCupException {
+
+    public FootballApiUnavailableException(long retryInMs) {
+        super("FOOTBALL_API_UNAVAILABLE",
+                "Football API request not sent: circuit open, next probe in " + retryInMs + " ms");
+    }
+}
@@ -0,0 +1,11 @@
+package com.worldcup.exception;
+
+/**
+ * Exception thrown when a pagination cursor cannot be parsed.
+ */
+public class InvalidCursorException extends WorldCupException {
+    
+    public InvalidCursorException(String cursor) {
+        super("INVALID_CURSOR", "Invalid cursor: " + cursor + ". Expected format: <createdAt>,<id>");
+    }
+}
@@ -5,7 +5,10 @@ import com.worldcup.entity.LeagueMembership;
 import com.worldcup.entity.User;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,10 +18,21 @@ public interface LeagueMembershipRepository extends JpaRepository<LeagueMembersh
 
     List<LeagueMembership> findByUser(User user);
 
+    boolean existsByLeagueIdAndUserEmail(Long leagueId, String email);
+
     @EntityGraph(attributePaths = {"user"})
     List<LeagueMembership> findByLeague(League league);
 
     void deleteByLeague(League league);
+
+    // Visible leagues whose window contains the kickoff and that have a member
+    // who predicted the match, i.e. the leaderboards a result can change.
+    @Query("SELECT DISTINCT m.league.id FROM LeagueMembership m " +
+           "WHERE m.league.startDate <= :kickOff AND m.league.endDate >= :kickOff " +
+           "AND (m.league.hidden IS NULL OR m.league.hidden = false) " +
+           "AND m.user IN (SELECT p.user FROM Prediction p WHERE p.match.id = :matchId)")
+    List<Long> findLeagueIdsAffectedByMatch(@Param("matchId") Long matchId,
+                                            @Param("kickOff") LocalDateTime kickOff);
 }
 
 
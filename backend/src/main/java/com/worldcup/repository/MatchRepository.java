@@ -5,23 +5,56 @@ import com.worldcup.entity.MatchStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface MatchRepository extends JpaRepository<Match, Long> {
     List<Match> findByStatus(MatchStatus status);
+    List<Match> findByStatusIn(Collection<MatchStatus> statuses);
     List<Match> findByMatchDateBetween(LocalDateTime start, LocalDateTime end);
     List<Match> findByGroup(String group);
+
+    // Group matches of the primary competition, including matches without a
+    // competition_id (synced before it existed, or created manually)
+    @Query("SELECT m FROM Match m WHERE m.group LIKE :groupPattern " +
+           "AND (m.competitionId = :competitionId OR m.competitionId IS NULL)")
+    List<Match> findPrimaryGroupMatches(@Param("groupPattern") String groupPattern,
+                                        @Param("competitionId") String competitionId);
     List<Match> findByStatusOrderByMatchDateAsc(MatchStatus status);
     List<Match> findByStatusAndMatchDateAfter(MatchStatus status, LocalDateTime date);
 
-    // Optimized query to only fetch matches with external API IDs (for API sync)
-    // This avoids loading all matches into memory
-    @Query("SELECT m FROM Match m WHERE m.externalApiId IS NOT NULL AND m.externalApiId != ''")
-    List<Match> findAllWithExternalApiId();
+    // External id -> id/fingerprint/competition of every API-linked match, for
+    // MatchExternalIdIndex; a projection, so no entities are loaded
+    @Query("SELECT m.externalApiId AS externalApiId, m.id AS id, m.apiFingerprint AS apiFingerprint, " +
+           "m.competitionId AS competitionId " +
+           "FROM Match m WHERE m.externalApiId IS NOT NULL AND m.externalApiId != ''")
+    List<ExternalIdView> findExternalIdIndex();
+
+    @Query("SELECT m.externalApiId AS externalApiId, m.id AS id, m.apiFingerprint AS apiFingerprint, " +
+           "m.competitionId AS competitionId " +
+           "FROM Match m WHERE m.externalApiId IN :externalApiIds")
+    List<ExternalIdView> findExternalIdIndex(@Param("externalApiIds") Collection<String> externalApiIds);
+
+    // One competition's partition; includeUnassigned also returns rows synced
+    // before competition_id existed (they belong to the primary competition)
+    @Query("SELECT m.externalApiId AS externalApiId, m.id AS id, m.apiFingerprint AS apiFingerprint, " +
+           "m.competitionId AS competitionId " +
+           "FROM Match m WHERE m.externalApiId IS NOT NULL AND m.externalApiId != '' " +
+           "AND (m.competitionId = :competitionId OR (:includeUnassigned = true AND m.competitionId IS NULL))")
+    List<ExternalIdView> findExternalIdIndexByCompetition(@Param("competitionId") String competitionId,
+                                                          @Param("includeUnassigned") boolean includeUnassigned);
+
+    interface ExternalIdView {
+        String getExternalApiId();
+        Long getId();
+        String getApiFingerprint();
+        String getCompetitionId();
+    }
 
     // Allow-list of World Cup stage labels produced by FootballApiService.stageLabel().
     // Used as the "keep" set for cleanup so we don't have to enumerate every
@@ -0,0 +1,87 @@
+package com.worldcup.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Set-based match status transitions: every due match moves in a single
+ * UPDATE that also returns the ids it changed, so a transition is one
+ * statement however many matches kick off at once, and a row changed
+ * concurrently (e.g. by a sync job) is either transitioned exactly once or
+ * not at all.
+ *
+ * PostgreSQL uses UPDATE ... RETURNING id. H2 (dev) has no RETURNING, so it
+ * selects the ids from FINAL TABLE (UPDATE ...), which is equally atomic.
+ *
+ * Rows are written directly, bypassing JPA: entity listeners do not run.
+ * Callers take care of broadcasts and the in-memory views of the matches.
+ */
+@Slf4j
+@Repository
+public class MatchTransitionRepository {
+
+    private static final String START_DUE = "UPDATE matches SET status = 'LIVE' "
+            + "WHERE status = 'SCHEDULED' AND match_date <= ?";
+
+    private static final String FINISH_DUE = "UPDATE matches SET status = 'FINISHED' "
+            + "WHERE status = 'LIVE' AND match_date <= ?";
+
+    private static final String NOT_API_LINKED = " AND (external_api_id IS NULL OR external_api_id = '')";
+
+    private static final String COUNT_DUE_API_LINKED = "SELECT COUNT(*) FROM matches "
+            + "WHERE status = 'LIVE' AND match_date <= ? AND external_api_id <> ''";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean h2;
+
+    public MatchTransitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * SCHEDULED -> LIVE for every match that kicked off at or before now.
+     * Returns the ids of the matches changed.
+     */
+    public List<Long> startDue(LocalDateTime now) {
+        return updateReturningIds(START_DUE, now);
+    }
+
+    /**
+     * LIVE -> FINISHED for every match that kicked off at or before
+     * kickedOffBefore, leaving API-linked matches LIVE when skipApiLinked.
+     * Returns the ids of the matches changed.
+     */
+    public List<Long> finishDue(LocalDateTime kickedOffBefore, boolean skipApiLinked) {
+        return updateReturningIds(skipApiLinked ? FINISH_DUE + NOT_API_LINKED : FINISH_DUE, kickedOffBefore);
+    }
+
+    /**
+     * LIVE API-linked matches that kicked off at or before kickedOffBefore.
+     */
+    public long countDueApiLinked(LocalDateTime kickedOffBefore) {
+        Long count = jdbcTemplate.queryForObject(COUNT_DUE_API_LINKED, Long.class, Timestamp.valueOf(kickedOffBefore));
+        return count != null ? count : 0;
+    }
+
+    private List<Long> updateReturningIds(String update, LocalDateTime cutoff) {
+        String sql = isH2() ? "SELECT id FROM FINAL TABLE (" + update + ")" : update + " RETURNING id";
+        return jdbcTemplate.queryForList(sql, Long.class, Timestamp.valueOf(cutoff));
+    }
+
+    private boolean isH2() {
+        Boolean result = h2;
+        if (result == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            result = "H2".equalsIgnoreCase(product);
+            h2 = result;
+            log.debug("Match transitions use {} syntax", result ? "FINAL TABLE" : "RETURNING");
+        }
+        return result;
+    }
+}
@@ -0,0 +1,103 @@
+package com.worldcup.repository;
+
+import com.worldcup.entity.Match;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bulk insert-or-update of API fixtures keyed by external_api_id, as JDBC
+ * batches: one round-trip per batch instead of one INSERT per match (JPA
+ * cannot batch inserts for IDENTITY ids).
+ *
+ * PostgreSQL uses INSERT ... ON CONFLICT (external_api_id) DO UPDATE, which
+ * skips rows whose api_fingerprint and competition_id are unchanged. H2 (dev)
+ * has no ON CONFLICT, so it uses MERGE ... KEY (external_api_id). Both rely on the unique index
+ * ux_matches_external_api_id.
+ *
+ * Rows are written directly, bypassing JPA: entity listeners do not run and
+ * saved Match objects get no id. Callers refresh MatchExternalIdIndex.
+ */
+@Slf4j
+@Repository
+public class MatchUpsertRepository {
+
+    private static final String COLUMNS = "home_team, home_team_crest, away_team, away_team_crest, match_date, "
+            + "venue, match_group, status, home_score, away_score, external_api_id, api_fingerprint, competition_id";
+
+    private static final String POSTGRES_UPSERT = "INSERT INTO matches (" + COLUMNS + ") "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (external_api_id) DO UPDATE SET "
+            + "home_team = EXCLUDED.home_team, home_team_crest = EXCLUDED.home_team_crest, "
+            + "away_team = EXCLUDED.away_team, away_team_crest = EXCLUDED.away_team_crest, "
+            + "match_date = EXCLUDED.match_date, venue = EXCLUDED.venue, match_group = EXCLUDED.match_group, "
+            + "status = EXCLUDED.status, home_score = EXCLUDED.home_score, away_score = EXCLUDED.away_score, "
+            + "api_fingerprint = EXCLUDED.api_fingerprint, competition_id = EXCLUDED.competition_id "
+            + "WHERE matches.api_fingerprint IS DISTINCT FROM EXCLUDED.api_fingerprint "
+            + "OR matches.competition_id IS DISTINCT FROM EXCLUDED.competition_id";
+
+    private static final String H2_MERGE = "MERGE INTO matches (" + COLUMNS + ") KEY (external_api_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile String upsertSql;
+
+    public MatchUpsertRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Upsert the matches (which must have an externalApiId) in one JDBC batch.
+     * Returns the number of rows inserted or changed.
+     */
+    public int upsertAll(List<Match> matches) {
+        if (matches.isEmpty()) {
+            return 0;
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(upsertSql(), matches, matches.size(), this::bind);
+        return Arrays.stream(counts).flatMapToInt(Arrays::stream).map(c -> Math.max(c, 0)).sum();
+    }
+
+    private void bind(PreparedStatement ps, Match match) throws SQLException {
+        ps.setString(1, match.getHomeTeam());
+        ps.setString(2, match.getHomeTeamCrest());
+        ps.setString(3, match.getAwayTeam());
+        ps.setString(4, match.getAwayTeamCrest());
+        ps.setTimestamp(5, match.getMatchDate() != null ? Timestamp.valueOf(match.getMatchDate()) : null);
+        ps.setString(6, match.getVenue());
+        ps.setString(7, match.getGroup());
+        ps.setString(8, match.getStatus().name());
+        setInteger(ps, 9, match.getHomeScore());
+        setInteger(ps, 10, match.getAwayScore());
+        ps.setString(11, match.getExternalApiId());
+        ps.setString(12, match.getApiFingerprint());
+        ps.setString(13, match.getCompetitionId());
+    }
+
+    private static void setInteger(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value != null) {
+            ps.setInt(index, value);
+        } else {
+            ps.setNull(index, Types.INTEGER);
+        }
+    }
+
+    private String upsertSql() {
+        String sql = upsertSql;
+        if (sql == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            sql = "H2".equalsIgnoreCase(product) ? H2_MERGE : POSTGRES_UPSERT;
+            upsertSql = sql;
+            log.debug("Match upsert uses {} syntax", "H2".equalsIgnoreCase(product) ? "MERGE" : "ON CONFLICT");
+        }
+        return sql;
+    }
+}
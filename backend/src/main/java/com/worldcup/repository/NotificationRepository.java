@@ -2,7 +2,6 @@ package com.worldcup.repository;
 
 import com.worldcup.entity.Notification;
 import com.worldcup.entity.User;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
@@ -10,23 +9,54 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     
-    Page<Notification> findByUserOrderByCreatedAtDesc(User user, Pageable pageable);
+    // Keyset (seek) pagination over idx_notifications_user_created_id: no OFFSET scan
+    // and no COUNT(*) per page. (createdAt, id) is the cursor; id breaks ties.
+    @Query("SELECT n FROM Notification n WHERE n.user = :user ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findFeedFirstPage(@Param("user") User user, Pageable pageable);
     
+    @Query("SELECT n FROM Notification n WHERE n.user = :user " +
+           "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findFeedBefore(@Param("user") User user,
+                                      @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+    
+    // Both served by the partial idx_notifications_user_unread (WHERE read = false)
     List<Notification> findByUserAndReadFalseOrderByCreatedAtDesc(User user);
     
     long countByUserAndReadFalse(User user);
     
+    long countByUserIdAndReadFalse(Long userId);
+    
     @Modifying
     @Query("UPDATE Notification n SET n.read = true WHERE n.user = :user AND n.read = false")
     int markAllAsReadByUser(@Param("user") User user);
     
     @Query("SELECT n FROM Notification n WHERE n.user = :user ORDER BY n.createdAt DESC")
     List<Notification> findRecentByUser(@Param("user") User user, Pageable pageable);
+    
+    // Retention purge: bounds for walking the table in primary-key ranges
+    @Query("SELECT MIN(n.id) FROM Notification n")
+    Long findMinId();
+    
+    @Query("SELECT MAX(n.id) FROM Notification n")
+    Long findMaxId();
+    
+    // Deletes one bounded id range for one retention rule, so each statement
+    // touches at most chunk-size rows and holds its locks only briefly.
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.id >= :fromId AND n.id < :toId " +
+           "AND n.type = :type AND n.read = :read AND n.createdAt < :cutoff")
+    int deleteExpiredInRange(@Param("fromId") Long fromId,
+                             @Param("toId") Long toId,
+                             @Param("type") Notification.NotificationType type,
+                             @Param("read") Boolean read,
+                             @Param("cutoff") LocalDateTime cutoff);
 }
-
-
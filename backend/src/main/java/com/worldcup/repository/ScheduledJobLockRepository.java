@@ -0,0 +1,91 @@
+package com.worldcup.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Lease rows for ScheduledJobLockAspect: one row per job with the instance
+ * holding it and until when. A lease is taken by a conditional UPDATE (free
+ * once locked_until has passed, or already ours) or, for a job that never
+ * ran, an INSERT that loses to a concurrent one on the primary key. Both are
+ * single statements, so exactly one instance wins.
+ *
+ * Every statement commits in its own transaction: pooled connections do not
+ * autocommit in prod (hikari.auto-commit=false), so a lease written through
+ * the plain JdbcTemplate would be rolled back when the connection returns to
+ * the pool, and a lost INSERT race must not abort the caller's transaction.
+ * The table is created on first use; see migrations/add_scheduled_job_locks.sql.
+ */
+@Repository
+public class ScheduledJobLockRepository {
+
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS scheduled_job_locks ("
+            + "name VARCHAR(64) PRIMARY KEY, locked_until TIMESTAMP NOT NULL, "
+            + "locked_at TIMESTAMP NOT NULL, locked_by VARCHAR(255) NOT NULL)";
+
+    private static final String TAKE = "UPDATE scheduled_job_locks SET locked_until = ?, locked_at = ?, locked_by = ? "
+            + "WHERE name = ? AND (locked_until <= ? OR locked_by = ?)";
+
+    // Only for a missing row, so held locks do not cost a failed INSERT every run
+    private static final String INSERT = "INSERT INTO scheduled_job_locks (name, locked_until, locked_at, locked_by) "
+            + "SELECT ?, ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM scheduled_job_locks WHERE name = ?)";
+
+    private static final String RELEASE = "UPDATE scheduled_job_locks SET locked_until = ? "
+            + "WHERE name = ? AND locked_by = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate ownTransaction;
+    private volatile boolean tableReady;
+
+    public ScheduledJobLockRepository(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Take the lease on name until lockedUntil if it is free or already held
+     * by owner. Returns false if another owner holds it.
+     */
+    public boolean tryLock(String name, String owner, LocalDateTime now, LocalDateTime lockedUntil) {
+        ensureTable();
+        Timestamp nowTs = Timestamp.valueOf(now);
+        Timestamp untilTs = Timestamp.valueOf(lockedUntil);
+        if (update(TAKE, untilTs, nowTs, owner, name, nowTs, owner) > 0) {
+            return true;
+        }
+        try {
+            return update(INSERT, name, untilTs, nowTs, owner, name) > 0;
+        } catch (DuplicateKeyException e) {
+            // Another instance inserted the row first
+            return false;
+        }
+    }
+
+    /**
+     * Shorten owner's lease on name to lockedUntil (now, or the lock-at-least
+     * deadline). No-op if the lease has meanwhile passed to another owner.
+     */
+    public void release(String name, String owner, LocalDateTime lockedUntil) {
+        update(RELEASE, Timestamp.valueOf(lockedUntil), name, owner);
+    }
+
+    private int update(String sql, Object... args) {
+        Integer rows = ownTransaction.execute(status -> jdbcTemplate.update(sql, args));
+        return rows != null ? rows : 0;
+    }
+
+    private void ensureTable() {
+        if (!tableReady) {
+            ownTransaction.executeWithoutResult(status -> jdbcTemplate.execute(CREATE_TABLE));
+            tableReady = true;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.worldcup.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * A WebSocket payload serialized to JSON exactly once.
+ * The same immutable message (and byte[] payload) is sent to every
+ * destination of an event, so Jackson runs once per event rather than once
+ * per convertAndSend call. Fan-out to a destination's subscriber sessions
+ * shares one payload either way; the frame's bytes are also reused by the
+ * cluster relay and the live-score SSE stream.
+ */
+public final class BroadcastFrame {
+
+    private final Message<byte[]> message;
+
+    private BroadcastFrame(byte[] payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(false);
+        this.message = MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+    }
+
+    public static BroadcastFrame of(ObjectMapper objectMapper, Object payload) {
+        try {
+            return new BroadcastFrame(objectMapper.writeValueAsBytes(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Payload is not serializable: " + payload.getClass().getSimpleName(), e);
+        }
+    }
+
+    public static BroadcastFrame ofBytes(byte[] json) {
+        return new BroadcastFrame(json);
+    }
+
+    /**
+     * Serialized JSON. Shared, not copied: callers must not modify it.
+     */
+    public byte[] payload() {
+        return message.getPayload();
+    }
+
+    Message<byte[]> message() {
+        return message;
+    }
+}
@@ -0,0 +1,111 @@
+package com.worldcup.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versions stamped on match and leaderboard broadcasts.
+ *
+ * Clients drop any delta whose version is not newer than the last one they
+ * applied for that match, and with websocket.cluster.enabled every node
+ * broadcasts the same matches, so versions must be ordered across nodes, not
+ * just within one JVM. In cluster mode they come from the PostgreSQL sequence
+ * ws_broadcast_version_seq, one round trip per publish however many versions
+ * it needs. Single-node deployments use a local counter.
+ *
+ * Both are seeded from the clock, so versions keep increasing across restarts
+ * and clients never discard fresh deltas as old.
+ *
+ * Database calls run in their own transaction: pooled connections do not
+ * autocommit in prod, and publishes often happen in after-commit callbacks
+ * whose connection must not be left aborted by a failed nextval.
+ */
+@Slf4j
+@Component
+public class BroadcastVersionSequence {
+
+    private static final String SEQUENCE = "ws_broadcast_version_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate ownTransaction;
+    private final boolean clustered;
+
+    // Local fallback, and a floor so versions never go backwards when the
+    // database is briefly unavailable
+    private final AtomicLong local = new AtomicLong(System.currentTimeMillis());
+
+    private volatile boolean sequenceReady;
+
+    public BroadcastVersionSequence(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${websocket.cluster.enabled:false}") boolean clustered) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.clustered = clustered;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (clustered) {
+            createSequence();
+        }
+    }
+
+    /**
+     * Reserve count increasing versions, all newer than any version handed out
+     * before on any node.
+     */
+    public long[] next(int count) {
+        long[] versions = new long[count];
+        if (count == 0) {
+            return versions;
+        }
+        if (clustered) {
+            try {
+                List<Long> reserved = ownTransaction.execute(status -> jdbcTemplate.queryForList(
+                        "SELECT nextval('" + SEQUENCE + "') FROM generate_series(1, ?)", Long.class, count));
+                reserved.sort(null);
+                for (int i = 0; i < count; i++) {
+                    versions[i] = reserved.get(i);
+                }
+                local.accumulateAndGet(versions[count - 1], Math::max);
+                sequenceReady = true;
+                return versions;
+            } catch (DataAccessException | TransactionException e) {
+                if (!sequenceReady && createSequence()) {
+                    return next(count);
+                }
+                log.warn("Broadcast version sequence unavailable, using node-local versions: {}", e.getMessage());
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            versions[i] = local.incrementAndGet();
+        }
+        return versions;
+    }
+
+    private boolean createSequence() {
+        try {
+            ownTransaction.executeWithoutResult(status -> jdbcTemplate.execute(
+                    "CREATE SEQUENCE IF NOT EXISTS " + SEQUENCE + " START WITH " + System.currentTimeMillis()));
+            sequenceReady = true;
+            return true;
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Could not create {}: {}", SEQUENCE, e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package com.worldcup.service;
+
+import com.worldcup.config.ScheduledJobLock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Relays WebSocket frames and cluster events between backend nodes over
+ * PostgreSQL LISTEN/NOTIFY, so a broadcast produced on one node (e.g. by a
+ * scheduler) reaches clients connected to every node without running a
+ * separate message broker.
+ *
+ * Each message is published as "nodeId \t target \t ref \n json". Payloads
+ * too large for a NOTIFY (8000 bytes) are stored in ws_fanout_payloads and
+ * only their row id is sent. A node ignores its own messages.
+ * - A target starting with "/" is a broker destination: the frame is
+ *   re-delivered as is to this node's sessions (user queues).
+ * - Any other target names an event (see subscribe), whose handler decides
+ *   what to do, e.g. WebSocketService applies relayed match state against its
+ *   own broadcast state instead of forwarding another node's deltas.
+ *
+ * publish() never touches the database: frames go into a bounded queue that
+ * one "ws-cluster-sender" thread drains, sending everything queued in a single
+ * NOTIFY round trip. Broadcasting threads (and WebSocketService's publish
+ * lock) therefore never wait on PostgreSQL; when the queue is full, frames
+ * are dropped and counted rather than blocking the caller.
+ *
+ * Disabled unless websocket.cluster.enabled=true (requires PostgreSQL).
+ */
+@Slf4j
+@Service
+public class ClusterFanoutService {
+
+    private static final String INLINE = "-";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final DataSourceProperties dataSourceProperties;
+
+    // Event name -> handler for events published by other nodes
+    private final Map<String, Consumer<byte[]>> eventHandlers = new ConcurrentHashMap<>();
+
+    @Value("${websocket.cluster.enabled:false}")
+    private boolean enabled;
+
+    @Value("${websocket.cluster.channel:ws_fanout}")
+    private String channel;
+
+    // Largest frame sent inline; NOTIFY rejects payloads of 8000 bytes or more
+    @Value("${websocket.cluster.inline-max-bytes:7000}")
+    private int inlineMaxBytes;
+
+    // Most frames sent in one NOTIFY round trip
+    @Value("${websocket.cluster.send-batch-size:200}")
+    private int sendBatchSize;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // Dedicated autocommit connections outside the Hikari pool: the listener
+    // holds its connection forever, and NOTIFY must not wait for (or be lost
+    // with) a pooled connection's uncommitted transaction.
+    // publishConnection is guarded by "this" (sender thread and payload cleanup).
+    private Connection publishConnection;
+    private Thread listenerThread;
+    private Thread senderThread;
+    private volatile boolean running;
+
+    // Frames waiting for the sender thread
+    private final BlockingQueue<Outgoing> outgoing;
+    private final Counter droppedFrames;
+    private final Counter failedFrames;
+
+    public ClusterFanoutService(SimpMessagingTemplate messagingTemplate,
+                                DataSourceProperties dataSourceProperties,
+                                MeterRegistry meterRegistry,
+                                @Value("${websocket.cluster.send-queue-capacity:10000}") int sendQueueCapacity) {
+        this.messagingTemplate = messagingTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.outgoing = new LinkedBlockingQueue<>(sendQueueCapacity);
+
+        Gauge.builder("websocket.cluster.send.queue", outgoing, BlockingQueue::size)
+            .description("Frames waiting to be published to the other nodes")
+            .register(meterRegistry);
+        this.droppedFrames = Counter.builder("websocket.cluster.send.dropped")
+            .description("Frames not published to the other nodes because the send queue was full")
+            .register(meterRegistry);
+        this.failedFrames = Counter.builder("websocket.cluster.send.failed")
+            .description("Frames lost because publishing them to PostgreSQL failed")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listenLoop, "ws-cluster-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+        senderThread = new Thread(this::sendLoop, "ws-cluster-sender");
+        senderThread.setDaemon(true);
+        senderThread.start();
+        log.info("WebSocket cluster fan-out enabled on channel '{}' (node {})", channel, nodeId);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+        if (senderThread != null) {
+            senderThread.interrupt();
+        }
+        synchronized (this) {
+            closeQuietly(publishConnection);
+            publishConnection = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queue a frame already delivered locally for the other nodes.
+     * Never blocks and never throws: local clients have their copy already.
+     */
+    public void publish(String destination, BroadcastFrame frame) {
+        if (!enabled) {
+            return;
+        }
+        if (!outgoing.offer(new Outgoing(destination, frame.payload()))) {
+            droppedFrames.increment();
+            log.warn("Cluster send queue full, dropped frame for {}", destination);
+        }
+    }
+
+    /**
+     * Queue an event for the other nodes' handlers of that event.
+     * Never blocks and never throws, like publish.
+     */
+    public void publishEvent(String event, byte[] payload) {
+        if (!enabled) {
+            return;
+        }
+        if (event.startsWith("/")) {
+            throw new IllegalArgumentException("Event names must not look like destinations: " + event);
+        }
+        if (!outgoing.offer(new Outgoing(event, payload))) {
+            droppedFrames.increment();
+            log.warn("Cluster send queue full, dropped {} event", event);
+        }
+    }
+
+    /**
+     * Handle an event published by another node. Handlers run on the
+     * listener thread, one message at a time, in publishing order per node.
+     */
+    public void subscribe(String event, Consumer<byte[]> handler) {
+        eventHandlers.put(event, handler);
+    }
+
+    private void sendLoop() {
+        List<Outgoing> batch = new ArrayList<>(sendBatchSize);
+        while (running) {
+            try {
+                batch.add(outgoing.take());
+                outgoing.drainTo(batch, sendBatchSize - 1);
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Error in cluster sender: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * NOTIFY every frame of the batch in one statement; PostgreSQL delivers
+     * notifications from one transaction in the order they were sent.
+     */
+    private synchronized void send(List<Outgoing> batch) {
+        try {
+            Connection connection = publishConnection();
+            String[] messages = new String[batch.size()];
+            for (int i = 0; i < batch.size(); i++) {
+                messages[i] = encode(connection, batch.get(i));
+            }
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT pg_notify(?, m) FROM unnest(?::text[]) WITH ORDINALITY AS t(m, n) ORDER BY n")) {
+                statement.setString(1, channel);
+                statement.setArray(2, connection.createArrayOf("text", messages));
+                statement.execute();
+            }
+        } catch (SQLException e) {
+            failedFrames.increment(batch.size());
+            log.error("Error publishing {} frame(s) to cluster: {}", batch.size(), e.getMessage());
+            closeQuietly(publishConnection);
+            publishConnection = null;
+        }
+    }
+
+    private String encode(Connection connection, Outgoing frame) throws SQLException {
+        String ref = INLINE;
+        String header = nodeId + "\t" + frame.destination() + "\t";
+        if (header.getBytes(StandardCharsets.UTF_8).length + 2 + frame.payload().length > inlineMaxBytes) {
+            ref = String.valueOf(storeLargePayload(connection, frame.payload()));
+        }
+        return header + ref + "\n"
+                + (INLINE.equals(ref) ? new String(frame.payload(), StandardCharsets.UTF_8) : "");
+    }
+
+    /**
+     * Remove stored large payloads once every node has had ample time to read them.
+     */
+    @Scheduled(fixedRateString = "${websocket.cluster.payload-cleanup.interval:300000}")
+    @ScheduledJobLock(name = "ws-fanout-payload-cleanup", lockAtMostFor = "PT1M", lockAtLeastFor = "PT4M")
+    public void purgeStoredPayloads() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            synchronized (this) {
+                try (Statement statement = publishConnection().createStatement()) {
+                    statement.executeUpdate(
+                        "DELETE FROM ws_fanout_payloads WHERE created_at < now() - interval '5 minutes'");
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("Error purging stored cluster payloads: {}", e.getMessage());
+        }
+    }
+
+    private long storeLargePayload(Connection connection, byte[] payload) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO ws_fanout_payloads (payload) VALUES (?) RETURNING id")) {
+            statement.setBytes(1, payload);
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private Connection publishConnection() throws SQLException {
+        if (publishConnection == null || publishConnection.isClosed()) {
+            publishConnection = openConnection();
+            try (Statement statement = publishConnection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS ws_fanout_payloads ("
+                        + "id BIGSERIAL PRIMARY KEY, payload BYTEA NOT NULL, "
+                        + "created_at TIMESTAMPTZ NOT NULL DEFAULT now())");
+            }
+        }
+        return publishConnection;
+    }
+
+    private void listenLoop() {
+        long backoffMs = 1000;
+        while (running) {
+            try (Connection connection = openConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                backoffMs = 1000;
+                log.info("Listening for cluster frames on '{}'", channel);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(1000);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        deliver(connection, notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.error("Cluster listener connection lost, reconnecting in {}ms: {}", backoffMs, e.getMessage());
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, 30_000);
+            }
+        }
+    }
+
+    private void deliver(Connection connection, String message) {
+        try {
+            int headerEnd = message.indexOf('\n');
+            String[] header = message.substring(0, headerEnd).split("\t", 3);
+            if (header.length != 3 || nodeId.equals(header[0])) {
+                return;
+            }
+            String target = header[1];
+            String ref = header[2];
+
+            byte[] payload = INLINE.equals(ref)
+                    ? message.substring(headerEnd + 1).getBytes(StandardCharsets.UTF_8)
+                    : loadLargePayload(connection, Long.parseLong(ref));
+            if (payload == null) {
+                log.warn("Stored cluster payload {} for {} no longer exists", ref, target);
+                return;
+            }
+            if (target.startsWith("/")) {
+                messagingTemplate.send(target, BroadcastFrame.ofBytes(payload).message());
+                return;
+            }
+            Consumer<byte[]> handler = eventHandlers.get(target);
+            if (handler != null) {
+                handler.accept(payload);
+            }
+        } catch (Exception e) {
+            log.error("Error delivering cluster frame: {}", e.getMessage(), e);
+        }
+    }
+
+    private byte[] loadLargePayload(Connection connection, long id) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT payload FROM ws_fanout_payloads WHERE id = ?")) {
+            statement.setLong(1, id);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getBytes(1) : null;
+            }
+        }
+    }
+
+    private Connection openConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection(
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword());
+        connection.setAutoCommit(true);
+        return connection;
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // Already broken; nothing to do
+        }
+    }
+
+    private record Outgoing(String destination, byte[] payload) {
+    }
+}
@@ -0,0 +1,155 @@
+package com.worldcup.service;
+
+import com.worldcup.exception.FootballApiUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker in front of every Football API request (applied by
+ * FootballApiRequestScheduler), so an unreachable or failing API costs one
+ * fast rejection per call instead of a connect/read timeout each time.
+ *
+ * - CLOSED: requests pass. failure-threshold consecutive upstream failures
+ *   (I/O errors, timeouts, 5xx) open the circuit.
+ * - OPEN: requests fail at once with FootballApiUnavailableException for
+ *   open-duration, doubled after every failed probe up to max-open-duration.
+ * - HALF_OPEN: after the open period one request is let through as a probe;
+ *   success closes the circuit, failure opens it again. Other requests are
+ *   rejected while the probe is in flight.
+ *
+ * Client errors (4xx, including 429, which the rate limiter handles) show
+ * that the API is reachable and count as success.
+ */
+@Slf4j
+@Service
+public class FootballApiCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openDurationMs;
+    private final long maxOpenDurationMs;
+    private final MeterRegistry meterRegistry;
+
+    // Guarded by "this"
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long currentOpenMs;
+    private long openUntil;
+    private boolean probeInFlight;
+
+    public FootballApiCircuitBreaker(MeterRegistry meterRegistry,
+                                     @Value("${football.api.circuit.failure-threshold:5}") int failureThreshold,
+                                     @Value("${football.api.circuit.open-duration:PT30S}") Duration openDuration,
+                                     @Value("${football.api.circuit.max-open-duration:PT5M}") Duration maxOpenDuration) {
+        this.meterRegistry = meterRegistry;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDurationMs = openDuration.toMillis();
+        this.maxOpenDurationMs = Math.max(openDurationMs, maxOpenDuration.toMillis());
+        this.currentOpenMs = openDurationMs;
+
+        Gauge.builder("football.api.circuit.state", this, b -> b.getState().ordinal())
+            .description("Football API circuit breaker: 0 = closed, 1 = open, 2 = half-open")
+            .register(meterRegistry);
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * True unless the API is currently considered down (OPEN or probing).
+     */
+    public synchronized boolean isClosed() {
+        return state == State.CLOSED;
+    }
+
+    /**
+     * Called before a request is sent. Throws FootballApiUnavailableException
+     * if the circuit is open or another request is already probing.
+     */
+    public void acquirePermission() {
+        long rejectedFor;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            if (state == State.OPEN && now >= openUntil) {
+                transition(State.HALF_OPEN);
+            }
+            if (state == State.CLOSED) {
+                return;
+            }
+            if (state == State.HALF_OPEN && !probeInFlight) {
+                probeInFlight = true;
+                log.info("Football API circuit half-open, sending probe request");
+                return;
+            }
+            rejectedFor = Math.max(0, openUntil - now);
+        }
+        Counter.builder("football.api.circuit.rejected")
+            .description("Football API requests rejected by the open circuit breaker")
+            .register(meterRegistry)
+            .increment();
+        throw new FootballApiUnavailableException(rejectedFor);
+    }
+
+    /**
+     * The API answered (any 2xx-4xx response).
+     */
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        if (state != State.CLOSED) {
+            currentOpenMs = openDurationMs;
+            transition(State.CLOSED);
+            log.info("Football API circuit closed, API is responding again");
+        }
+    }
+
+    /**
+     * The API could not be reached, timed out or answered 5xx.
+     */
+    public synchronized void onFailure(Throwable cause) {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+            currentOpenMs = Math.min(maxOpenDurationMs, currentOpenMs * 2);
+            open();
+            log.warn("Football API probe failed ({}); circuit open for {} s", cause.getMessage(), currentOpenMs / 1000);
+        } else if (state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+            open();
+            log.warn("Football API circuit opened after {} consecutive failures (last: {}); next probe in {} s",
+                    consecutiveFailures, cause.getMessage(), currentOpenMs / 1000);
+        }
+    }
+
+    /**
+     * The permitted request ended without telling anything about the API
+     * (e.g. it got no rate-limit token); frees the probe slot.
+     */
+    public synchronized void onIgnored() {
+        probeInFlight = false;
+    }
+
+    private void open() {
+        openUntil = System.currentTimeMillis() + currentOpenMs;
+        transition(State.OPEN);
+    }
+
+    private void transition(State to) {
+        if (state == to) {
+            return;
+        }
+        state = to;
+        Counter.builder("football.api.circuit.transitions")
+            .description("Football API circuit breaker state changes, by new state")
+            .tag("to", to.name())
+            .register(meterRegistry)
+            .increment();
+    }
+}
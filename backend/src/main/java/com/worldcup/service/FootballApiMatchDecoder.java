@@ -0,0 +1,139 @@
+package com.worldcup.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.worldcup.service.FootballApiService.MatchData;
+import com.worldcup.service.FootballApiService.ScoreData;
+import com.worldcup.service.FootballApiService.ScoreDetail;
+import com.worldcup.service.FootballApiService.TeamData;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Streaming decoder for Football-Data.org match lists ({"matches": [...]}).
+ *
+ * Walks the response token by token and hands each match to the sink as soon
+ * as its object closes, so only one match is in memory at a time however
+ * large the response is. Only the fields the sync uses are read; everything
+ * else (odds, referees, filters, resultSet, ...) is skipped without being
+ * materialized.
+ */
+final class FootballApiMatchDecoder {
+
+    private FootballApiMatchDecoder() {
+    }
+
+    /**
+     * Decode every element of the top-level "matches" array into the sink.
+     * Returns the number of matches decoded.
+     */
+    static int decodeMatches(JsonParser parser, Consumer<MatchData> sink) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected a JSON object, got " + parser.currentToken());
+        }
+        int count = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("matches".equals(field) && value == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    sink.accept(readMatch(parser));
+                    count++;
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return count;
+    }
+
+    private static MatchData readMatch(JsonParser parser) throws IOException {
+        MatchData match = new MatchData();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case "id" -> match.id = parser.getLongValue();
+                case "status" -> match.status = parser.getText();
+                case "utcDate" -> match.utcDate = parser.getText();
+                case "stage" -> match.stage = parser.getText();
+                case "group" -> match.group = parser.getText();
+                case "venue" -> match.venue = parser.getText();
+                case "homeTeam" -> match.homeTeam = readTeam(parser);
+                case "awayTeam" -> match.awayTeam = readTeam(parser);
+                case "score" -> match.score = readScore(parser);
+                default -> parser.skipChildren();
+            }
+        }
+        return match;
+    }
+
+    private static TeamData readTeam(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        TeamData team = new TeamData();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case "name" -> team.setName(parser.getText());
+                case "shortName" -> team.setShortName(parser.getText());
+                case "crest" -> team.setCrest(parser.getText());
+                default -> parser.skipChildren();
+            }
+        }
+        return team;
+    }
+
+    private static ScoreData readScore(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        ScoreData score = new ScoreData();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case "fullTime" -> score.setFullTime(readScoreDetail(parser));
+                case "halfTime" -> score.setHalfTime(readScoreDetail(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        return score;
+    }
+
+    private static ScoreDetail readScoreDetail(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        ScoreDetail detail = new ScoreDetail();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case "home" -> detail.setHome(parser.getIntValue());
+                case "away" -> detail.setAway(parser.getIntValue());
+                default -> parser.skipChildren();
+            }
+        }
+        return detail;
+    }
+}
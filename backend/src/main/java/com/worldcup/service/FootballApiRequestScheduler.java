@@ -0,0 +1,365 @@
+package com.worldcup.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.worldcup.exception.FootballApiRateLimitException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Single gateway for every Football API request, keeping all callers (sync
+ * jobs, standings, admin sync) together under the provider's rate limit.
+ *
+ * - Token bucket of requests-per-minute tokens, refilled continuously.
+ * - Waiting requests are served by priority (LIVE > FINISHED > STANDINGS >
+ *   FIXTURES), FIFO within a priority. A request that gets no token within
+ *   max-wait-ms fails with FootballApiRateLimitException (counted as starved).
+ * - Identical requests (same URL) in flight at the same time share one call;
+ *   a higher-priority duplicate promotes the queued original. Streamed
+ *   requests are never shared, since their extractor consumes the body.
+ * - The provider's X-Requests-Available-Minute / X-RequestCounter-Reset
+ *   headers cap the bucket, and a 429 blocks all requests until the reset.
+ * - FootballApiCircuitBreaker is consulted before a request waits for a
+ *   token: while the API is down, requests fail at once.
+ * - A caller inside a database transaction never waits: it gets a token only
+ *   if one is free right now, else fails at once, so a throttled API cannot
+ *   hold a pooled connection and its locks for up to max-wait-ms. The sync
+ *   jobs call the API outside transactions and commit per batch.
+ */
+@Slf4j
+@Service
+public class FootballApiRequestScheduler {
+
+    /**
+     * Request classes in descending precedence.
+     */
+    public enum Priority { LIVE, FINISHED, STANDINGS, FIXTURES }
+
+    static final String AVAILABLE_HEADER = "X-Requests-Available-Minute";
+    static final String RESET_HEADER = "X-RequestCounter-Reset";
+
+    private static final long DEFAULT_THROTTLE_MS = 60_000L;
+
+    private final RestTemplate restTemplate;
+    private final FootballApiCircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+    private final int requestsPerMinute;
+    private final long maxWaitMs;
+
+    // Bucket state, guarded by "this"
+    private double tokens;
+    private long lastRefillAt = System.currentTimeMillis();
+    private long blockedUntil;
+    private long waiterSequence;
+    private final PriorityQueue<Waiter> waiters = new PriorityQueue<>(
+            Comparator.comparing((Waiter w) -> w.priority).thenComparingLong(w -> w.seq));
+
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    // Last X-Requests-Available-Minute reported by the provider (-1 = none yet)
+    private final AtomicLong providerAvailable = new AtomicLong(-1);
+
+    public FootballApiRequestScheduler(RestTemplate restTemplate,
+                                       FootballApiCircuitBreaker circuitBreaker,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${football.api.rate-limit.requests-per-minute:10}") int requestsPerMinute,
+                                       @Value("${football.api.rate-limit.max-wait-ms:30000}") long maxWaitMs) {
+        this.restTemplate = restTemplate;
+        this.circuitBreaker = circuitBreaker;
+        this.meterRegistry = meterRegistry;
+        this.requestsPerMinute = requestsPerMinute;
+        this.maxWaitMs = maxWaitMs;
+        this.tokens = requestsPerMinute;
+
+        Gauge.builder("football.api.rate.tokens", this, FootballApiRequestScheduler::availableTokens)
+            .description("Request tokens currently available in the local bucket")
+            .register(meterRegistry);
+        Gauge.builder("football.api.rate.provider.available", providerAvailable, AtomicLong::get)
+            .description("Requests left this minute as last reported by the provider")
+            .register(meterRegistry);
+        for (Priority priority : Priority.values()) {
+            Gauge.builder("football.api.requests.waiting", this, s -> s.waitingCount(priority))
+                .description("Football API requests waiting for a token")
+                .tag("priority", priority.name())
+                .register(meterRegistry);
+        }
+    }
+
+    /**
+     * GET url once a token is available, sharing the call with any identical
+     * request already in flight.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> exchange(Priority priority, String url, HttpEntity<?> entity, Class<T> responseType) {
+        InFlight mine = new InFlight(new Waiter(priority));
+        InFlight existing = inFlight.putIfAbsent(url, mine);
+        if (existing != null) {
+            count(priority, "deduplicated");
+            promote(existing.waiter, priority);
+            try {
+                return (ResponseEntity<T>) existing.future.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            ResponseEntity<T> response = guarded(mine.waiter, () -> send(url, entity, responseType));
+            mine.future.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            mine.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(url, mine);
+        }
+    }
+
+    /**
+     * GET url once a token is available and hand the open response to the
+     * extractor, which reads the body as it arrives.
+     */
+    public <T> T stream(Priority priority, String url, HttpHeaders headers, ResponseExtractor<T> extractor) {
+        return guarded(new Waiter(priority), () -> {
+            try {
+                return restTemplate.execute(url, HttpMethod.GET,
+                        request -> request.getHeaders().addAll(headers),
+                        response -> {
+                            recordRateHeaders(response.getHeaders(), false);
+                            return extractor.extractData(response);
+                        });
+            } catch (HttpStatusCodeException e) {
+                recordRateHeaders(e.getResponseHeaders(), e.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value());
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Run call through the circuit breaker and the token bucket. Only I/O
+     * errors, timeouts and 5xx count as API failures (see isUpstreamFailure);
+     * errors raised by the caller's own code (e.g. a sync sink) and bodies
+     * that cannot be parsed do not.
+     */
+    private <T> T guarded(Waiter waiter, Supplier<T> call) {
+        circuitBreaker.acquirePermission();
+        try {
+            acquire(waiter);
+        } catch (RuntimeException e) {
+            circuitBreaker.onIgnored();
+            throw e;
+        }
+        boolean answered = false;
+        try {
+            T result = call.get();
+            answered = true;
+            return result;
+        } catch (HttpClientErrorException e) {
+            answered = true;
+            throw e;
+        } catch (RuntimeException e) {
+            if (isUpstreamFailure(e)) {
+                circuitBreaker.onFailure(e);
+            }
+            throw e;
+        } finally {
+            if (answered) {
+                circuitBreaker.onSuccess();
+            } else {
+                circuitBreaker.onIgnored();
+            }
+        }
+    }
+
+    /**
+     * A 5xx, or an I/O error on the connection: RestTemplate reports those as
+     * ResourceAccessException, or, while a typed body is being read, as a
+     * RestClientException caused by the IOException. Parse errors are
+     * RestClientExceptions too, but caused by HttpMessageNotReadableException
+     * or a Jackson exception, and say nothing about the API being up.
+     */
+    static boolean isUpstreamFailure(RuntimeException e) {
+        if (e instanceof HttpServerErrorException) {
+            return true;
+        }
+        if (!(e instanceof RestClientException) || e instanceof HttpStatusCodeException) {
+            return false;
+        }
+        Throwable cause = e.getCause();
+        if (cause instanceof JsonProcessingException) {
+            return false;
+        }
+        return e instanceof ResourceAccessException || cause instanceof IOException;
+    }
+
+    private void acquire(Waiter waiter) {
+        long start = System.currentTimeMillis();
+        boolean inTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+        long deadline = inTransaction ? start : start + maxWaitMs;
+        synchronized (this) {
+            waiter.seq = ++waiterSequence;
+            waiters.add(waiter);
+            try {
+                while (true) {
+                    long now = System.currentTimeMillis();
+                    refill(now);
+                    boolean head = waiters.peek() == waiter;
+                    if (head && now >= blockedUntil && tokens >= 1) {
+                        tokens -= 1;
+                        break;
+                    }
+                    if (now >= deadline) {
+                        count(waiter.priority, "starved");
+                        if (inTransaction) {
+                            log.warn("Football API {} request has no token free and runs in a transaction; not waiting",
+                                    waiter.priority);
+                        } else {
+                            log.warn("Football API {} request starved after {} ms", waiter.priority, now - start);
+                        }
+                        throw new FootballApiRateLimitException(waiter.priority.name(), now - start);
+                    }
+                    long sleep = deadline - now;
+                    if (head) {
+                        long untilToken = (long) Math.ceil((1 - tokens) * 60_000d / requestsPerMinute);
+                        sleep = Math.min(sleep, Math.max(blockedUntil - now, untilToken));
+                    }
+                    // Non-head waiters are woken when the queue changes
+                    wait(Math.max(1, sleep));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new FootballApiRateLimitException(waiter.priority.name(), System.currentTimeMillis() - start);
+            } finally {
+                waiters.remove(waiter);
+                notifyAll();
+            }
+        }
+        count(waiter.priority, "sent");
+        Timer.builder("football.api.requests.wait")
+            .description("Time Football API requests waited for a rate-limit token")
+            .tag("priority", waiter.priority.name())
+            .register(meterRegistry)
+            .record(Duration.ofMillis(System.currentTimeMillis() - start));
+    }
+
+    private synchronized void promote(Waiter waiter, Priority priority) {
+        if (priority.compareTo(waiter.priority) < 0 && waiters.remove(waiter)) {
+            waiter.priority = priority;
+            waiters.add(waiter);
+            notifyAll();
+        }
+    }
+
+    private <T> ResponseEntity<T> send(String url, HttpEntity<?> entity, Class<T> responseType) {
+        try {
+            ResponseEntity<T> response = restTemplate.exchange(url, HttpMethod.GET, entity, responseType);
+            recordRateHeaders(response.getHeaders(), false);
+            return response;
+        } catch (HttpStatusCodeException e) {
+            recordRateHeaders(e.getResponseHeaders(), e.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value());
+            throw e;
+        }
+    }
+
+    private synchronized void recordRateHeaders(HttpHeaders headers, boolean throttled) {
+        Long available = longHeader(headers, AVAILABLE_HEADER);
+        Long resetSeconds = longHeader(headers, RESET_HEADER);
+        long now = System.currentTimeMillis();
+        refill(now);
+
+        if (available != null) {
+            providerAvailable.set(available);
+            // Never spend more than the provider says is left
+            tokens = Math.min(tokens, available);
+        }
+        if (throttled || (available != null && available <= 0)) {
+            long resetMs = resetSeconds != null ? resetSeconds * 1000 : DEFAULT_THROTTLE_MS;
+            blockedUntil = Math.max(blockedUntil, now + resetMs);
+            tokens = 0;
+            log.warn("Football API rate limit reached{}; pausing requests for {} s",
+                    throttled ? " (429)" : "", resetMs / 1000);
+        }
+        notifyAll();
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(requestsPerMinute, tokens + (now - lastRefillAt) * requestsPerMinute / 60_000d);
+        lastRefillAt = now;
+    }
+
+    private synchronized double availableTokens() {
+        refill(System.currentTimeMillis());
+        return Math.floor(tokens);
+    }
+
+    private synchronized int waitingCount(Priority priority) {
+        return (int) waiters.stream().filter(w -> w.priority == priority).count();
+    }
+
+    private void count(Priority priority, String outcome) {
+        Counter.builder("football.api.requests")
+            .description("Football API requests by priority and outcome (sent, deduplicated, starved)")
+            .tag("priority", priority.name())
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    private static Long longHeader(HttpHeaders headers, String name) {
+        String value = headers != null ? headers.getFirst(name) : null;
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static final class Waiter {
+        Priority priority;
+        long seq;
+
+        Waiter(Priority priority) {
+            this.priority = priority;
+        }
+    }
+
+    private static final class InFlight {
+        final Waiter waiter;
+        final CompletableFuture<ResponseEntity<?>> future = new CompletableFuture<>();
+
+        InFlight(Waiter waiter) {
+            this.waiter = waiter;
+        }
+    }
+}
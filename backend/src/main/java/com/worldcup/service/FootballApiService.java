@@ -1,25 +1,42 @@
 package com.worldcup.service;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.worldcup.entity.Match;
 import com.worldcup.entity.MatchStatus;
+import com.worldcup.exception.FootballApiRateLimitException;
+import com.worldcup.exception.FootballApiUnavailableException;
+import com.worldcup.service.FootballApiRequestScheduler.Priority;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Service to fetch real Premier League match data from Football-Data.org API
@@ -30,10 +47,33 @@ import java.util.List;
 @Service
 public class FootballApiService {
 
-    private final RestTemplate restTemplate;
+    // All HTTP calls go through the shared rate-limited request scheduler
+    private final FootballApiRequestScheduler requestScheduler;
+    private final ObjectMapper objectMapper;
+
+    // Last good fixtures/standings per competition, for restarts during an outage
+    private final FootballApiSnapshotStore snapshotStore;
+
+    // Standings per competition id. Many users opening the standings modal at
+    // once share one API call, and a failed refresh keeps the last good table.
+    private final RefreshingCache<String, List<StandingData>> standingsCache;
+
+    public FootballApiService(FootballApiRequestScheduler requestScheduler,
+                              ObjectMapper objectMapper,
+                              FootballApiSnapshotStore snapshotStore,
+                              MeterRegistry meterRegistry,
+                              @Value("${football.api.standings.ttl:PT1M}") Duration standingsTtl,
+                              @Value("${football.api.standings.error-retry:PT15S}") Duration standingsErrorRetry) {
+        this.requestScheduler = requestScheduler;
+        this.objectMapper = objectMapper;
+        this.snapshotStore = snapshotStore;
+        this.standingsCache = new RefreshingCache<>("standings", this::loadStandings,
+                standingsTtl, standingsErrorRetry, meterRegistry);
+    }
 
-    public FootballApiService(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
+    @PreDestroy
+    public void shutdown() {
+        standingsCache.shutdown();
     }
 
     @Value("${football.api.enabled:false}")
@@ -46,135 +86,163 @@ public class FootballApiService {
     private String baseUrl;
 
     @Value("${football.api.competition-id:2021}")
-    private String competitionId; // Premier League = 2021
+    private String competitionId; // Premier League = 2021; the primary competition
 
-    private static final DateTimeFormatter API_DATE_FORMATTER = DateTimeFormatter.ISO_DATE_TIME;
+    // Competitions the sync jobs keep up to date, e.g. "2000,2021,2001"
+    @Value("${football.api.competition-ids:${football.api.competition-id:2021}}")
+    private List<String> competitionIds;
+
+    public String getPrimaryCompetitionId() {
+        return competitionId;
+    }
 
-    // Simple in-memory cache for standings: refresh at most once per minute
-    // to stay well under the 10 req/min free-tier limit even if many users
-    // open the standings modal in quick succession.
-    private static final long STANDINGS_CACHE_TTL_MS = 60_000L;
-    private volatile List<StandingData> cachedStandings;
-    private volatile long cachedStandingsAt;
+    public List<String> getCompetitionIds() {
+        return competitionIds;
+    }
+
+    private static final DateTimeFormatter API_DATE_FORMATTER = DateTimeFormatter.ISO_DATE_TIME;
 
     /**
-     * Fetch matches for a date range
+     * Fetch matches of the primary competition for a date range
      */
     public List<MatchData> fetchMatches(LocalDateTime from, LocalDateTime to) {
+        List<MatchData> matches = new ArrayList<>();
+        return streamMatches(competitionId, from, to, matches::add) >= 0 ? matches : new ArrayList<>();
+    }
+
+    /**
+     * Stream a competition's matches for a date range into the sink, one at a time.
+     * Returns the number of matches decoded, or -1 if the request failed.
+     */
+    public int streamMatches(String competitionId, LocalDateTime from, LocalDateTime to, Consumer<MatchData> sink) {
         if (!apiEnabled || apiKey == null || apiKey.isEmpty()) {
             log.warn("Football API is not enabled or API key is missing");
-            return new ArrayList<>();
+            return -1;
         }
 
-        try {
-            String fromStr = from.format(DateTimeFormatter.ISO_LOCAL_DATE);
-            String toStr = to.format(DateTimeFormatter.ISO_LOCAL_DATE);
-
-            String url = UriComponentsBuilder.fromHttpUrl(baseUrl + "/competitions/" + competitionId + "/matches")
-                    .queryParam("dateFrom", fromStr)
-                    .queryParam("dateTo", toStr)
-                    .toUriString();
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("X-Auth-Token", apiKey);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            log.info("Fetching matches from Football API: {} to {}", fromStr, toStr);
-            ResponseEntity<MatchesResponse> response = restTemplate.exchange(
-                    url, HttpMethod.GET, entity, MatchesResponse.class);
-
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                log.info("Successfully fetched {} matches from API", response.getBody().matches.size());
-                return response.getBody().matches;
-            } else {
-                log.warn("Failed to fetch matches: {}", response.getStatusCode());
-                return new ArrayList<>();
-            }
-        } catch (Exception e) {
-            log.error("Error fetching matches from Football API: {}", e.getMessage(), e);
-            return new ArrayList<>();
-        }
+        String fromStr = from.format(DateTimeFormatter.ISO_LOCAL_DATE);
+        String toStr = to.format(DateTimeFormatter.ISO_LOCAL_DATE);
+
+        String url = UriComponentsBuilder.fromHttpUrl(baseUrl + "/competitions/" + competitionId + "/matches")
+                .queryParam("dateFrom", fromStr)
+                .queryParam("dateTo", toStr)
+                .toUriString();
+
+        log.info("Fetching matches for competition {} from Football API: {} to {}", competitionId, fromStr, toStr);
+        return streamMatchList(Priority.FINISHED, url, "matches", null, sink);
     }
 
     /**
-     * Fetch all matches for the configured competition (no date filter).
+     * Fetch all matches for the primary competition (no date filter).
      * Used for cup-style competitions like the World Cup where the whole
      * tournament fits in one response (~104 matches).
      */
     public List<MatchData> fetchAllMatches() {
+        List<MatchData> matches = new ArrayList<>();
+        return streamAllMatches(competitionId, matches::add) >= 0 ? matches : new ArrayList<>();
+    }
+
+    /**
+     * Stream all matches of a competition into the sink.
+     * Returns the number of matches decoded, or -1 if the request failed.
+     */
+    public int streamAllMatches(String competitionId, Consumer<MatchData> sink) {
         if (!apiEnabled || apiKey == null || apiKey.isEmpty()) {
             log.warn("Football API is not enabled or API key is missing");
-            return new ArrayList<>();
+            return -1;
         }
 
-        try {
-            String url = baseUrl + "/competitions/" + competitionId + "/matches";
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("X-Auth-Token", apiKey);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            log.info("Fetching all matches for competition {}", competitionId);
-            ResponseEntity<MatchesResponse> response = restTemplate.exchange(
-                    url, HttpMethod.GET, entity, MatchesResponse.class);
-
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                log.info("Successfully fetched {} matches from API", response.getBody().matches.size());
-                return response.getBody().matches;
-            } else {
-                log.warn("Failed to fetch matches: {}", response.getStatusCode());
-                return new ArrayList<>();
-            }
-        } catch (Exception e) {
-            log.error("Error fetching matches from Football API: {}", e.getMessage(), e);
-            return new ArrayList<>();
-        }
+        String url = baseUrl + "/competitions/" + competitionId + "/matches";
+
+        log.info("Fetching all matches for competition {}", competitionId);
+        return streamMatchList(Priority.FIXTURES, url, "matches", matchesSnapshot(competitionId), sink);
     }
 
     /**
-     * Fetch group standings for the configured competition. Cached for
-     * STANDINGS_CACHE_TTL_MS so rapid modal opens hit memory, not the API.
+     * Stream the last successfully fetched list of all matches of a competition
+     * from its on-disk snapshot, for when the API is unavailable.
+     * Returns the number of matches decoded, or -1 if there is no usable snapshot.
      */
-    public List<StandingData> fetchStandings() {
-        long now = System.currentTimeMillis();
-        List<StandingData> cached = cachedStandings;
-        if (cached != null && (now - cachedStandingsAt) < STANDINGS_CACHE_TTL_MS) {
-            return cached;
+    public int replayAllMatchesSnapshot(String competitionId, Consumer<MatchData> sink) {
+        Optional<FootballApiSnapshotStore.Snapshot> snapshot = snapshotStore.find(matchesSnapshot(competitionId));
+        if (snapshot.isEmpty()) {
+            return -1;
         }
+        try (JsonParser parser = objectMapper.getFactory().createParser(snapshot.get().path().toFile())) {
+            int count = FootballApiMatchDecoder.decodeMatches(parser, sink);
+            log.info("Replayed {} matches for competition {} from snapshot saved at {}",
+                    count, competitionId, snapshot.get().savedAt());
+            return count;
+        } catch (IOException e) {
+            log.warn("Cannot replay matches snapshot for competition {}: {}", competitionId, e.getMessage());
+            return -1;
+        }
+    }
 
+    /**
+     * Fetch group standings for the configured competition, from the
+     * refreshing cache: fresh for football.api.standings.ttl, then served
+     * stale while one background call refreshes it.
+     */
+    public List<StandingData> fetchStandings() {
         if (!apiEnabled || apiKey == null || apiKey.isEmpty()) {
             log.warn("Football API is not enabled or API key is missing");
             return new ArrayList<>();
         }
 
         try {
-            String url = baseUrl + "/competitions/" + competitionId + "/standings";
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("X-Auth-Token", apiKey);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            log.info("Fetching standings for competition {}", competitionId);
-            ResponseEntity<StandingsResponse> response = restTemplate.exchange(
-                    url, HttpMethod.GET, entity, StandingsResponse.class);
-
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                List<StandingData> standings = response.getBody().standings;
-                cachedStandings = standings;
-                cachedStandingsAt = now;
-                log.info("Cached {} standings entries", standings.size());
-                return standings;
-            } else {
-                log.warn("Failed to fetch standings: {}", response.getStatusCode());
-                return cached != null ? cached : new ArrayList<>();
-            }
+            return standingsCache.get(competitionId);
         } catch (Exception e) {
-            log.error("Error fetching standings from Football API: {}", e.getMessage(), e);
-            // Serve stale cache on transient errors rather than empty.
-            return cached != null ? cached : new ArrayList<>();
+            // Only reached when standings have never loaded and there is no snapshot
+            log.warn("Standings not available from Football API: {}", e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    private List<StandingData> loadStandings(String competitionId) {
+        String url = baseUrl + "/competitions/" + competitionId + "/standings";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Auth-Token", apiKey);
+        HttpEntity<String> entity = new HttpEntity<>(headers);
+
+        log.info("Fetching standings for competition {}", competitionId);
+        try {
+            ResponseEntity<StandingsResponse> response = requestScheduler.exchange(
+                    Priority.STANDINGS, url, entity, StandingsResponse.class);
+
+            if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+                throw new IllegalStateException("Failed to fetch standings: " + response.getStatusCode());
+            }
+            List<StandingData> standings = response.getBody().standings;
+            snapshotStore.save(standingsSnapshot(competitionId), objectMapper.writeValueAsBytes(response.getBody()));
+            log.info("Cached {} standings entries", standings.size());
+            return standings;
+        } catch (RuntimeException | IOException e) {
+            // Serve the last good standings from disk rather than nothing
+            Optional<FootballApiSnapshotStore.Snapshot> snapshot = snapshotStore.find(standingsSnapshot(competitionId));
+            if (snapshot.isPresent()) {
+                try {
+                    StandingsResponse saved = objectMapper.readValue(snapshot.get().path().toFile(), StandingsResponse.class);
+                    log.warn("Standings for competition {} unavailable ({}); serving snapshot saved at {}",
+                            competitionId, e.getMessage(), snapshot.get().savedAt());
+                    return saved.standings;
+                } catch (IOException readError) {
+                    log.warn("Cannot read standings snapshot for competition {}: {}", competitionId, readError.getMessage());
+                }
+            }
+            throw e instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getMessage(), e);
         }
     }
 
+    private static String matchesSnapshot(String competitionId) {
+        return "competition-" + competitionId + "-matches.json";
+    }
+
+    private static String standingsSnapshot(String competitionId) {
+        return "competition-" + competitionId + "-standings.json";
+    }
+
     /**
      * Map API stage/group to a human-readable label stored in Match.group.
      * Group stage uses the group letter ("Group A"); knockout rounds use the
@@ -202,40 +270,91 @@ public class FootballApiService {
     }
 
     /**
-     * Fetch live matches (matches in progress)
+     * Fetch live matches (matches in progress) of the primary competition
      */
     public List<MatchData> fetchLiveMatches() {
+        List<MatchData> matches = new ArrayList<>();
+        return streamLiveMatches(competitionId, matches::add) >= 0 ? matches : new ArrayList<>();
+    }
+
+    /**
+     * Stream a competition's live matches into the sink.
+     * Returns the number of matches decoded, or -1 if the request failed.
+     */
+    public int streamLiveMatches(String competitionId, Consumer<MatchData> sink) {
         if (!apiEnabled || apiKey == null || apiKey.isEmpty()) {
-            return new ArrayList<>();
+            return -1;
         }
 
-        try {
-            String url = baseUrl + "/competitions/" + competitionId + "/matches?status=LIVE";
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("X-Auth-Token", apiKey);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
+        String url = baseUrl + "/competitions/" + competitionId + "/matches?status=LIVE";
+        return streamMatchList(Priority.LIVE, url, "live matches", null, sink);
+    }
 
-            ResponseEntity<MatchesResponse> response = restTemplate.exchange(
-                    url, HttpMethod.GET, entity, MatchesResponse.class);
+    /**
+     * GET a {"matches": [...]} response and decode it straight from the
+     * connection into the sink (see FootballApiMatchDecoder). The sink runs
+     * while the response is still being read. With a snapshot name, the raw
+     * response is also saved to FootballApiSnapshotStore once fully decoded.
+     *
+     * A body that arrived but cannot be parsed is rethrown as a plain
+     * RestClientException rather than left to RestTemplate, which would wrap
+     * it like a network error and count it against the circuit breaker.
+     */
+    private int streamMatchList(Priority priority, String url, String description, String snapshot,
+                                Consumer<MatchData> sink) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Auth-Token", apiKey);
 
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                log.info("Successfully fetched {} live matches from API", response.getBody().matches.size());
-                return response.getBody().matches;
-            }
-            return new ArrayList<>();
+        try {
+            Integer count = requestScheduler.stream(priority, url, headers, response -> {
+                FootballApiSnapshotStore.Recording recording = snapshot != null
+                        ? snapshotStore.record(snapshot, response.getBody()) : null;
+                try (JsonParser parser = objectMapper.getFactory().createParser(
+                        recording != null ? recording : response.getBody())) {
+                    int decoded = FootballApiMatchDecoder.decodeMatches(parser, sink);
+                    if (recording != null) {
+                        recording.commit();
+                    }
+                    return decoded;
+                } catch (JsonProcessingException e) {
+                    if (recording != null) {
+                        recording.discard();
+                    }
+                    throw new RestClientException("Malformed " + description + " response: " + e.getOriginalMessage(), e);
+                } catch (IOException | RuntimeException e) {
+                    if (recording != null) {
+                        recording.discard();
+                    }
+                    throw e;
+                }
+            });
+            log.info("Successfully fetched {} {} from API", count, description);
+            return count != null ? count : -1;
+        } catch (FootballApiUnavailableException | FootballApiRateLimitException | ResourceAccessException
+                 | HttpServerErrorException e) {
+            // Expected while the API is down or throttled; the circuit breaker logs the outage
+            log.warn("Football API {} not fetched: {}", description, e.getMessage());
+            return -1;
         } catch (Exception e) {
-            log.error("Error fetching live matches from Football API: {}", e.getMessage(), e);
-            return new ArrayList<>();
+            log.error("Error fetching {} from Football API: {}", description, e.getMessage(), e);
+            return -1;
         }
     }
 
     /**
-     * Convert API match data to our Match entity
+     * Convert API match data of the primary competition to our Match entity
      */
     public Match convertToMatch(MatchData apiMatch) {
+        return convertToMatch(apiMatch, competitionId);
+    }
+
+    /**
+     * Convert API match data to our Match entity
+     */
+    public Match convertToMatch(MatchData apiMatch, String competitionId) {
         Match match = new Match();
         match.setExternalApiId(String.valueOf(apiMatch.id));
+        match.setCompetitionId(competitionId);
 
         // Knockout matches arrive with null teams until the bracket resolves.
         // Match.homeTeam/awayTeam are @NotBlank, so use "TBD" as a placeholder;
@@ -287,7 +406,8 @@ public class FootballApiService {
                 match.setAwayScore(apiMatch.score.halfTime.away);
             }
         }
-        
+
+        match.setApiFingerprint(fingerprint(apiMatch));
         return match;
     }
 
@@ -322,6 +442,9 @@ public class FootballApiService {
 
         // Update group/stage label (e.g. when API moves a match between rounds)
         existingMatch.setGroup(stageLabel(apiMatch));
+
+        // Update venue (part of the fingerprint, so a change must be applied too)
+        existingMatch.setVenue(apiMatch.venue != null ? apiMatch.venue : "TBD");
         
         // Update scores
         if (apiMatch.score != null) {
@@ -340,15 +463,46 @@ public class FootballApiService {
             ZonedDateTime zonedDateTime = ZonedDateTime.parse(apiMatch.utcDate, API_DATE_FORMATTER);
             existingMatch.setMatchDate(zonedDateTime.withZoneSameInstant(ZoneId.of("UTC")).toLocalDateTime());
         }
+
+        existingMatch.setApiFingerprint(fingerprint(apiMatch));
     }
 
-    // DTOs for API response
-    @Data
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    public static class MatchesResponse {
-        private List<MatchData> matches = new ArrayList<>();
+    /**
+     * Hash of the API fields a sync applies to a Match: status, scores, teams,
+     * crests, kickoff, venue and stage/group. If it equals the fingerprint stored
+     * on the match, applying this API match again would change nothing.
+     */
+    public String fingerprint(MatchData apiMatch) {
+        StringBuilder content = new StringBuilder();
+        appendField(content, apiMatch.status);
+        appendField(content, apiMatch.utcDate);
+        appendField(content, apiMatch.stage);
+        appendField(content, apiMatch.group);
+        appendField(content, apiMatch.venue);
+        for (TeamData team : new TeamData[] { apiMatch.homeTeam, apiMatch.awayTeam }) {
+            appendField(content, team != null ? team.name : null);
+            appendField(content, team != null ? team.crest : null);
+        }
+        ScoreData score = apiMatch.score;
+        for (ScoreDetail detail : new ScoreDetail[] { score != null ? score.fullTime : null, score != null ? score.halfTime : null }) {
+            appendField(content, detail != null ? detail.home : null);
+            appendField(content, detail != null ? detail.away : null);
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void appendField(StringBuilder content, Object value) {
+        // Unit separator between fields, and a distinct marker for null vs ""
+        content.append(value == null ? "\u0000" : value.toString()).append('\u001f');
     }
 
+    // DTOs for API response (match lists are decoded by FootballApiMatchDecoder)
     @Data
     @JsonIgnoreProperties(ignoreUnknown = true)
     public static class MatchData {
@@ -398,6 +552,7 @@ public class FootballApiService {
         public String type;  // TOTAL / HOME / AWAY
         public String group; // e.g. "Group A"
         public List<StandingRow> table = new ArrayList<>();
+        public boolean provisional; // local standings only: includes LIVE scores
     }
 
     @Data
@@ -0,0 +1,188 @@
+package com.worldcup.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Last successful Football API response per endpoint, kept on local disk
+ * (football.api.snapshot.dir), so that after a restart during an API outage
+ * fixtures and standings are still available without calling upstream.
+ *
+ * A snapshot is written to a temporary file and moved into place only once
+ * the whole response was read successfully, so a failed or cut-off download
+ * never replaces the last good one.
+ */
+@Slf4j
+@Service
+public class FootballApiSnapshotStore {
+
+    public record Snapshot(Path path, Instant savedAt) {
+    }
+
+    private final boolean enabled;
+    private final Path dir;
+
+    public FootballApiSnapshotStore(@Value("${football.api.snapshot.enabled:true}") boolean enabled,
+                                    @Value("${football.api.snapshot.dir:data/football-api}") String dir) {
+        this.enabled = enabled;
+        this.dir = Path.of(dir);
+    }
+
+    /**
+     * The snapshot saved under name, if any.
+     */
+    public Optional<Snapshot> find(String name) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Path path = dir.resolve(name);
+        try {
+            return Files.isRegularFile(path)
+                    ? Optional.of(new Snapshot(path, Files.getLastModifiedTime(path).toInstant()))
+                    : Optional.empty();
+        } catch (IOException e) {
+            log.warn("Cannot read Football API snapshot {}: {}", path, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Replace the snapshot saved under name with content.
+     */
+    public void save(String name, byte[] content) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Pending pending = begin(name);
+            try (OutputStream out = pending.out) {
+                out.write(content);
+            }
+            pending.commit();
+        } catch (IOException e) {
+            log.warn("Cannot save Football API snapshot {}: {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * Wrap a response body so everything read from it is also written to a
+     * new snapshot under name. Call commit() on the result once the body was
+     * read successfully, discard() otherwise. Returns null when snapshots are
+     * disabled or the directory is not writable.
+     */
+    public Recording record(String name, InputStream body) {
+        if (!enabled) {
+            return null;
+        }
+        try {
+            return new Recording(begin(name), body);
+        } catch (IOException e) {
+            log.warn("Cannot record Football API snapshot {}: {}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    private Pending begin(String name) throws IOException {
+        Files.createDirectories(dir);
+        Path temp = Files.createTempFile(dir, name, ".tmp");
+        return new Pending(dir.resolve(name), temp, Files.newOutputStream(temp));
+    }
+
+    private record Pending(Path target, Path temp, OutputStream out) {
+
+        void commit() throws IOException {
+            out.close();
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        void discard() {
+            try {
+                out.close();
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                log.debug("Cannot delete snapshot temp file {}: {}", temp, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Body stream that copies what is read into a pending snapshot.
+     */
+    public static final class Recording extends FilterInputStream {
+        private final Pending pending;
+        private boolean failed;
+
+        private Recording(Pending pending, InputStream body) {
+            super(body);
+            this.pending = pending;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                copy(new byte[] { (byte) b }, 0, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                copy(buffer, offset, n);
+            }
+            return n;
+        }
+
+        private void copy(byte[] buffer, int offset, int length) {
+            if (failed) {
+                return;
+            }
+            try {
+                pending.out.write(buffer, offset, length);
+            } catch (IOException e) {
+                // The sync itself must not fail because the disk is full
+                failed = true;
+                log.warn("Cannot write Football API snapshot {}: {}", pending.target, e.getMessage());
+            }
+        }
+
+        public void commit() {
+            try {
+                // Copy whatever the decoder did not need to read (trailing whitespace)
+                byte[] rest = new byte[8192];
+                while (read(rest, 0, rest.length) >= 0) {
+                    // keep reading
+                }
+            } catch (IOException e) {
+                log.debug("Snapshot {} recorded without the end of the response: {}", pending.target, e.getMessage());
+            }
+            if (failed) {
+                pending.discard();
+                return;
+            }
+            try {
+                pending.commit();
+            } catch (IOException e) {
+                log.warn("Cannot save Football API snapshot {}: {}", pending.target, e.getMessage());
+                pending.discard();
+            }
+        }
+
+        public void discard() {
+            pending.discard();
+        }
+    }
+}
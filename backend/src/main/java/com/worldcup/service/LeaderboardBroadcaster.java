@@ -0,0 +1,48 @@
+package com.worldcup.service;
+
+import com.worldcup.entity.Match;
+import com.worldcup.repository.LeagueMembershipRepository;
+import com.worldcup.util.AfterCommit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Pushes league leaderboard deltas to /topic/leagues/{id}/leaderboard when a
+ * match result changes points, for only the leagues that match can affect.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LeaderboardBroadcaster {
+
+    private final LeagueMembershipRepository membershipRepository;
+    private final LeagueService leagueService;
+    private final WebSocketService webSocketService;
+
+    /**
+     * Recompute and broadcast the leaderboards affected by a match once the
+     * current transaction (which saved the new points) commits.
+     */
+    public void broadcastLeaderboardsForMatch(Match match) {
+        Long matchId = match.getId();
+        LocalDateTime kickOff = match.getMatchDate();
+
+        AfterCommit.run(() -> broadcast(matchId, kickOff));
+    }
+
+    private void broadcast(Long matchId, LocalDateTime kickOff) {
+        try {
+            List<Long> leagueIds = membershipRepository.findLeagueIdsAffectedByMatch(matchId, kickOff);
+            for (Long leagueId : leagueIds) {
+                webSocketService.broadcastLeagueLeaderboard(leagueId, leagueService.getLeagueLeaderboard(leagueId));
+            }
+            log.debug("Broadcasted leaderboards for {} league(s) after match {}", leagueIds.size(), matchId);
+        } catch (Exception e) {
+            log.error("Error broadcasting leaderboards for match {}: {}", matchId, e.getMessage(), e);
+        }
+    }
+}
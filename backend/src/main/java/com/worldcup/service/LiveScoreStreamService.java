@@ -0,0 +1,348 @@
+package com.worldcup.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.worldcup.dto.MatchDTO;
+import com.worldcup.entity.Match;
+import com.worldcup.repository.MatchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Events feed of live match deltas for read-only viewers
+ * (GET /api/matches/live/stream), a lighter alternative to SockJS + STOMP.
+ *
+ * Carries exactly the /topic/matches/batch frames, reusing their serialized
+ * JSON. Connections are async servlet requests, so an idle viewer holds no
+ * request thread. Recent events are kept in a ring buffer so a reconnecting
+ * EventSource resumes from its Last-Event-ID. A new viewer, or one whose id
+ * is unknown (another node, restart, or too old), first gets a "snapshot"
+ * event with every match, so anonymous viewers never need the authenticated
+ * GET /api/matches to recover.
+ *
+ * Sequence numbers, the ring buffer and the viewer set are confined to one
+ * thread ("sse-live-stream"), which only ever enqueues: every viewer has its
+ * own bounded queue, drained by a small sender pool. A viewer whose queue
+ * fills up (a slow or stalled connection) is closed instead of holding up
+ * anyone else; its EventSource reconnects and resumes or gets a snapshot.
+ */
+@Slf4j
+@Service
+public class LiveScoreStreamService {
+
+    private static final String MATCHES_EVENT = "matches";
+    private static final String SNAPSHOT_EVENT = "snapshot";
+
+    private final MatchRepository matchRepository;
+    private final ObjectMapper objectMapper;
+
+    // Event ids are "<streamId>-<seq>"; the stream id changes on every start
+    // so ids from another node or a previous run are never mistaken for ours
+    private final String streamId = UUID.randomUUID().toString().substring(0, 8);
+    private long sequence;
+
+    private final int bufferSize;
+    private final int viewerQueueSize;
+    private final long emitterTimeoutMs;
+
+    private final Deque<StreamEvent> recentEvents = new ArrayDeque<>();
+    private final Set<Viewer> viewers = ConcurrentHashMap.newKeySet();
+    private final Counter droppedViewers;
+
+    // Last snapshot read, reused by viewers that connect before the next event
+    private volatile SnapshotJson lastSnapshot;
+
+    private final ScheduledExecutorService streamExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "sse-live-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ExecutorService senderPool;
+
+    public LiveScoreStreamService(MatchRepository matchRepository,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${sse.live.buffer-size:256}") int bufferSize,
+                                  @Value("${sse.live.viewer-queue-size:64}") int viewerQueueSize,
+                                  @Value("${sse.live.sender-threads:4}") int senderThreads,
+                                  @Value("${sse.live.timeout-ms:900000}") long emitterTimeoutMs,
+                                  @Value("${sse.live.heartbeat-ms:20000}") long heartbeatMs) {
+        this.matchRepository = matchRepository;
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.viewerQueueSize = viewerQueueSize;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+
+        AtomicInteger senderCount = new AtomicInteger();
+        this.senderPool = Executors.newFixedThreadPool(senderThreads, r -> {
+            Thread thread = new Thread(r, "sse-live-sender-" + senderCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("sse.live.connections", viewers, Set::size)
+            .description("Open live-score SSE connections on this node")
+            .register(meterRegistry);
+        this.droppedViewers = Counter.builder("sse.live.dropped")
+            .description("Live-score SSE connections closed because the viewer fell behind")
+            .register(meterRegistry);
+
+        // Comment lines keep idle connections from being cut by proxies
+        streamExecutor.scheduleAtFixedRate(this::sendHeartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        streamExecutor.shutdownNow();
+        senderPool.shutdownNow();
+        viewers.forEach(viewer -> viewer.emitter.complete());
+    }
+
+    /**
+     * Open a stream: replay buffered events after lastEventId if it is ours and
+     * recent enough, otherwise start with a snapshot of every match.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Viewer viewer = new Viewer(emitter);
+        emitter.onCompletion(() -> viewers.remove(viewer));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> viewers.remove(viewer));
+
+        streamExecutor.execute(() -> {
+            List<StreamEvent> missed = lastEventId != null && !lastEventId.isBlank()
+                    ? missedSince(lastEventId.trim()) : null;
+            if (missed != null && missed.size() < viewerQueueSize) {
+                missed.forEach(viewer.queue::add);
+            } else {
+                // Registered before the snapshot is read, so a change committed
+                // after the read is always in the queue behind it
+                viewer.queue.add(new Snapshot(sequence));
+            }
+            viewers.add(viewer);
+            viewer.schedule();
+        });
+        return emitter;
+    }
+
+    /**
+     * Publish a /topic/matches/batch frame to every open stream.
+     */
+    public void publish(BroadcastFrame frame) {
+        // Decode once; every viewer gets the same string
+        String json = new String(frame.payload(), StandardCharsets.UTF_8);
+        streamExecutor.execute(() -> {
+            StreamEvent event = new StreamEvent(++sequence, json);
+            recentEvents.addLast(event);
+            while (recentEvents.size() > bufferSize) {
+                recentEvents.removeFirst();
+            }
+            for (Viewer viewer : viewers) {
+                offer(viewer, event);
+            }
+        });
+    }
+
+    /**
+     * Buffered events after lastEventId, or null if it cannot be resumed from.
+     */
+    private List<StreamEvent> missedSince(String lastEventId) {
+        Long lastSeq = parseSequence(lastEventId);
+        StreamEvent oldest = recentEvents.peekFirst();
+        boolean resumable = lastSeq != null && lastSeq <= sequence
+                && (oldest == null ? lastSeq == sequence : lastSeq >= oldest.seq() - 1);
+        if (!resumable) {
+            return null;
+        }
+        List<StreamEvent> missed = new ArrayList<>();
+        for (StreamEvent event : recentEvents) {
+            if (event.seq() > lastSeq) {
+                missed.add(event);
+            }
+        }
+        return missed;
+    }
+
+    private void sendHeartbeat() {
+        for (Viewer viewer : viewers) {
+            offer(viewer, Heartbeat.INSTANCE);
+        }
+    }
+
+    // On the stream thread: never blocks, drops a viewer that fell behind
+    private void offer(Viewer viewer, Outbound item) {
+        if (viewer.queue.offer(item)) {
+            viewer.schedule();
+            return;
+        }
+        log.debug("Dropping live-score viewer: {} events queued", viewer.queue.size());
+        viewers.remove(viewer);
+        viewer.close();
+        droppedViewers.increment();
+    }
+
+    /**
+     * Every match as JSON, read after a viewer registered at seq. A read made
+     * for an earlier viewer at the same seq already holds every change up to
+     * seq, so a reconnect burst costs one query.
+     */
+    private String snapshotJson(long seq) throws JsonProcessingException {
+        SnapshotJson cached = lastSnapshot;
+        if (cached != null && cached.seq() == seq) {
+            return cached.json();
+        }
+        List<MatchDTO> matches = new ArrayList<>();
+        for (Match match : matchRepository.findAll()) {
+            matches.add(convertToDTO(match));
+        }
+        String json = objectMapper.writeValueAsString(matches);
+        lastSnapshot = new SnapshotJson(seq, json);
+        return json;
+    }
+
+    private MatchDTO convertToDTO(Match match) {
+        return new MatchDTO(
+            match.getId(),
+            match.getHomeTeam(),
+            match.getHomeTeamCrest(),
+            match.getAwayTeam(),
+            match.getAwayTeamCrest(),
+            match.getMatchDate(),
+            match.getVenue(),
+            match.getGroup(),
+            match.getStatus(),
+            match.getHomeScore(),
+            match.getAwayScore()
+        );
+    }
+
+    private String eventId(long seq) {
+        return streamId + "-" + seq;
+    }
+
+    private Long parseSequence(String eventId) {
+        String prefix = streamId + "-";
+        if (!eventId.startsWith(prefix)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(eventId.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private sealed interface Outbound permits StreamEvent, Snapshot, Heartbeat {
+    }
+
+    private record StreamEvent(long seq, String json) implements Outbound {
+    }
+
+    // Every match, sent with the id of the last event it already includes
+    private record Snapshot(long seq) implements Outbound {
+    }
+
+    private enum Heartbeat implements Outbound {
+        INSTANCE
+    }
+
+    private record SnapshotJson(long seq, String json) {
+    }
+
+    /**
+     * One connection and its queue. At most one sender thread drains it at a
+     * time, so events reach each viewer in order.
+     */
+    private final class Viewer {
+
+        final SseEmitter emitter;
+        final BlockingQueue<Outbound> queue = new ArrayBlockingQueue<>(viewerQueueSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+        private volatile boolean completed;
+
+        Viewer(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void schedule() {
+            if (!completed && draining.compareAndSet(false, true)) {
+                senderPool.execute(this::drain);
+            }
+        }
+
+        // Completing the emitter waits for a send in progress, so it happens
+        // on the sender thread, never on the stream thread
+        void close() {
+            closed = true;
+            queue.clear();
+            schedule();
+        }
+
+        private void drain() {
+            try {
+                Outbound item;
+                while (!closed && (item = queue.poll()) != null) {
+                    send(item);
+                }
+                if (closed) {
+                    completed = true;
+                    emitter.complete();
+                }
+            } catch (Exception e) {
+                // Client went away; the container completes the request
+                closed = true;
+                completed = true;
+                viewers.remove(this);
+                log.debug("Dropped live-score stream: {}", e.getMessage());
+            } finally {
+                draining.set(false);
+                // Picks up items, or a close, that arrived while finishing
+                if (!completed && (closed || !queue.isEmpty())) {
+                    schedule();
+                }
+            }
+        }
+
+        private void send(Outbound item) throws Exception {
+            if (item instanceof StreamEvent event) {
+                emitter.send(SseEmitter.event()
+                    .id(eventId(event.seq()))
+                    .name(MATCHES_EVENT)
+                    .data(event.json(), MediaType.APPLICATION_JSON));
+            } else if (item instanceof Snapshot snapshot) {
+                emitter.send(SseEmitter.event()
+                    .id(eventId(snapshot.seq()))
+                    .name(SNAPSHOT_EVENT)
+                    .data(snapshotJson(snapshot.seq()), MediaType.APPLICATION_JSON));
+            } else {
+                emitter.send(SseEmitter.event().comment("ping"));
+            }
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.worldcup.service;
+
+import com.worldcup.entity.Match;
+import com.worldcup.entity.MatchStatus;
+import com.worldcup.repository.MatchRepository;
+import com.worldcup.service.FootballApiService.StandingData;
+import com.worldcup.service.FootballApiService.StandingRow;
+import com.worldcup.service.FootballApiService.TeamData;
+import com.worldcup.util.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Group standings computed from our own match results, in the same
+ * StandingData shape as the Football API /standings call, without any
+ * upstream request and without lagging behind our live scores. Covers the
+ * primary competition (football.api.competition-id).
+ *
+ * Tables are kept per group ("Group A", ...) and recomputed only for groups
+ * whose matches changed: MatchEntityListener marks a group dirty after
+ * commit, and the next read recomputes it from that group's matches. LIVE
+ * matches count with their current score and mark the table provisional.
+ * With several backend nodes the dirty marks are also published over
+ * ClusterFanoutService, so a result saved on one node is recomputed on all.
+ *
+ * Ranking follows the FIFA World Cup 2026 regulations:
+ * 1. points in all group matches;
+ * for teams level on points,
+ * 2. points, 3. goal difference, 4. goals scored in the matches between them,
+ *    reapplied to any smaller subset still level;
+ * 5. goal difference and 6. goals scored in all group matches.
+ * Fair-play points and the FIFA ranking are not available here, so team name
+ * is the final, deterministic tiebreaker.
+ */
+@Slf4j
+@Service
+public class LocalStandingsService {
+
+    private static final String GROUP_PREFIX = "Group ";
+
+    // Cluster event: a group label, or ALL_GROUPS after bulk writes
+    private static final String CHANGED_EVENT = "standings-changed";
+    private static final String ALL_GROUPS = "*";
+
+    private final MatchRepository matchRepository;
+    private final ClusterFanoutService clusterFanoutService;
+    private final String competitionId;
+
+    // Group label -> computed table; guarded by "this" together with loaded
+    private final Map<String, StandingData> tables = new TreeMap<>();
+    private boolean loaded;
+    private final Set<String> dirtyGroups = ConcurrentHashMap.newKeySet();
+
+    public LocalStandingsService(MatchRepository matchRepository,
+                                 ClusterFanoutService clusterFanoutService,
+                                 @Value("${football.api.competition-id:2021}") String competitionId) {
+        this.matchRepository = matchRepository;
+        this.clusterFanoutService = clusterFanoutService;
+        this.competitionId = competitionId;
+
+        clusterFanoutService.subscribe(CHANGED_EVENT, this::applyClusterChange);
+    }
+
+    /**
+     * All group tables, recomputing only the groups changed since the last call.
+     */
+    public synchronized List<StandingData> getStandings() {
+        if (!loaded) {
+            // Clear dirty marks first: changes committed while loading are recomputed next time
+            dirtyGroups.clear();
+            tables.clear();
+            Map<String, List<Match>> byGroup = new LinkedHashMap<>();
+            for (Match match : matchRepository.findPrimaryGroupMatches(GROUP_PREFIX + "%", competitionId)) {
+                byGroup.computeIfAbsent(match.getGroup(), g -> new ArrayList<>()).add(match);
+            }
+            byGroup.forEach((group, matches) -> tables.put(group, computeTable(group, matches)));
+            loaded = true;
+            log.info("Computed local standings for {} groups", tables.size());
+        } else if (!dirtyGroups.isEmpty()) {
+            for (String group : List.copyOf(dirtyGroups)) {
+                dirtyGroups.remove(group);
+                List<Match> matches = matchRepository.findPrimaryGroupMatches(group, competitionId);
+                if (matches.isEmpty()) {
+                    tables.remove(group);
+                } else {
+                    tables.put(group, computeTable(group, matches));
+                }
+            }
+        }
+        return new ArrayList<>(tables.values());
+    }
+
+    /**
+     * A match was saved or deleted; its group is recomputed on the next read
+     * once the change is committed.
+     */
+    public void matchChanged(Match match) {
+        String group = match.getGroup();
+        if (group == null || !group.startsWith(GROUP_PREFIX)
+                || (match.getCompetitionId() != null && !match.getCompetitionId().equals(competitionId))) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            dirtyGroups.add(group);
+            publishChange(group);
+        });
+    }
+
+    /**
+     * Recompute everything after commit, for bulk writes that bypass the
+     * entity listener (fixture upserts, admin cleanup).
+     */
+    public void invalidateAll() {
+        AfterCommit.run(() -> {
+            reset();
+            publishChange(ALL_GROUPS);
+        });
+    }
+
+    private synchronized void reset() {
+        loaded = false;
+    }
+
+    private void publishChange(String group) {
+        clusterFanoutService.publishEvent(CHANGED_EVENT, group.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Another node committed a change to these matches
+    private void applyClusterChange(byte[] payload) {
+        String group = new String(payload, StandardCharsets.UTF_8);
+        if (ALL_GROUPS.equals(group)) {
+            reset();
+        } else {
+            dirtyGroups.add(group);
+        }
+    }
+
+    StandingData computeTable(String group, Collection<Match> matches) {
+        Map<String, TeamStats> teams = new LinkedHashMap<>();
+        List<Match> counted = new ArrayList<>();
+        boolean provisional = false;
+
+        for (Match match : matches) {
+            TeamStats home = team(teams, match.getHomeTeam(), match.getHomeTeamCrest());
+            TeamStats away = team(teams, match.getAwayTeam(), match.getAwayTeamCrest());
+            boolean played = match.getStatus() == MatchStatus.FINISHED || match.getStatus() == MatchStatus.LIVE;
+            if (home == null || away == null || !played
+                    || match.getHomeScore() == null || match.getAwayScore() == null) {
+                continue;
+            }
+            home.add(match.getHomeScore(), match.getAwayScore());
+            away.add(match.getAwayScore(), match.getHomeScore());
+            counted.add(match);
+            provisional |= match.getStatus() == MatchStatus.LIVE;
+        }
+
+        List<TeamStats> ranked = new ArrayList<>(teams.values());
+        ranked.sort(Comparator.comparingInt((TeamStats t) -> t.points).reversed());
+        ranked = resolveRuns(ranked, Comparator.comparingInt(t -> t.points), tied -> breakTie(tied, counted));
+
+        StandingData standing = new StandingData();
+        standing.stage = "GROUP_STAGE";
+        standing.type = "TOTAL";
+        standing.group = group;
+        standing.provisional = provisional;
+        int position = 1;
+        for (TeamStats stats : ranked) {
+            standing.table.add(stats.toRow(position++));
+        }
+        return standing;
+    }
+
+    /**
+     * Order teams level on points: head-to-head first (reapplied to smaller
+     * level subsets), then overall goal difference, goals scored and name.
+     */
+    private List<TeamStats> breakTie(List<TeamStats> tied, List<Match> counted) {
+        Map<String, TeamStats> headToHead = new LinkedHashMap<>();
+        for (TeamStats team : tied) {
+            headToHead.put(team.name, new TeamStats(team.name, null));
+        }
+        for (Match match : counted) {
+            TeamStats home = headToHead.get(match.getHomeTeam());
+            TeamStats away = headToHead.get(match.getAwayTeam());
+            if (home != null && away != null) {
+                home.add(match.getHomeScore(), match.getAwayScore());
+                away.add(match.getAwayScore(), match.getHomeScore());
+            }
+        }
+
+        Comparator<TeamStats> byHeadToHead = Comparator
+                .comparingInt((TeamStats t) -> headToHead.get(t.name).points)
+                .thenComparingInt(t -> headToHead.get(t.name).goalDifference())
+                .thenComparingInt(t -> headToHead.get(t.name).goalsFor)
+                .reversed();
+        List<TeamStats> sorted = new ArrayList<>(tied);
+        sorted.sort(byHeadToHead);
+
+        boolean split = byHeadToHead.compare(sorted.get(0), sorted.get(sorted.size() - 1)) != 0;
+        if (split) {
+            // Head-to-head separated some teams; reapply it to each subset still level
+            return resolveRuns(sorted, byHeadToHead, subset -> breakTie(subset, counted));
+        }
+
+        sorted.sort(Comparator.comparingInt(TeamStats::goalDifference).reversed()
+                .thenComparing(Comparator.comparingInt((TeamStats t) -> t.goalsFor).reversed())
+                .thenComparing(t -> t.name));
+        return sorted;
+    }
+
+    /**
+     * Walk a sorted list and pass each run of equal teams (size > 1) to resolver.
+     */
+    private static List<TeamStats> resolveRuns(List<TeamStats> sorted, Comparator<TeamStats> equality,
+                                               Function<List<TeamStats>, List<TeamStats>> resolver) {
+        List<TeamStats> result = new ArrayList<>(sorted.size());
+        int start = 0;
+        while (start < sorted.size()) {
+            int end = start + 1;
+            while (end < sorted.size() && equality.compare(sorted.get(start), sorted.get(end)) == 0) {
+                end++;
+            }
+            List<TeamStats> run = sorted.subList(start, end);
+            result.addAll(run.size() > 1 ? resolver.apply(new ArrayList<>(run)) : run);
+            start = end;
+        }
+        return result;
+    }
+
+    private static TeamStats team(Map<String, TeamStats> teams, String name, String crest) {
+        if (name == null || name.isBlank() || "TBD".equals(name)) {
+            return null;
+        }
+        TeamStats stats = teams.computeIfAbsent(name, n -> new TeamStats(n, crest));
+        if (stats.crest == null) {
+            stats.crest = crest;
+        }
+        return stats;
+    }
+
+    private static final class TeamStats {
+        final String name;
+        String crest;
+        int played;
+        int won;
+        int draw;
+        int lost;
+        int goalsFor;
+        int goalsAgainst;
+        int points;
+
+        TeamStats(String name, String crest) {
+            this.name = name;
+            this.crest = crest;
+        }
+
+        void add(int scored, int conceded) {
+            played++;
+            goalsFor += scored;
+            goalsAgainst += conceded;
+            if (scored > conceded) {
+                won++;
+                points += 3;
+            } else if (scored == conceded) {
+                draw++;
+                points += 1;
+            } else {
+                lost++;
+            }
+        }
+
+        int goalDifference() {
+            return goalsFor - goalsAgainst;
+        }
+
+        StandingRow toRow(int position) {
+            TeamData team = new TeamData();
+            team.setName(name);
+            team.setShortName(name);
+            team.setCrest(crest);
+
+            StandingRow row = new StandingRow();
+            row.position = position;
+            row.team = team;
+            row.playedGames = played;
+            row.won = won;
+            row.draw = draw;
+            row.lost = lost;
+            row.points = points;
+            row.goalsFor = goalsFor;
+            row.goalsAgainst = goalsAgainst;
+            row.goalDifference = goalDifference();
+            return row;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.worldcup.service;
+
+import com.worldcup.entity.Match;
+import com.worldcup.repository.MatchRepository;
+import com.worldcup.util.AfterCommit;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of API-linked matches: externalApiId -> match id and the
+ * API fingerprint last applied. The syncs use it to skip unchanged matches
+ * without loading them and to load only the changed ones by id.
+ *
+ * Partitioned by competition id, so each competition's sync reads and
+ * rebuilds only its own partition and competitions sync concurrently without
+ * touching each other's entries. Matches without a competition_id (synced
+ * before the column existed) belong to the primary competition
+ * (football.api.competition-id).
+ *
+ * Warmed at startup and rebuilt per competition by every fixture sync. In
+ * between it is kept current by MatchEntityListener on insert, update and
+ * delete. Changes are applied after commit, so a rolled-back sync never
+ * leaves a fingerprint in the index that is not in the database.
+ *
+ * The same changes are published over ClusterFanoutService, so whichever node
+ * holds the sync lease next finds an index matching the database. Events
+ * carry the entries themselves; receiving nodes do not query anything.
+ */
+@Slf4j
+@Service
+public class MatchExternalIdIndex {
+
+    public record Entry(Long matchId, String apiFingerprint) {
+    }
+
+    // Cluster event: lines "+ competition externalId matchId fingerprint" or
+    // "- externalId matchId" (tab-separated), or REBUILD
+    private static final String CHANGED_EVENT = "match-index-changed";
+    private static final String REBUILD = "*";
+
+    private final MatchRepository matchRepository;
+    private final ClusterFanoutService clusterFanoutService;
+    private final String primaryCompetitionId;
+
+    // Competition id -> (external id -> entry)
+    private final Map<String, Map<String, Entry>> partitions = new ConcurrentHashMap<>();
+
+    public MatchExternalIdIndex(MatchRepository matchRepository,
+                                MeterRegistry meterRegistry,
+                                ClusterFanoutService clusterFanoutService,
+                                @Value("${football.api.competition-id:2021}") String primaryCompetitionId) {
+        this.matchRepository = matchRepository;
+        this.clusterFanoutService = clusterFanoutService;
+        this.primaryCompetitionId = primaryCompetitionId;
+        clusterFanoutService.subscribe(CHANGED_EVENT, this::applyClusterChange);
+
+        Gauge.builder("football.sync.index.size", this, MatchExternalIdIndex::size)
+            .description("API-linked matches in the external id index")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void warm() {
+        rebuild();
+    }
+
+    /**
+     * Reload every partition from the id/fingerprint projection (no entities).
+     */
+    public void rebuild() {
+        Map<String, Map<String, Entry>> rebuilt = new ConcurrentHashMap<>();
+        for (MatchRepository.ExternalIdView view : matchRepository.findExternalIdIndex()) {
+            rebuilt.computeIfAbsent(partitionOf(view.getCompetitionId()), c -> new ConcurrentHashMap<>())
+                    .put(view.getExternalApiId(), new Entry(view.getId(), view.getApiFingerprint()));
+        }
+        partitions.keySet().retainAll(rebuilt.keySet());
+        partitions.putAll(rebuilt);
+        log.info("External id index loaded with {} API-linked matches in {} competitions", size(), rebuilt.size());
+    }
+
+    /**
+     * Reload one competition's partition, leaving the others untouched.
+     */
+    public void rebuild(String competitionId) {
+        Map<String, Entry> rebuilt = new ConcurrentHashMap<>();
+        boolean primary = primaryCompetitionId.equals(competitionId);
+        for (MatchRepository.ExternalIdView view : matchRepository.findExternalIdIndexByCompetition(competitionId, primary)) {
+            rebuilt.put(view.getExternalApiId(), new Entry(view.getId(), view.getApiFingerprint()));
+        }
+        partitions.put(competitionId, rebuilt);
+        log.info("External id index loaded with {} API-linked matches for competition {}", rebuilt.size(), competitionId);
+    }
+
+    public Entry get(String competitionId, String externalApiId) {
+        Map<String, Entry> partition = partitions.get(competitionId);
+        return partition != null ? partition.get(externalApiId) : null;
+    }
+
+    /**
+     * Record a saved match (after commit when a transaction is active).
+     */
+    public void saved(Match match) {
+        String externalApiId = match.getExternalApiId();
+        if (externalApiId == null || externalApiId.isEmpty() || match.getId() == null) {
+            return;
+        }
+        Entry entry = new Entry(match.getId(), match.getApiFingerprint());
+        String competitionId = partitionOf(match.getCompetitionId());
+        AfterCommit.run(() -> {
+            put(competitionId, externalApiId, entry);
+            publishChange(List.of(savedLine(competitionId, externalApiId, entry)));
+        });
+    }
+
+    /**
+     * Forget a deleted match (after commit when a transaction is active).
+     */
+    public void removed(Match match) {
+        String externalApiId = match.getExternalApiId();
+        if (externalApiId == null || externalApiId.isEmpty()) {
+            return;
+        }
+        Long matchId = match.getId();
+        AfterCommit.run(() -> {
+            remove(externalApiId, matchId);
+            publishChange(List.of("-\t" + externalApiId + "\t" + matchId));
+        });
+    }
+
+    /**
+     * Reload the given external ids once the current transaction commits,
+     * after rows were written by MatchUpsertRepository (no entity events).
+     */
+    public void reloadAfterCommit(Collection<String> externalApiIds) {
+        List<String> ids = List.copyOf(externalApiIds);
+        if (ids.isEmpty()) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            List<String> lines = new ArrayList<>();
+            for (MatchRepository.ExternalIdView view : matchRepository.findExternalIdIndex(ids)) {
+                String competitionId = partitionOf(view.getCompetitionId());
+                Entry entry = new Entry(view.getId(), view.getApiFingerprint());
+                put(competitionId, view.getExternalApiId(), entry);
+                lines.add(savedLine(competitionId, view.getExternalApiId(), entry));
+            }
+            publishChange(lines);
+        });
+    }
+
+    /**
+     * Rebuild once the current transaction commits, after bulk SQL changes
+     * that bypass the entity listener.
+     */
+    public void rebuildAfterCommit() {
+        AfterCommit.run(() -> {
+            rebuild();
+            publishChange(List.of(REBUILD));
+        });
+    }
+
+    private void publishChange(List<String> lines) {
+        if (!lines.isEmpty()) {
+            clusterFanoutService.publishEvent(CHANGED_EVENT, String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String savedLine(String competitionId, String externalApiId, Entry entry) {
+        String fingerprint = entry.apiFingerprint() != null ? entry.apiFingerprint() : "";
+        return "+\t" + competitionId + "\t" + externalApiId + "\t" + entry.matchId() + "\t" + fingerprint;
+    }
+
+    // Another node committed these changes
+    private void applyClusterChange(byte[] payload) {
+        for (String line : new String(payload, StandardCharsets.UTF_8).split("\n")) {
+            String[] fields = line.split("\t", -1);
+            if (REBUILD.equals(line)) {
+                rebuild();
+            } else if (fields.length == 5 && "+".equals(fields[0])) {
+                put(fields[1], fields[2], new Entry(Long.valueOf(fields[3]), fields[4].isEmpty() ? null : fields[4]));
+            } else if (fields.length == 3 && "-".equals(fields[0])) {
+                remove(fields[1], Long.valueOf(fields[2]));
+            } else {
+                log.warn("Ignoring malformed external id index event: {}", line);
+            }
+        }
+    }
+
+    private void remove(String externalApiId, Long matchId) {
+        partitions.values().forEach(partition -> partition.computeIfPresent(externalApiId,
+                (id, entry) -> entry.matchId().equals(matchId) ? null : entry));
+    }
+
+    private void put(String competitionId, String externalApiId, Entry entry) {
+        partitions.computeIfAbsent(competitionId, c -> new ConcurrentHashMap<>()).put(externalApiId, entry);
+        // A match reassigned to another competition leaves its old partition
+        partitions.forEach((id, partition) -> {
+            if (!id.equals(competitionId)) {
+                partition.remove(externalApiId);
+            }
+        });
+    }
+
+    private String partitionOf(String competitionId) {
+        return competitionId != null ? competitionId : primaryCompetitionId;
+    }
+
+    private int size() {
+        return partitions.values().stream().mapToInt(Map::size).sum();
+    }
+}
@@ -0,0 +1,128 @@
+package com.worldcup.service;
+
+import com.worldcup.config.MatchTransitionTimer;
+import com.worldcup.entity.Match;
+import com.worldcup.entity.MatchStatus;
+import com.worldcup.repository.MatchRepository;
+import com.worldcup.repository.MatchTransitionRepository;
+import com.worldcup.util.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves due matches SCHEDULED -> LIVE (at kickoff) and LIVE -> FINISHED (at
+ * kickoff + full-time-after) with one set-based UPDATE each, then drives the
+ * broadcasts and point calculation from the rows actually changed.
+ *
+ * While the Football API is down (circuit not closed), API-linked matches
+ * stay LIVE: finishing them here would freeze them without final scores
+ * until the API returns.
+ */
+@Slf4j
+@Service
+public class MatchTransitionService {
+
+    public record Result(List<Match> started, List<Match> finished, long keptLive) {
+    }
+
+    private final MatchTransitionRepository transitionRepository;
+    private final MatchRepository matchRepository;
+    private final WebSocketService webSocketService;
+    private final PredictionService predictionService;
+    private final FootballApiCircuitBreaker footballApiCircuitBreaker;
+    private final LocalStandingsService localStandings;
+    // Resolved lazily: the timer runs its transitions through this service
+    private final ObjectProvider<MatchTransitionTimer> transitionTimer;
+
+    @Value("${football.api.enabled:false}")
+    private boolean apiEnabled;
+
+    @Value("${match.status.full-time-after:PT2H30M}")
+    private Duration fullTimeAfter;
+
+    public MatchTransitionService(MatchTransitionRepository transitionRepository,
+                                  MatchRepository matchRepository,
+                                  WebSocketService webSocketService,
+                                  PredictionService predictionService,
+                                  FootballApiCircuitBreaker footballApiCircuitBreaker,
+                                  LocalStandingsService localStandings,
+                                  ObjectProvider<MatchTransitionTimer> transitionTimer) {
+        this.transitionRepository = transitionRepository;
+        this.matchRepository = matchRepository;
+        this.webSocketService = webSocketService;
+        this.predictionService = predictionService;
+        this.footballApiCircuitBreaker = footballApiCircuitBreaker;
+        this.localStandings = localStandings;
+        this.transitionTimer = transitionTimer;
+    }
+
+    /**
+     * Transition every due match. Broadcasts and point calculation run after
+     * commit, for the returned matches only.
+     */
+    @Transactional
+    public Result transitionDueMatches() {
+        // Use UTC for all time comparisons to match PostgreSQL's UTC storage
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        LocalDateTime kickedOffBefore = now.minus(fullTimeAfter);
+
+        List<Long> startedIds = transitionRepository.startDue(now);
+
+        boolean apiDown = apiEnabled && !footballApiCircuitBreaker.isClosed();
+        List<Long> finishedIds = transitionRepository.finishDue(kickedOffBefore, apiDown);
+        long keptLive = apiDown ? transitionRepository.countDueApiLinked(kickedOffBefore) : 0;
+        if (keptLive > 0) {
+            log.warn("Football API unavailable (circuit {}); keeping {} API-linked matches LIVE until results can be confirmed",
+                    footballApiCircuitBreaker.getState(), keptLive);
+        }
+
+        if (startedIds.isEmpty() && finishedIds.isEmpty()) {
+            return new Result(List.of(), List.of(), keptLive);
+        }
+
+        // One load for both sets; a match that was due for both went straight to FINISHED
+        List<Long> ids = new ArrayList<>(startedIds);
+        ids.addAll(finishedIds);
+        List<Match> started = new ArrayList<>();
+        List<Match> finished = new ArrayList<>();
+        for (Match match : matchRepository.findAllById(ids)) {
+            (match.getStatus() == MatchStatus.FINISHED ? finished : started).add(match);
+            localStandings.matchChanged(match);
+            transitionTimer.ifAvailable(timer -> timer.matchChanged(match, false));
+        }
+
+        AfterCommit.run(() -> {
+            started.forEach(match -> webSocketService.broadcastMatchStatusChange(
+                    match, MatchStatus.SCHEDULED.name(), MatchStatus.LIVE.name()));
+            for (Match match : finished) {
+                String oldStatus = startedIds.contains(match.getId()) ? MatchStatus.SCHEDULED.name() : MatchStatus.LIVE.name();
+                webSocketService.broadcastMatchStatusChange(match, oldStatus, MatchStatus.FINISHED.name());
+                calculatePoints(match);
+            }
+        });
+
+        log.info("Match transitions at {}: {} started, {} finished", now, started.size(), finished.size());
+        return new Result(started, finished, keptLive);
+    }
+
+    private void calculatePoints(Match match) {
+        if (match.getHomeScore() == null || match.getAwayScore() == null) {
+            return;
+        }
+        try {
+            log.info("Calculating points for finished match {} after transaction commit", match.getId());
+            predictionService.calculatePointsForMatch(match.getId());
+        } catch (Exception e) {
+            log.error("Error calculating points for match {} after commit: {}", match.getId(), e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.worldcup.service;
+
+import com.worldcup.config.NotificationRetentionProperties;
+import com.worldcup.entity.Notification;
+import com.worldcup.repository.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes notifications older than their per-type TTL.
+ * The table is walked in primary-key ranges of chunk-size ids, each range
+ * deleted in its own short transaction with a pause in between, so the purge
+ * never holds long locks or starves live traffic on the notifications table.
+ */
+@Slf4j
+@Service
+public class NotificationRetentionService {
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationService notificationService;
+    private final NotificationRetentionProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong lastRunPurged = new AtomicLong();
+    private final AtomicLong tableRows = new AtomicLong(-1);
+
+    public NotificationRetentionService(NotificationRepository notificationRepository,
+                                        NotificationService notificationService,
+                                        NotificationRetentionProperties properties,
+                                        TransactionTemplate transactionTemplate,
+                                        MeterRegistry meterRegistry) {
+        this.notificationRepository = notificationRepository;
+        this.notificationService = notificationService;
+        this.properties = properties;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("notifications.retention.last.run.purged", lastRunPurged, AtomicLong::get)
+            .description("Rows deleted by the most recent retention run")
+            .register(meterRegistry);
+        // Refreshed once per retention run rather than on every scrape (COUNT(*) is not free)
+        Gauge.builder("notifications.table.rows", tableRows, AtomicLong::get)
+            .description("Row count of the notifications table as of the last retention run")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Run one purge pass over the whole table.
+     *
+     * @return number of notifications deleted
+     */
+    public long purgeExpired() {
+        if (!properties.isEnabled()) {
+            return 0;
+        }
+
+        List<RetentionRule> rules = buildRules(LocalDateTime.now());
+        Long minId = notificationRepository.findMinId();
+        Long maxId = notificationRepository.findMaxId();
+        if (rules.isEmpty() || minId == null || maxId == null) {
+            lastRunPurged.set(0);
+            tableRows.set(notificationRepository.count());
+            return 0;
+        }
+
+        int chunkSize = Math.max(1, properties.getChunkSize());
+        long[] purgedPerRule = new long[rules.size()];
+        long total = 0;
+
+        log.info("Purging expired notifications: {} rule(s), ids {}..{} in chunks of {}",
+                rules.size(), minId, maxId, chunkSize);
+
+        for (long from = minId; from <= maxId; from += chunkSize) {
+            final long fromId = from;
+            final long toId = from + chunkSize;
+
+            Integer deleted = transactionTemplate.execute(status -> {
+                int chunkTotal = 0;
+                for (int i = 0; i < rules.size(); i++) {
+                    RetentionRule rule = rules.get(i);
+                    int count = notificationRepository.deleteExpiredInRange(
+                            fromId, toId, rule.type(), rule.read(), rule.cutoff());
+                    purgedPerRule[i] += count;
+                    chunkTotal += count;
+                }
+                return chunkTotal;
+            });
+
+            if (deleted != null && deleted > 0) {
+                total += deleted;
+                // Only pause after chunks that actually wrote; empty ranges are cheap PK probes
+                if (!pause()) {
+                    log.warn("Notification purge interrupted after {} rows", total);
+                    break;
+                }
+            }
+        }
+
+        boolean unreadPurged = false;
+        for (int i = 0; i < rules.size(); i++) {
+            RetentionRule rule = rules.get(i);
+            Counter.builder("notifications.retention.purged")
+                .description("Notifications deleted by the retention job")
+                .tag("type", rule.type().name())
+                .tag("state", rule.read() ? "read" : "unread")
+                .register(meterRegistry)
+                .increment(purgedPerRule[i]);
+            unreadPurged |= !rule.read() && purgedPerRule[i] > 0;
+        }
+
+        if (unreadPurged) {
+            // Deleted unread rows bypassed the per-user counters; reload them lazily
+            notificationService.invalidateUnreadCounts();
+        }
+
+        lastRunPurged.set(total);
+        tableRows.set(notificationRepository.count());
+        log.info("Notification purge completed: {} deleted, {} remaining", total, tableRows.get());
+        return total;
+    }
+
+    private List<RetentionRule> buildRules(LocalDateTime now) {
+        List<RetentionRule> rules = new ArrayList<>();
+        for (Map.Entry<Notification.NotificationType, Duration> entry : properties.getReadTtl().entrySet()) {
+            rules.add(new RetentionRule(entry.getKey(), true, now.minus(entry.getValue())));
+        }
+        for (Map.Entry<Notification.NotificationType, Duration> entry : properties.getUnreadTtl().entrySet()) {
+            rules.add(new RetentionRule(entry.getKey(), false, now.minus(entry.getValue())));
+        }
+        return rules;
+    }
+
+    private boolean pause() {
+        if (properties.getPauseMs() <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(properties.getPauseMs());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private record RetentionRule(Notification.NotificationType type, boolean read, LocalDateTime cutoff) {}
+}
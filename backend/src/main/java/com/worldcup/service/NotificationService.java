@@ -1,19 +1,26 @@
 package com.worldcup.service;
 
 import com.worldcup.dto.NotificationDTO;
+import com.worldcup.dto.NotificationFeedDTO;
 import com.worldcup.entity.Notification;
 import com.worldcup.entity.User;
+import com.worldcup.exception.InvalidCursorException;
 import com.worldcup.repository.NotificationRepository;
+import com.worldcup.util.AfterCommit;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -22,8 +29,36 @@ import java.util.stream.Collectors;
 @Transactional
 public class NotificationService {
 
+    private static final int MAX_FEED_LIMIT = 100;
+
+    // Cluster event: a user id whose counter changed on another node, or ALL_USERS
+    private static final String UNREAD_CHANGED_EVENT = "unread-count-changed";
+    private static final String ALL_USERS = "*";
+
     private final NotificationRepository notificationRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final WebSocketService webSocketService;
+    private final ClusterFanoutService clusterFanoutService;
+
+    // Per-user unread counts, keyed by user id, so reading the badge needs no
+    // COUNT query. Loaded from the DB on first access and reloaded after every
+    // committed change, never adjusted in place: a lazy load that ran between
+    // another transaction's commit and its after-commit hook would already
+    // include that change, and adding the delta on top would drift for good.
+    // Every change is pushed to /user/queue/unread-count. Other nodes drop
+    // their copy of a changed count and reload it when next read.
+    private final Map<Long, Long> unreadCounts = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void subscribeToClusterChanges() {
+        clusterFanoutService.subscribe(UNREAD_CHANGED_EVENT, payload -> {
+            String userId = new String(payload, StandardCharsets.UTF_8);
+            if (ALL_USERS.equals(userId)) {
+                unreadCounts.clear();
+            } else {
+                unreadCounts.remove(Long.valueOf(userId));
+            }
+        });
+    }
 
     /**
      * Send a notification to a user
@@ -52,26 +87,46 @@ public class NotificationService {
 
             // Send via WebSocket to user's personal channel
             NotificationDTO dto = NotificationDTO.fromEntity(saved);
-            messagingTemplate.convertAndSendToUser(
+            webSocketService.sendNotificationToUser(
                 user.getEmail(), // Spring uses email as principal name
-                "/queue/notifications",
                 dto
             );
             log.debug("Sent notification {} to user {} via WebSocket", saved.getId(), user.getId());
 
+            refreshUnreadCountAfterCommit(user);
+
         } catch (Exception e) {
             log.error("Error sending notification to user {}: {}", user.getId(), e.getMessage(), e);
         }
     }
 
     /**
-     * Get user's notifications (paginated)
+     * Get user's notifications, newest first, using keyset pagination.
+     * before is the nextCursor of the previous page ("<createdAt>,<id>"), or null for the first page.
      */
     @Transactional(readOnly = true)
-    public Page<NotificationDTO> getUserNotifications(User user, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        return notificationRepository.findByUserOrderByCreatedAtDesc(user, pageable)
-            .map(NotificationDTO::fromEntity);
+    public NotificationFeedDTO getNotificationFeed(User user, String before, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_FEED_LIMIT));
+        // Fetch one extra row to know whether an older page exists without a COUNT query
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+        List<Notification> rows;
+        if (before == null || before.isBlank()) {
+            rows = notificationRepository.findFeedFirstPage(user, pageable);
+        } else {
+            Cursor cursor = Cursor.parse(before);
+            rows = notificationRepository.findFeedBefore(user, cursor.createdAt(), cursor.id(), pageable);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Notification> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? Cursor.of(page.get(page.size() - 1)).format() : null;
+
+        return new NotificationFeedDTO(
+            page.stream().map(NotificationDTO::fromEntity).collect(Collectors.toList()),
+            nextCursor,
+            getUnreadCount(user)
+        );
     }
 
     /**
@@ -85,11 +140,11 @@ public class NotificationService {
     }
 
     /**
-     * Get unread count for user
+     * Get unread count for user (served from the in-memory count, DB on first access)
      */
     @Transactional(readOnly = true)
     public long getUnreadCount(User user) {
-        return notificationRepository.countByUserAndReadFalse(user);
+        return unreadCount(user.getId());
     }
 
     /**
@@ -98,8 +153,12 @@ public class NotificationService {
     public void markAsRead(Long notificationId, User user) {
         notificationRepository.findById(notificationId).ifPresent(notification -> {
             if (notification.getUser().getId().equals(user.getId())) {
+                if (Boolean.TRUE.equals(notification.getRead())) {
+                    return;
+                }
                 notification.setRead(true);
                 notificationRepository.save(notification);
+                refreshUnreadCountAfterCommit(user);
                 log.debug("Marked notification {} as read for user {}", notificationId, user.getId());
             } else {
                 log.warn("User {} attempted to mark notification {} as read (not owner)", 
@@ -113,6 +172,9 @@ public class NotificationService {
      */
     public int markAllAsRead(User user) {
         int count = notificationRepository.markAllAsReadByUser(user);
+        if (count > 0) {
+            refreshUnreadCountAfterCommit(user);
+        }
         log.info("Marked {} notifications as read for user {}", count, user.getId());
         return count;
     }
@@ -123,7 +185,11 @@ public class NotificationService {
     public void deleteNotification(Long notificationId, User user) {
         notificationRepository.findById(notificationId).ifPresent(notification -> {
             if (notification.getUser().getId().equals(user.getId())) {
+                boolean wasUnread = !Boolean.TRUE.equals(notification.getRead());
                 notificationRepository.delete(notification);
+                if (wasUnread) {
+                    refreshUnreadCountAfterCommit(user);
+                }
                 log.debug("Deleted notification {} for user {}", notificationId, user.getId());
             } else {
                 log.warn("User {} attempted to delete notification {} (not owner)", 
@@ -131,6 +197,76 @@ public class NotificationService {
             }
         });
     }
-}
 
+    /**
+     * Drop all cached unread counts once the current transaction commits, so
+     * the next access reloads them from the DB. Used after bulk deletes that
+     * bypass the per-notification methods above.
+     */
+    public void invalidateUnreadCounts() {
+        AfterCommit.run(() -> {
+            unreadCounts.clear();
+            publishUnreadChange(ALL_USERS);
+        });
+    }
+
+    private void publishUnreadChange(String userId) {
+        clusterFanoutService.publishEvent(UNREAD_CHANGED_EVENT, userId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long unreadCount(Long userId) {
+        return unreadCounts.computeIfAbsent(userId, notificationRepository::countByUserIdAndReadFalse);
+    }
+
+    /**
+     * Reload the user's unread count once the current transaction commits (so
+     * a rollback never leaves it ahead of the table), then push the new value
+     * to the user's sessions.
+     */
+    private void refreshUnreadCountAfterCommit(User user) {
+        // Read these now: the user may be a lazy proxy whose session is gone after commit
+        Long userId = user.getId();
+        String email = user.getEmail();
 
+        AfterCommit.run(() -> {
+            try {
+                // remove waits for a load in progress, so the reload sees this commit
+                unreadCounts.remove(userId);
+                long count = unreadCount(userId);
+                publishUnreadChange(String.valueOf(userId));
+                webSocketService.sendUnreadCountToUser(email, count);
+            } catch (Exception e) {
+                log.error("Error updating unread count for user {}: {}", userId, e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Position in the feed: (createdAt, id) of the last notification on a page.
+     */
+    private record Cursor(LocalDateTime createdAt, Long id) {
+
+        static Cursor of(Notification notification) {
+            return new Cursor(notification.getCreatedAt(), notification.getId());
+        }
+
+        static Cursor parse(String value) {
+            int comma = value.lastIndexOf(',');
+            if (comma <= 0 || comma == value.length() - 1) {
+                throw new InvalidCursorException(value);
+            }
+            try {
+                return new Cursor(
+                    LocalDateTime.parse(value.substring(0, comma).trim()),
+                    Long.parseLong(value.substring(comma + 1).trim())
+                );
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new InvalidCursorException(value);
+            }
+        }
+
+        String format() {
+            return createdAt + "," + id;
+        }
+    }
+}
@@ -31,6 +31,7 @@ public class PredictionService {
     private final PredictionRepository predictionRepository;
     private final MatchService matchService;
     private final PointsCalculationService pointsCalculationService;
+    private final LeaderboardBroadcaster leaderboardBroadcaster;
     private final Optional<AchievementService> achievementService; // Optional - may not be available during startup
     private final Optional<NotificationService> notificationService; // Optional - may not be available during startup
 
@@ -99,6 +100,7 @@ public class PredictionService {
         }
 
         List<Prediction> predictions = predictionRepository.findByMatch(match);
+        boolean anyPointsChanged = false;
 
         for (Prediction prediction : predictions) {
             // Skip predictions with null predicted scores
@@ -124,6 +126,7 @@ public class PredictionService {
                 if (existingPoints == null || !existingPoints.equals(calculatedPoints)) {
                     prediction.setPoints(calculatedPoints);
                     predictionRepository.save(prediction);
+                    anyPointsChanged = true;
                     
                     // Only send notification if this is a new calculation (points were null)
                     // or if points increased (score correction that benefits the user)
@@ -174,6 +177,10 @@ public class PredictionService {
                 log.error("Error calculating points for prediction {}: {}", prediction.getId(), e.getMessage());
             }
         }
+
+        if (anyPointsChanged) {
+            leaderboardBroadcaster.broadcastLeaderboardsForMatch(match);
+        }
     }
 
 
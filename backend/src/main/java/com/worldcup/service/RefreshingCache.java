@@ -0,0 +1,161 @@
+package com.worldcup.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * Cache for upstream data (Football API standings and the like) that never
+ * lets a burst of readers turn into a burst of upstream calls:
+ *
+ * - Single flight: at most one load per key runs at a time; concurrent
+ *   callers share it.
+ * - Stale while revalidate: once a value is older than ttl, callers still get
+ *   it immediately while one background load refreshes it.
+ * - Last good value: a failed load keeps the previous value and is retried
+ *   after error-retry; only a key that never loaded surfaces the error.
+ *
+ * Loads run on the cache's own daemon thread. Metrics, tagged cache=<name>:
+ * upstream.cache.gets{result=hit|stale|miss}, upstream.cache.loads{result=success|failure},
+ * upstream.cache.load.duration, upstream.cache.size.
+ */
+@Slf4j
+public class RefreshingCache<K, V> {
+
+    private final String name;
+    private final Function<K, V> loader;
+    private final long ttlMs;
+    private final long errorRetryMs;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final ExecutorService executor;
+
+    public RefreshingCache(String name, Function<K, V> loader, Duration ttl, Duration errorRetry,
+                           MeterRegistry meterRegistry) {
+        this.name = name;
+        this.loader = loader;
+        this.ttlMs = ttl.toMillis();
+        this.errorRetryMs = errorRetry.toMillis();
+        this.meterRegistry = meterRegistry;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "cache-refresh-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("upstream.cache.size", entries, Map::size)
+            .description("Keys held by the refreshing cache")
+            .tag("cache", name)
+            .register(meterRegistry);
+    }
+
+    /**
+     * The cached value for key, loading it (shared with concurrent callers) only
+     * if there is none yet. Throws the load's exception if the first load fails.
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            if (System.currentTimeMillis() < entry.refreshAfter()) {
+                count("hit");
+            } else {
+                count("stale");
+                refresh(key);
+            }
+            return entry.value();
+        }
+
+        count("miss");
+        try {
+            return refresh(key).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Start a background load of key unless one is already running.
+     */
+    public CompletableFuture<V> refresh(K key) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            executor.execute(() -> load(key, mine));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, mine);
+            mine.completeExceptionally(e);
+        }
+        return mine;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void load(K key, CompletableFuture<V> future) {
+        long start = System.nanoTime();
+        V value;
+        try {
+            value = Objects.requireNonNull(loader.apply(key), "loader returned null");
+        } catch (Exception e) {
+            // Keep serving the last good value; try again after errorRetry
+            entries.computeIfPresent(key, (k, old) -> new Entry<>(old.value(), System.currentTimeMillis() + errorRetryMs));
+            recordLoad("failure", start);
+            log.warn("Refreshing cache {} failed to load {}: {}", name, key, e.getMessage());
+            // Off inFlight before completing, so a caller that sees the entry
+            // go stale from here on starts a new load instead of joining this one
+            inFlight.remove(key, future);
+            future.completeExceptionally(e);
+            return;
+        }
+        entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMs));
+        recordLoad("success", start);
+        inFlight.remove(key, future);
+        future.complete(value);
+    }
+
+    private void count(String result) {
+        Counter.builder("upstream.cache.gets")
+            .description("Refreshing cache lookups: hit (fresh), stale (served while refreshing) or miss")
+            .tag("cache", name)
+            .tag("result", result)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    private void recordLoad(String result, long startNanos) {
+        Counter.builder("upstream.cache.loads")
+            .description("Refreshing cache loads from upstream, by result")
+            .tag("cache", name)
+            .tag("result", result)
+            .register(meterRegistry)
+            .increment();
+        Timer.builder("upstream.cache.load.duration")
+            .description("Time to load a refreshing cache value from upstream")
+            .tag("cache", name)
+            .register(meterRegistry)
+            .record(Duration.ofNanos(System.nanoTime() - startNanos));
+    }
+
+    private record Entry<V>(V value, long refreshAfter) {
+    }
+}
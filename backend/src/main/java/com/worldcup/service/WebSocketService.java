@@ -1,20 +1,110 @@
 package com.worldcup.service;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.worldcup.dto.LeaderboardDeltaDTO;
+import com.worldcup.dto.LeaderboardEntryDTO;
 import com.worldcup.dto.MatchDTO;
+import com.worldcup.dto.MatchDeltaDTO;
 import com.worldcup.entity.Match;
-import com.worldcup.repository.MatchRepository;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes match and leaderboard changes to STOMP clients as deltas.
+ * Topics (clients subscribe only to what they display):
+ * - /topic/matches/batch: every match delta, coalesced per batch window
+ * - /topic/matches/{id}: deltas for one match
+ * - /topic/matches/day/{yyyy-MM-dd}: deltas for matches kicking off that (UTC) day
+ * - /topic/leagues/{id}/leaderboard: changed leaderboard entries for one league
+ * Every payload is serialized once into a BroadcastFrame and the same bytes
+ * are reused for all its destinations. Batch frames also feed the live-score
+ * SSE stream.
+ *
+ * With websocket.cluster.enabled, versions come from a cluster-wide sequence
+ * (BroadcastVersionSequence) and nodes exchange full versioned state, not
+ * deltas: every node diffs a relayed match or leaderboard against what its
+ * own clients last received, and ignores state older than what it already
+ * sent. Nodes therefore never apply a delta to a base they do not have, and
+ * all of them converge on the newest version of each match.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class WebSocketService {
 
+    public static final String MATCH_BATCH_TOPIC = "/topic/matches/batch";
+
+    // ClusterFanoutService events carrying full versioned state
+    static final String MATCH_STATE_EVENT = "match-state";
+    static final String LEADERBOARD_STATE_EVENT = "leaderboard-state";
+
     private final SimpMessagingTemplate messagingTemplate;
-    private final MatchRepository matchRepository;
+    private final ObjectMapper objectMapper;
+    private final ClusterFanoutService clusterFanoutService;
+    private final LiveScoreStreamService liveScoreStreamService;
+    private final BroadcastVersionSequence versionSequence;
+
+    // Updates queued within this window are sent together as one /topic/matches/batch frame
+    private final long batchWindowMs;
+
+    // Last state (and its version) sent to clients per match id: the base for
+    // deltas, and unchanged matches are never re-broadcast
+    private final Map<Long, SentMatch> lastBroadcast = new ConcurrentHashMap<>();
+
+    // Last leaderboard sent per league id, the base for leaderboard deltas
+    private final Map<Long, SentLeaderboard> lastLeaderboards = new ConcurrentHashMap<>();
+
+    // Serializes diff-and-send so deltas and lastBroadcast stay in version order
+    private final Object publishLock = new Object();
+
+    // Pending updates for the next batch frame; guarded by "this"
+    private final Map<Long, MatchDTO> pending = new LinkedHashMap<>();
+    private boolean flushScheduled;
+
+    private final ScheduledExecutorService flushExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "match-broadcast-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public WebSocketService(SimpMessagingTemplate messagingTemplate,
+                            ObjectMapper objectMapper,
+                            ClusterFanoutService clusterFanoutService,
+                            LiveScoreStreamService liveScoreStreamService,
+                            BroadcastVersionSequence versionSequence,
+                            @Value("${websocket.broadcast.batch-window-ms:250}") long batchWindowMs) {
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+        this.clusterFanoutService = clusterFanoutService;
+        this.liveScoreStreamService = liveScoreStreamService;
+        this.versionSequence = versionSequence;
+        this.batchWindowMs = batchWindowMs;
+
+        clusterFanoutService.subscribe(MATCH_STATE_EVENT, this::applyRelayedMatches);
+        clusterFanoutService.subscribe(LEADERBOARD_STATE_EVENT, this::applyRelayedLeaderboard);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdown();
+    }
 
     /**
      * Convert Match entity to MatchDTO
@@ -36,25 +126,253 @@ public class WebSocketService {
     }
 
     /**
-     * Broadcast match update to all connected clients
+     * Queue a match update for connected clients.
+     * Takes the already-loaded entity (no re-read), skips the match if nothing
+     * visible changed since the last broadcast, and coalesces everything queued
+     * within the batch window into a single /topic/matches/batch frame.
+     */
+    public void broadcastMatchUpdate(Match match) {
+        MatchDTO matchDTO = convertToDTO(match);
+        if (alreadySent(matchDTO)) {
+            return;
+        }
+
+        synchronized (this) {
+            pending.put(matchDTO.id(), matchDTO);
+            if (!flushScheduled) {
+                flushScheduled = true;
+                flushExecutor.schedule(this::flushPending, batchWindowMs, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Broadcast match status change.
+     * Sent immediately rather than batched: kickoff locks predictions, so clients
+     * should learn about it without waiting for the batch window.
+     */
+    public void broadcastMatchStatusChange(Match match, String oldStatus, String newStatus) {
+        MatchDTO matchDTO = convertToDTO(match);
+        synchronized (this) {
+            // A queued update for this match is superseded by this one
+            pending.remove(matchDTO.id());
+        }
+        publish(List.of(matchDTO));
+        log.info("Broadcasted match status change for match {}: {} -> {}", matchDTO.id(), oldStatus, newStatus);
+    }
+
+    /**
+     * Forget the broadcast state of a deleted match.
      */
-    public void broadcastMatchUpdate(Long matchId) {
-        matchRepository.findById(matchId).ifPresent(match -> {
-            MatchDTO matchDTO = convertToDTO(match);
-            messagingTemplate.convertAndSend("/topic/matches/update", matchDTO);
-            log.debug("Broadcasted match update for match {}", matchId);
-        });
+    public void forgetMatch(Long matchId) {
+        lastBroadcast.remove(matchId);
+        synchronized (this) {
+            pending.remove(matchId);
+        }
     }
 
     /**
-     * Broadcast match status change
+     * Broadcast the entries of a league leaderboard that changed since the last
+     * broadcast for that league. Nothing is sent if the leaderboard is unchanged.
      */
-    public void broadcastMatchStatusChange(Long matchId, String oldStatus, String newStatus) {
-        matchRepository.findById(matchId).ifPresent(match -> {
-            MatchDTO matchDTO = convertToDTO(match);
-            messagingTemplate.convertAndSend("/topic/matches/status", matchDTO);
-            log.info("Broadcasted match status change for match {}: {} -> {}", matchId, oldStatus, newStatus);
-        });
+    public void broadcastLeagueLeaderboard(Long leagueId, List<LeaderboardEntryDTO> entries) {
+        // Deltas are only sent to league members, but still never publish member emails
+        List<LeaderboardEntryDTO> stripped = entries.stream()
+            .map(entry -> new LeaderboardEntryDTO(entry.getUserId(), null, entry.getScreenName(),
+                    entry.getTotalPoints(), entry.getPredictionCount(), entry.getPrizeAmount(), entry.getRank()))
+            .toList();
+        SentLeaderboard previous = lastLeaderboards.get(leagueId);
+        if (previous != null && previous.entries().equals(byUserId(stripped))) {
+            return;
+        }
+
+        LeaderboardState state = new LeaderboardState(leagueId, versionSequence.next(1)[0], stripped);
+        boolean sent;
+        synchronized (publishLock) {
+            sent = applyLeaderboard(state);
+        }
+        if (sent) {
+            relay(LEADERBOARD_STATE_EVENT, state);
+        }
+    }
+
+    /**
+     * Send the delta between a leaderboard state and the last one sent for its
+     * league, unless a newer version was sent already. Caller holds publishLock.
+     */
+    private boolean applyLeaderboard(LeaderboardState state) {
+        Long leagueId = state.leagueId();
+        SentLeaderboard sent = lastLeaderboards.get(leagueId);
+        if (sent != null && sent.version() >= state.version()) {
+            return false;
+        }
+        Map<Long, LeaderboardEntryDTO> current = byUserId(state.entries());
+        Map<Long, LeaderboardEntryDTO> previous = sent != null ? sent.entries() : Map.of();
+
+        List<LeaderboardEntryDTO> changed = current.values().stream()
+            .filter(entry -> !entry.equals(previous.get(entry.getUserId())))
+            .toList();
+        List<Long> removed = previous.keySet().stream()
+            .filter(userId -> !current.containsKey(userId))
+            .toList();
+        if (changed.isEmpty() && removed.isEmpty()) {
+            return false;
+        }
+
+        try {
+            LeaderboardDeltaDTO delta = new LeaderboardDeltaDTO(leagueId, state.version(), changed, removed);
+            sendLocal("/topic/leagues/" + leagueId + "/leaderboard", BroadcastFrame.of(objectMapper, delta));
+            lastLeaderboards.put(leagueId, new SentLeaderboard(current, state.version()));
+            log.debug("Broadcasted leaderboard delta for league {}: {} changed, {} removed",
+                    leagueId, changed.size(), removed.size());
+            return true;
+        } catch (Exception e) {
+            log.error("Error broadcasting leaderboard for league {}: {}", leagueId, e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private static Map<Long, LeaderboardEntryDTO> byUserId(List<LeaderboardEntryDTO> entries) {
+        return entries.stream()
+            .collect(Collectors.toMap(LeaderboardEntryDTO::getUserId, Function.identity(), (a, b) -> a, LinkedHashMap::new));
+    }
+
+    private void flushPending() {
+        List<MatchDTO> batch;
+        synchronized (this) {
+            flushScheduled = false;
+            batch = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        publish(batch);
+    }
+
+    /**
+     * Stamp the matches that changed with new versions, send their deltas to
+     * this node's clients and relay their full state to the other nodes.
+     */
+    private void publish(List<MatchDTO> matches) {
+        // Drop updates that turned out identical to what clients already have
+        List<MatchDTO> changed = matches.stream().filter(matchDTO -> !alreadySent(matchDTO)).toList();
+        if (changed.isEmpty()) {
+            return;
+        }
+        // Reserved outside the lock: with clustering this is a database round trip
+        long[] versions = versionSequence.next(changed.size());
+        List<MatchState> states = new ArrayList<>(changed.size());
+        for (int i = 0; i < changed.size(); i++) {
+            states.add(new MatchState(versions[i], changed.get(i)));
+        }
+
+        List<MatchState> sent;
+        synchronized (publishLock) {
+            sent = applyMatches(states);
+        }
+        if (!sent.isEmpty()) {
+            relay(MATCH_STATE_EVENT, sent);
+        }
+    }
+
+    /**
+     * Diff each match against what this node's clients last received and send
+     * the deltas: all of them as one batch frame, and each one to its match and
+     * day topics. States not newer than the last one sent are skipped.
+     * Caller holds publishLock. Returns the states that were sent.
+     */
+    private List<MatchState> applyMatches(List<MatchState> states) {
+        List<MatchDeltaDTO> deltas = new ArrayList<>();
+        List<MatchState> sent = new ArrayList<>();
+        for (MatchState state : states) {
+            MatchDTO matchDTO = state.match();
+            SentMatch last = lastBroadcast.get(matchDTO.id());
+            // A newer state was sent meanwhile (by another thread or node)
+            if (last != null && last.version() >= state.version()) {
+                continue;
+            }
+            MatchDTO previous = last != null ? last.match() : null;
+            if (matchDTO.equals(previous)) {
+                continue;
+            }
+            MatchDeltaDTO delta = MatchDeltaDTO.between(previous, matchDTO, state.version());
+
+            try {
+                BroadcastFrame frame = BroadcastFrame.of(objectMapper, delta);
+                sendLocal("/topic/matches/" + matchDTO.id(), frame);
+                sendLocal(dayTopic(matchDTO.matchDate()), frame);
+                // A rescheduled match must also leave the old day's view
+                if (previous != null && !sameDay(previous.matchDate(), matchDTO.matchDate())) {
+                    sendLocal(dayTopic(previous.matchDate()), frame);
+                }
+                lastBroadcast.put(matchDTO.id(), new SentMatch(matchDTO, state.version()));
+                deltas.add(delta);
+                sent.add(state);
+            } catch (Exception e) {
+                log.error("Error broadcasting update for match {}: {}", matchDTO.id(), e.getMessage(), e);
+            }
+        }
+
+        if (deltas.isEmpty()) {
+            return sent;
+        }
+
+        try {
+            BroadcastFrame batchFrame = BroadcastFrame.of(objectMapper, deltas);
+            sendLocal(MATCH_BATCH_TOPIC, batchFrame);
+            liveScoreStreamService.publish(batchFrame);
+            log.debug("Broadcasted batch of {} match delta(s)", deltas.size());
+        } catch (Exception e) {
+            log.error("Error broadcasting match batch: {}", e.getMessage(), e);
+        }
+        return sent;
+    }
+
+    private boolean alreadySent(MatchDTO matchDTO) {
+        SentMatch last = lastBroadcast.get(matchDTO.id());
+        return last != null && matchDTO.equals(last.match());
+    }
+
+    private void applyRelayedMatches(byte[] payload) {
+        try {
+            List<MatchState> states = objectMapper.readValue(payload, new TypeReference<List<MatchState>>() {});
+            synchronized (publishLock) {
+                applyMatches(states);
+            }
+        } catch (Exception e) {
+            log.error("Error applying relayed match state: {}", e.getMessage(), e);
+        }
+    }
+
+    private void applyRelayedLeaderboard(byte[] payload) {
+        try {
+            LeaderboardState state = objectMapper.readValue(payload, LeaderboardState.class);
+            synchronized (publishLock) {
+                applyLeaderboard(state);
+            }
+        } catch (Exception e) {
+            log.error("Error applying relayed leaderboard state: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Send state this node broadcast to the other nodes of the cluster.
+     */
+    private void relay(String event, Object state) {
+        if (!clusterFanoutService.isEnabled()) {
+            return;
+        }
+        try {
+            clusterFanoutService.publishEvent(event, objectMapper.writeValueAsBytes(state));
+        } catch (Exception e) {
+            log.error("Error relaying {} to the cluster: {}", event, e.getMessage(), e);
+        }
+    }
+
+    private static String dayTopic(LocalDateTime matchDate) {
+        return "/topic/matches/day/" + (matchDate != null ? matchDate.toLocalDate() : "unscheduled");
+    }
+
+    private static boolean sameDay(LocalDateTime a, LocalDateTime b) {
+        return Objects.equals(a != null ? a.toLocalDate() : null, b != null ? b.toLocalDate() : null);
     }
 
     /**
@@ -62,8 +380,50 @@ public class WebSocketService {
      * Uses Spring's user-specific messaging (automatically routes to /user/{username}/queue/notifications)
      */
     public void sendNotificationToUser(String username, Object notification) {
-        messagingTemplate.convertAndSendToUser(username, "/queue/notifications", notification);
+        sendFrameToUser(username, "/queue/notifications", BroadcastFrame.of(objectMapper, notification));
         log.debug("Sent notification to user {} via WebSocket", username);
     }
-}
 
+    /**
+     * Push the user's current unread notification count to /user/queue/unread-count
+     */
+    public void sendUnreadCountToUser(String username, long count) {
+        sendFrameToUser(username, "/queue/unread-count", BroadcastFrame.of(objectMapper, Map.of("count", count)));
+    }
+
+    /**
+     * Send a pre-serialized frame to a broker destination (no further conversion),
+     * locally and to the other nodes of the cluster.
+     */
+    public void sendFrame(String destination, BroadcastFrame frame) {
+        sendLocal(destination, frame);
+        clusterFanoutService.publish(destination, frame);
+    }
+
+    private void sendLocal(String destination, BroadcastFrame frame) {
+        messagingTemplate.send(destination, frame.message());
+    }
+
+    /**
+     * Send a pre-serialized frame to every session of one user, i.e. the
+     * equivalent of convertAndSendToUser (which also converts once per user,
+     * not per session) for a frame that already exists.
+     */
+    public void sendFrameToUser(String username, String destination, BroadcastFrame frame) {
+        String userPrefix = messagingTemplate.getUserDestinationPrefix();
+        sendFrame(userPrefix + StringUtils.replace(username, "/", "%2F") + destination, frame);
+    }
+
+    private record SentMatch(MatchDTO match, long version) {
+    }
+
+    private record SentLeaderboard(Map<Long, LeaderboardEntryDTO> entries, long version) {
+    }
+
+    // Relayed between nodes as JSON
+    record MatchState(long version, MatchDTO match) {
+    }
+
+    record LeaderboardState(Long leagueId, long version, List<LeaderboardEntryDTO> entries) {
+    }
+}
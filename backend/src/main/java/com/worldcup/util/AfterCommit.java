@@ -0,0 +1,34 @@
+package com.worldcup.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers in-memory side effects of a database change (index, cache and timer
+ * updates) until the change is committed, so a rolled-back transaction never
+ * leaves them behind.
+ */
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    /**
+     * Run action after the current transaction commits, or right away when no
+     * transaction synchronization is active. Synchronization, not an actual
+     * transaction, is what decides: in a SUPPORTS scope without a transaction
+     * the action still waits for the scope to complete.
+     */
+    public static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
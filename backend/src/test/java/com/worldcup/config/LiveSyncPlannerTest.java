@@ -0,0 +1,112 @@
+package com.worldcup.config;
+
+import com.worldcup.entity.Match;
+import com.worldcup.entity.MatchStatus;
+import com.worldcup.repository.MatchRepository;
+import com.worldcup.service.FootballApiService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LiveSyncPlannerTest {
+
+    private FootballApiSyncScheduler syncScheduler;
+    private MatchRepository matchRepository;
+    private ScheduledJobLockAspect jobLocks;
+    private LiveSyncPlanner planner;
+
+    @BeforeEach
+    void setUp() {
+        syncScheduler = mock(FootballApiSyncScheduler.class);
+        matchRepository = mock(MatchRepository.class);
+        jobLocks = mock(ScheduledJobLockAspect.class);
+        FootballApiService footballApiService = mock(FootballApiService.class);
+        when(footballApiService.getCompetitionIds()).thenReturn(List.of("2000"));
+        when(footballApiService.getPrimaryCompetitionId()).thenReturn("2000");
+
+        planner = new LiveSyncPlanner(syncScheduler, matchRepository, footballApiService,
+                new SimpleMeterRegistry(), jobLocks, 2);
+        ReflectionTestUtils.setField(planner, "apiEnabled", true);
+        ReflectionTestUtils.setField(planner, "preKickoff", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(planner, "liveWindow", Duration.ofMinutes(150));
+        ReflectionTestUtils.setField(planner, "minDuration", Duration.ofMinutes(105));
+        ReflectionTestUtils.setField(planner, "confirmWindow", Duration.ofHours(4));
+        ReflectionTestUtils.setField(planner, "confirmInterval", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(planner, "fallbackInterval", Duration.ofMinutes(30));
+        ReflectionTestUtils.setField(planner, "minLiveInterval", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(planner, "liveBudgetShare", 0.5);
+        ReflectionTestUtils.setField(planner, "requestsPerMinute", 10);
+        ReflectionTestUtils.setField(planner, "planRefresh", Duration.ofMinutes(5));
+
+        // Three hours after kickoff: past the live window, awaiting confirmation
+        Match match = new Match();
+        match.setExternalApiId("recent");
+        match.setCompetitionId("2000");
+        match.setStatus(MatchStatus.FINISHED);
+        match.setMatchDate(LocalDateTime.now(ZoneOffset.UTC).minusHours(3));
+        when(matchRepository.findByMatchDateBetween(any(), any())).thenReturn(List.of(match));
+    }
+
+    @AfterEach
+    void tearDown() {
+        planner.shutdown();
+    }
+
+    @Test
+    void confirmedMatchesOutsideLookbackArePruned() throws InterruptedException {
+        when(jobLocks.beginWork(LiveSyncPlanner.LOCK_NAME)).thenReturn(true);
+        when(jobLocks.holds(LiveSyncPlanner.LOCK_NAME)).thenReturn(true);
+        // The API also reports a match that kicked off before the planner's window
+        when(syncScheduler.syncFinishedMatches("2000")).thenReturn(Set.of("recent", "two-days-ago"));
+
+        planner.tick();
+        verify(jobLocks, timeout(2000)).endWork(LiveSyncPlanner.LOCK_NAME);
+        assertThat(confirmedFinished()).containsExactlyInAnyOrder("recent", "two-days-ago");
+
+        // The confirmation forces a re-plan, which drops what the window no longer holds
+        planner.tick();
+        assertThat(confirmedFinished()).containsExactly("recent");
+    }
+
+    @Test
+    void syncsAreNotStartedWithoutTheLease() throws InterruptedException {
+        when(jobLocks.beginWork(LiveSyncPlanner.LOCK_NAME)).thenReturn(false);
+
+        planner.tick();
+        Thread.sleep(100);
+        verify(syncScheduler, never()).syncFinishedMatches(anyString());
+        verify(jobLocks, never()).endWork(anyString());
+    }
+
+    @Test
+    void queuedSyncIsSkippedOnceTheLeaseIsLost() {
+        when(jobLocks.beginWork(LiveSyncPlanner.LOCK_NAME)).thenReturn(true);
+        when(jobLocks.holds(LiveSyncPlanner.LOCK_NAME)).thenReturn(false);
+
+        planner.tick();
+        verify(jobLocks, timeout(2000)).endWork(LiveSyncPlanner.LOCK_NAME);
+        verify(syncScheduler, never()).syncFinishedMatches(anyString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<String> confirmedFinished() {
+        return (Set<String>) ReflectionTestUtils.getField(planner, "confirmedFinished");
+    }
+}
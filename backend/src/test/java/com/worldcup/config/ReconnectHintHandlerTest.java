@@ -0,0 +1,139 @@
+package com.worldcup.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompDecoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.messaging.StompSubProtocolHandler;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs a STOMP CONNECT through StompSubProtocolHandler and the simple broker,
+ * the way a socket's frames travel, and compares the CONNECTED frame the
+ * interceptor builds with the one Spring builds on its own.
+ */
+class ReconnectHintHandlerTest {
+
+    private final ReconnectHintHandler handler = new ReconnectHintHandler();
+    private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(handler, "baseDelayMs", 1000L);
+        ReflectionTestUtils.setField(handler, "jitterMs", 500L);
+        scheduler.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void connectedFrameMatchesSpringsPlusTheReconnectHint() throws Exception {
+        Map<String, List<String>> hinted = assertSpringsFramePlusHint(
+                "CONNECT\naccept-version:1.1,1.2\nheart-beat:10000,10000\n\n\0");
+
+        assertThat(hinted).containsEntry("version", List.of("1.2")).containsEntry("heart-beat", List.of("10000,10000"));
+        assertThat(Long.parseLong(hinted.get(ReconnectHintHandler.RECONNECT_DELAY_HEADER).get(0)))
+                .isBetween(1000L, 1500L);
+    }
+
+    @Test
+    void olderVersionWithoutHeartbeatsMatchesSpringsToo() throws Exception {
+        Map<String, List<String>> hinted = assertSpringsFramePlusHint("CONNECT\naccept-version:1.0,1.1\n\n\0");
+
+        assertThat(hinted).containsEntry("version", List.of("1.1"));
+    }
+
+    @Test
+    void unsupportedVersionIsLeftToSpring() throws Exception {
+        String connect = "CONNECT\naccept-version:2.0\n\n\0";
+
+        Map<String, List<String>> spring = connected(connect, false);
+        Map<String, List<String>> hinted = connected(connect, true);
+
+        assertThat(spring).containsEntry("command", List.of("ERROR"));
+        assertThat(hinted).containsEntry("command", List.of("ERROR"))
+                .doesNotContainKey(ReconnectHintHandler.RECONNECT_DELAY_HEADER);
+    }
+
+    private Map<String, List<String>> assertSpringsFramePlusHint(String connect) throws Exception {
+        Map<String, List<String>> spring = connected(connect, false);
+        Map<String, List<String>> hinted = connected(connect, true);
+
+        assertThat(spring).containsEntry("command", List.of("CONNECTED"))
+                .doesNotContainKey(ReconnectHintHandler.RECONNECT_DELAY_HEADER);
+        Map<String, List<String>> withoutHint = new HashMap<>(hinted);
+        withoutHint.remove(ReconnectHintHandler.RECONNECT_DELAY_HEADER);
+        assertThat(withoutHint).isEqualTo(spring);
+        assertThat(hinted).containsKey(ReconnectHintHandler.RECONNECT_DELAY_HEADER);
+        return hinted;
+    }
+
+    /**
+     * Native headers of the frame written to the socket in answer to the given
+     * CONNECT, with or without the interceptor on the outbound channel.
+     */
+    private Map<String, List<String>> connected(String connect, boolean withInterceptor) throws Exception {
+        ExecutorSubscribableChannel inbound = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel outbound = new ExecutorSubscribableChannel();
+        if (withInterceptor) {
+            outbound.addInterceptor(handler.connectedInterceptor());
+        }
+        SimpleBrokerMessageHandler broker = new SimpleBrokerMessageHandler(
+                inbound, outbound, new ExecutorSubscribableChannel(), List.of("/topic"));
+        broker.setTaskScheduler(scheduler);
+        broker.setHeartbeatValue(new long[] {10000, 10000});
+        broker.start();
+
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn("s1");
+        when(session.isOpen()).thenReturn(true);
+        when(session.getAttributes()).thenReturn(new HashMap<>());
+        StompSubProtocolHandler stomp = new StompSubProtocolHandler();
+        StringBuilder sent = new StringBuilder();
+        doAnswer(invocation -> {
+            sent.append(((WebSocketMessage<?>) invocation.getArgument(0)).getPayload());
+            return null;
+        }).when(session).sendMessage(any());
+        outbound.subscribe(message -> stomp.handleMessageToClient(session, message));
+
+        try {
+            stomp.afterSessionStarted(session, inbound);
+            stomp.handleMessageFromClient(session, new TextMessage(connect), inbound);
+        } finally {
+            broker.stop();
+        }
+
+        List<Message<byte[]>> frames = new StompDecoder()
+                .decode(ByteBuffer.wrap(sent.toString().getBytes(StandardCharsets.UTF_8)));
+        assertThat(frames).hasSize(1);
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(frames.get(0));
+        assertThat(accessor.getCommand()).isIn(StompCommand.CONNECTED, StompCommand.ERROR);
+        Map<String, List<String>> headers = new HashMap<>(accessor.toNativeHeaderMap());
+        headers.put("command", List.of(accessor.getCommand().name()));
+        return headers;
+    }
+}
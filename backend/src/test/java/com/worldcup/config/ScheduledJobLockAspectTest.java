@@ -0,0 +1,70 @@
+package com.worldcup.config;
+
+import com.worldcup.repository.ScheduledJobLockRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ScheduledJobLockAspectTest {
+
+    private static final String JOB = LiveSyncPlanner.LOCK_NAME;
+
+    private ScheduledJobLockRepository lockRepository;
+    private ScheduledJobLockAspect aspect;
+    private ScheduledJobLock lock;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        lockRepository = mock(ScheduledJobLockRepository.class);
+        aspect = new ScheduledJobLockAspect(lockRepository, new MockEnvironment(), new SimpleMeterRegistry(), true, "node-a");
+        lock = LiveSyncPlanner.class.getMethod("tick").getAnnotation(ScheduledJobLock.class);
+    }
+
+    @Test
+    void runWithoutOpenWorkShortensLease() throws Throwable {
+        when(lockRepository.tryLock(eq(JOB), eq("node-a"), any(), any())).thenReturn(true);
+
+        aspect.runLocked(mock(ProceedingJoinPoint.class), lock);
+
+        verify(lockRepository).release(eq(JOB), eq("node-a"), any());
+    }
+
+    @Test
+    void leaseIsKeptWhileWorkIsOpen() throws Throwable {
+        when(lockRepository.tryLock(eq(JOB), eq("node-a"), any(), any())).thenReturn(true);
+        ProceedingJoinPoint handsOffWork = mock(ProceedingJoinPoint.class);
+        when(handsOffWork.proceed()).thenAnswer(invocation -> aspect.beginWork(JOB));
+
+        aspect.runLocked(handsOffWork, lock);
+        verify(lockRepository, never()).release(anyString(), anyString(), any());
+        assertThat(aspect.holds(JOB)).isTrue();
+
+        // Once the work is done, the next run shortens the lease again
+        aspect.endWork(JOB);
+        aspect.runLocked(mock(ProceedingJoinPoint.class), lock);
+        verify(lockRepository).release(eq(JOB), eq("node-a"), any());
+    }
+
+    @Test
+    void workCannotBeginWithoutTheLease() throws Throwable {
+        when(lockRepository.tryLock(eq(JOB), eq("node-a"), any(), any())).thenReturn(false);
+        ProceedingJoinPoint job = mock(ProceedingJoinPoint.class);
+
+        aspect.runLocked(job, lock);
+
+        verify(job, never()).proceed();
+        assertThat(aspect.holds(JOB)).isFalse();
+        assertThat(aspect.beginWork(JOB)).isFalse();
+    }
+}
@@ -0,0 +1,77 @@
+package com.worldcup.config;
+
+import com.worldcup.repository.LeagueMembershipRepository;
+import com.worldcup.security.CustomUserDetailsService;
+import com.worldcup.security.JwtTokenProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.security.Principal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class WebSocketAuthInterceptorTest {
+
+    private LeagueMembershipRepository membershipRepository;
+    private WebSocketAuthInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        membershipRepository = mock(LeagueMembershipRepository.class);
+        interceptor = new WebSocketAuthInterceptor(mock(JwtTokenProvider.class), mock(CustomUserDetailsService.class),
+                membershipRepository, new SimpleMeterRegistry(), 4, 10);
+    }
+
+    @Test
+    void memberMaySubscribeToLeaderboard() {
+        when(membershipRepository.existsByLeagueIdAndUserEmail(7L, "ann@example.com")).thenReturn(true);
+        Message<byte[]> subscribe = subscribe("/topic/leagues/7/leaderboard", user("ann@example.com"));
+
+        assertThat(interceptor.preSend(subscribe, null)).isSameAs(subscribe);
+    }
+
+    @Test
+    void nonMemberIsRejected() {
+        when(membershipRepository.existsByLeagueIdAndUserEmail(7L, "bob@example.com")).thenReturn(false);
+
+        assertThatThrownBy(() -> interceptor.preSend(subscribe("/topic/leagues/7/leaderboard", user("bob@example.com")), null))
+            .isInstanceOf(MessageDeliveryException.class);
+    }
+
+    @Test
+    void anonymousIsRejected() {
+        assertThatThrownBy(() -> interceptor.preSend(subscribe("/topic/leagues/7/leaderboard", null), null))
+            .isInstanceOf(MessageDeliveryException.class);
+    }
+
+    @Test
+    void publicTopicsNeedNoMembership() {
+        Message<byte[]> subscribe = subscribe("/topic/matches/batch", null);
+
+        assertThat(interceptor.preSend(subscribe, null)).isSameAs(subscribe);
+        verifyNoInteractions(membershipRepository);
+    }
+
+    private static Principal user(String email) {
+        return new UsernamePasswordAuthenticationToken(email, null);
+    }
+
+    private static Message<byte[]> subscribe(String destination, Principal user) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setDestination(destination);
+        accessor.setUser(user);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
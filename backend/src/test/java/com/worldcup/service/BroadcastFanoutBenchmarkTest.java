@@ -0,0 +1,208 @@
+package com.worldcup.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.worldcup.dto.MatchDTO;
+import com.worldcup.dto.MatchDeltaDTO;
+import com.worldcup.entity.MatchStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Match broadcasts through the simple broker, as converted payloads
+ * (convertAndSend per destination, the path before BroadcastFrame) and as
+ * BroadcastFrames. Every delivered frame is STOMP-encoded the way
+ * StompSubProtocolHandler does before it is written to a socket; sockets
+ * themselves are not involved.
+ *
+ * The frames/sec benchmark at 10k and 50k sessions runs only with
+ * -Dbroadcast.benchmark=true, e.g.
+ * mvn test -Dtest=BroadcastFanoutBenchmarkTest -Dbroadcast.benchmark=true
+ */
+@Slf4j
+class BroadcastFanoutBenchmarkTest {
+
+    // Deltas per batch, roughly one live-sync pass during a busy matchday
+    private static final int DELTAS_PER_BATCH = 4;
+    private static final LocalDateTime KICKOFF = LocalDateTime.of(2026, 6, 20, 18, 0);
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    void framesCarryTheSameBytesAsConvertedPayloads() {
+        Broker converted = new Broker(200, objectMapper, true);
+        Broker framed = new Broker(200, objectMapper, true);
+        List<MatchDeltaDTO> deltas = deltas(1);
+
+        converted.sendConverted(deltas);
+        framed.sendFrames(deltas);
+
+        assertThat(framed.delivered).isEqualTo(converted.delivered).isPositive();
+        assertThat(framed.payloads).isEqualTo(converted.payloads);
+    }
+
+    @Test
+    void framesPerSecondAt10kAnd50kSessions() {
+        Assumptions.assumeTrue(Boolean.getBoolean("broadcast.benchmark"), "Run with -Dbroadcast.benchmark=true");
+
+        for (int sessions : new int[] {10_000, 50_000}) {
+            Broker broker = new Broker(sessions, objectMapper, false);
+            framesPerSecond(broker, false);
+            framesPerSecond(broker, true);
+            // Interleaved, best of five, so JIT and GC do not favour whichever runs last
+            double before = 0;
+            double after = 0;
+            for (int round = 0; round < 5; round++) {
+                before = Math.max(before, framesPerSecond(broker, false));
+                after = Math.max(after, framesPerSecond(broker, true));
+            }
+            log.info("{} sessions: {} frames/s converted, {} frames/s BroadcastFrame ({}%)",
+                    sessions, Math.round(before), Math.round(after), Math.round((after / before - 1) * 100));
+        }
+    }
+
+    private double framesPerSecond(Broker broker, boolean frames) {
+        int batches = 40;
+        broker.delivered = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < batches; i++) {
+            List<MatchDeltaDTO> deltas = deltas(i + 1);
+            if (frames) {
+                broker.sendFrames(deltas);
+            } else {
+                broker.sendConverted(deltas);
+            }
+        }
+        return broker.delivered / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static List<MatchDeltaDTO> deltas(long version) {
+        List<MatchDeltaDTO> deltas = new ArrayList<>();
+        for (long id = 1; id <= DELTAS_PER_BATCH; id++) {
+            MatchDTO before = match(id, (int) version - 1);
+            MatchDTO after = match(id, (int) version);
+            deltas.add(MatchDeltaDTO.between(id % 2 == 0 ? null : before, after, version * 100 + id));
+        }
+        return deltas;
+    }
+
+    private static MatchDTO match(long id, int homeScore) {
+        return new MatchDTO(id, "Sweden", "https://crests.test/se.svg", "Norway", "https://crests.test/no.svg",
+                KICKOFF, "Friends Arena", "Group F", MatchStatus.LIVE, homeScore, 0);
+    }
+
+    private static String dayTopic() {
+        return "/topic/matches/day/" + KICKOFF.toLocalDate();
+    }
+
+    /**
+     * A SimpleBrokerMessageHandler with the given number of subscribed sessions:
+     * all on the batch topic, a quarter also on the day topic and one in twenty
+     * also on a match topic.
+     */
+    private static final class Broker {
+
+        final SimpMessagingTemplate template;
+        final ObjectMapper objectMapper;
+        final Map<String, List<String>> payloads = new ConcurrentHashMap<>();
+        final StompEncoder encoder = new StompEncoder();
+        long delivered;
+
+        Broker(int sessions, ObjectMapper objectMapper, boolean recordPayloads) {
+            this.objectMapper = objectMapper;
+            ExecutorSubscribableChannel inbound = new ExecutorSubscribableChannel();
+            ExecutorSubscribableChannel outbound = new ExecutorSubscribableChannel();
+            ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+            outbound.subscribe(message -> {
+                if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+                    return;
+                }
+                encode(message);
+                delivered++;
+                if (recordPayloads) {
+                    payloads.computeIfAbsent(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()),
+                            session -> new ArrayList<>()).add(new String((byte[]) message.getPayload()));
+                }
+            });
+
+            SimpleBrokerMessageHandler broker = new SimpleBrokerMessageHandler(
+                    inbound, outbound, brokerChannel, List.of("/topic", "/queue"));
+            broker.start();
+            for (int i = 0; i < sessions; i++) {
+                String session = "s" + i;
+                // The broker only delivers to sessions it saw connect
+                broker.handleMessage(message(SimpMessageType.CONNECT, session, null, null));
+                subscribe(broker, session, "batch", WebSocketService.MATCH_BATCH_TOPIC);
+                if (i % 4 == 0) {
+                    subscribe(broker, session, "day", dayTopic());
+                }
+                if (i % 20 == 0) {
+                    subscribe(broker, session, "match", "/topic/matches/" + (i / 20 % DELTAS_PER_BATCH + 1));
+                }
+            }
+
+            MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+            converter.setObjectMapper(objectMapper);
+            template = new SimpMessagingTemplate(brokerChannel);
+            template.setMessageConverter(converter);
+        }
+
+        // Before: every destination converts (serializes) the payload again
+        void sendConverted(List<MatchDeltaDTO> deltas) {
+            for (MatchDeltaDTO delta : deltas) {
+                template.convertAndSend("/topic/matches/" + delta.getId(), delta);
+                template.convertAndSend(dayTopic(), delta);
+            }
+            template.convertAndSend(WebSocketService.MATCH_BATCH_TOPIC, deltas);
+        }
+
+        // After: one serialization per payload, shared by its destinations
+        void sendFrames(List<MatchDeltaDTO> deltas) {
+            for (MatchDeltaDTO delta : deltas) {
+                BroadcastFrame frame = BroadcastFrame.of(objectMapper, delta);
+                template.send("/topic/matches/" + delta.getId(), frame.message());
+                template.send(dayTopic(), frame.message());
+            }
+            template.send(WebSocketService.MATCH_BATCH_TOPIC, BroadcastFrame.of(objectMapper, deltas).message());
+        }
+
+        private void encode(Message<?> message) {
+            StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+            accessor.updateStompCommandAsServerMessage();
+            encoder.encode(accessor.getMessageHeaders(), (byte[]) message.getPayload());
+        }
+
+        private static void subscribe(SimpleBrokerMessageHandler broker, String session, String id,
+                                      String destination) {
+            broker.handleMessage(message(SimpMessageType.SUBSCRIBE, session, id, destination));
+        }
+
+        private static Message<byte[]> message(SimpMessageType type, String session, String subscription,
+                                               String destination) {
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(type);
+            accessor.setSessionId(session);
+            accessor.setSubscriptionId(subscription);
+            accessor.setDestination(destination);
+            return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.worldcup.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.worldcup.dto.LeaderboardEntryDTO;
+import com.worldcup.dto.MatchDTO;
+import com.worldcup.entity.Match;
+import com.worldcup.entity.MatchStatus;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Broadcasts between two backend nodes sharing one PostgreSQL database
+ * (see TwoNodeCluster for where the database comes from).
+ */
+class ClusterBroadcastIntegrationTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private static TwoNodeCluster cluster;
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+    private static final BlockingQueue<JsonNode> framesA = new LinkedBlockingQueue<>();
+    private static final BlockingQueue<JsonNode> framesB = new LinkedBlockingQueue<>();
+
+    @BeforeAll
+    static void startNodes() throws Exception {
+        cluster = TwoNodeCluster.start();
+        nodeA = cluster.nodeA();
+        nodeB = cluster.nodeB();
+        recordFrames(nodeA, framesA);
+        recordFrames(nodeB, framesB);
+    }
+
+    @AfterAll
+    static void stopNodes() throws Exception {
+        if (cluster != null) {
+            cluster.close();
+        }
+    }
+
+    @Test
+    void versionsIncreaseAcrossNodes() {
+        BroadcastVersionSequence a = nodeA.getBean(BroadcastVersionSequence.class);
+        BroadcastVersionSequence b = nodeB.getBean(BroadcastVersionSequence.class);
+
+        long last = 0;
+        for (int i = 0; i < 20; i++) {
+            long[] reserved = (i % 2 == 0 ? a : b).next(3);
+            for (long version : reserved) {
+                assertThat(version).isGreaterThan(last);
+                last = version;
+            }
+        }
+    }
+
+    @Test
+    void relayedMatchStateIsDiffedAgainstEachNodesOwnBase() throws Exception {
+        WebSocketService a = nodeA.getBean(WebSocketService.class);
+        WebSocketService b = nodeB.getBean(WebSocketService.class);
+        Match match = match(900_001L);
+
+        // A kicks off: both nodes' clients get the whole match
+        a.broadcastMatchStatusChange(match, "SCHEDULED", "LIVE");
+        JsonNode kickoffOnA = awaitDelta(framesA, match.getId());
+        JsonNode kickoffOnB = awaitDelta(framesB, match.getId());
+        assertThat(kickoffOnB.get("version").asLong()).isEqualTo(kickoffOnA.get("version").asLong());
+        assertThat(kickoffOnB.has("homeTeam")).isTrue();
+        assertThat(kickoffOnB.get("status").asText()).isEqualTo("LIVE");
+
+        // B scores: B already holds A's state, so both nodes send only the score
+        match.setHomeScore(1);
+        b.broadcastMatchStatusChange(match, "LIVE", "LIVE");
+        JsonNode goalOnB = awaitDelta(framesB, match.getId());
+        JsonNode goalOnA = awaitDelta(framesA, match.getId());
+        assertThat(fieldNames(goalOnB)).containsExactlyInAnyOrder("id", "version", "homeScore");
+        assertThat(fieldNames(goalOnA)).containsExactlyInAnyOrder("id", "version", "homeScore");
+        assertThat(goalOnA.get("version").asLong())
+            .isEqualTo(goalOnB.get("version").asLong())
+            .isGreaterThan(kickoffOnA.get("version").asLong());
+    }
+
+    @Test
+    void staleRelayedStateIsIgnored() throws Exception {
+        WebSocketService a = nodeA.getBean(WebSocketService.class);
+        ClusterFanoutService fanoutA = nodeA.getBean(ClusterFanoutService.class);
+        Match match = match(900_002L);
+
+        a.broadcastMatchStatusChange(match, "SCHEDULED", "LIVE");
+        long current = awaitDelta(framesB, match.getId()).get("version").asLong();
+        awaitDelta(framesA, match.getId());
+
+        // An older state arriving late (e.g. from a slow node) must not roll B back
+        Match older = match(900_002L);
+        WebSocketService.MatchState stale = new WebSocketService.MatchState(current - 1,
+                new MatchDTO(older.getId(), older.getHomeTeam(), null, older.getAwayTeam(), null,
+                        older.getMatchDate(), older.getVenue(), older.getGroup(), older.getStatus(), 5, 0));
+        fanoutA.publishEvent(WebSocketService.MATCH_STATE_EVENT,
+                nodeA.getBean(ObjectMapper.class).writeValueAsBytes(List.of(stale)));
+
+        // A newer one is applied, and only that one reaches B's clients
+        match.setAwayScore(1);
+        a.broadcastMatchStatusChange(match, "LIVE", "LIVE");
+        JsonNode next = awaitDelta(framesB, match.getId());
+        assertThat(fieldNames(next)).containsExactlyInAnyOrder("id", "version", "awayScore");
+        assertThat(framesB.poll(500, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void relayedLeaderboardIsDiffedAgainstEachNodesOwnBase() throws Exception {
+        WebSocketService a = nodeA.getBean(WebSocketService.class);
+        WebSocketService b = nodeB.getBean(WebSocketService.class);
+        long leagueId = 900_003L;
+        LeaderboardEntryDTO first = new LeaderboardEntryDTO(1L, "ann@example.com", "Ann", 10, 3, null, 1);
+        LeaderboardEntryDTO second = new LeaderboardEntryDTO(2L, "bob@example.com", "Bob", 4, 3, null, 2);
+
+        a.broadcastLeagueLeaderboard(leagueId, List.of(first));
+        JsonNode initialOnB = awaitFrame(framesB, frame -> frame.path("leagueId").asLong() == leagueId);
+        assertThat(initialOnB.get("changed")).hasSize(1);
+        assertThat(initialOnB.get("changed").get(0).get("email").isNull()).isTrue();
+        awaitFrame(framesA, frame -> frame.path("leagueId").asLong() == leagueId);
+
+        b.broadcastLeagueLeaderboard(leagueId, List.of(first, second));
+        JsonNode updateOnA = awaitFrame(framesA, frame -> frame.path("leagueId").asLong() == leagueId);
+        assertThat(updateOnA.get("changed")).hasSize(1);
+        assertThat(updateOnA.get("changed").get(0).get("userId").asLong()).isEqualTo(2L);
+    }
+
+    private static void recordFrames(ConfigurableApplicationContext context, BlockingQueue<JsonNode> frames) {
+        // Record what this node sends to its own clients on the topics under test
+        context.getBean("brokerChannel", AbstractSubscribableChannel.class).addInterceptor(new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+                if (destination != null && (destination.equals(WebSocketService.MATCH_BATCH_TOPIC)
+                        || destination.endsWith("/leaderboard")) && message.getPayload() instanceof byte[] bytes) {
+                    try {
+                        JsonNode payload = JSON.readTree(new String(bytes, StandardCharsets.UTF_8));
+                        if (payload.isArray()) {
+                            payload.forEach(frames::add);
+                        } else {
+                            frames.add(payload);
+                        }
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                return message;
+            }
+        });
+    }
+
+    private static Match match(long id) {
+        Match match = new Match();
+        match.setId(id);
+        match.setHomeTeam("Sweden");
+        match.setAwayTeam("Norway");
+        match.setMatchDate(LocalDateTime.of(2026, 6, 20, 18, 0));
+        match.setVenue("Friends Arena");
+        match.setGroup("Group F");
+        match.setStatus(MatchStatus.LIVE);
+        match.setHomeScore(0);
+        match.setAwayScore(0);
+        return match;
+    }
+
+    private static JsonNode awaitDelta(BlockingQueue<JsonNode> frames, long matchId) throws InterruptedException {
+        return awaitFrame(frames, frame -> frame.path("id").asLong() == matchId && frame.has("version")
+                && !frame.has("leagueId"));
+    }
+
+    private static JsonNode awaitFrame(BlockingQueue<JsonNode> frames,
+                                       Predicate<JsonNode> wanted) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            JsonNode frame = frames.poll(100, TimeUnit.MILLISECONDS);
+            if (frame != null && wanted.test(frame)) {
+                return frame;
+            }
+        }
+        throw new AssertionError("No matching frame within 10s");
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        Iterator<String> it = node.fieldNames();
+        it.forEachRemaining(names::add);
+        return names;
+    }
+}
@@ -0,0 +1,130 @@
+package com.worldcup.service;
+
+import com.worldcup.entity.Match;
+import com.worldcup.entity.MatchStatus;
+import com.worldcup.entity.Notification;
+import com.worldcup.entity.User;
+import com.worldcup.repository.MatchRepository;
+import com.worldcup.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * In-memory caches on one node follow writes committed on another
+ * (see TwoNodeCluster for where the database comes from).
+ */
+class ClusterCacheInvalidationIntegrationTest {
+
+    private static TwoNodeCluster cluster;
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+    private static String competitionId;
+
+    @BeforeAll
+    static void startNodes() throws Exception {
+        cluster = TwoNodeCluster.start();
+        nodeA = cluster.nodeA();
+        nodeB = cluster.nodeB();
+        competitionId = nodeB.getEnvironment().getProperty("football.api.competition-id");
+    }
+
+    @AfterAll
+    static void stopNodes() throws Exception {
+        if (cluster != null) {
+            cluster.close();
+        }
+    }
+
+    @Test
+    void externalIdIndexFollowsMatchesSavedOnAnotherNode() {
+        MatchRepository repositoryA = nodeA.getBean(MatchRepository.class);
+        MatchExternalIdIndex indexB = nodeB.getBean(MatchExternalIdIndex.class);
+
+        Match saved = repositoryA.save(match("it-index", "Group Y", MatchStatus.FINISHED, 2, 1));
+        await(() -> indexB.get(competitionId, "it-index") != null);
+        assertThat(indexB.get(competitionId, "it-index").matchId()).isEqualTo(saved.getId());
+
+        repositoryA.delete(saved);
+        await(() -> indexB.get(competitionId, "it-index") == null);
+    }
+
+    @Test
+    void standingsFollowResultsSavedOnAnotherNode() {
+        LocalStandingsService standingsB = nodeB.getBean(LocalStandingsService.class);
+        assertThat(standingsB.getStandings()).noneMatch(table -> "Group Z".equals(table.group));
+
+        nodeA.getBean(MatchRepository.class).save(match("it-standings", "Group Z", MatchStatus.FINISHED, 3, 0));
+
+        await(() -> standingsB.getStandings().stream().anyMatch(table -> "Group Z".equals(table.group)));
+    }
+
+    @Test
+    void transitionTimerFollowsMatchesScheduledOnAnotherNode() {
+        MeterRegistry registryB = nodeB.getBean(MeterRegistry.class);
+        double before = registryB.get("match.transitions.pending").gauge().value();
+
+        Match upcoming = match("it-timer", "Group X", MatchStatus.SCHEDULED, null, null);
+        upcoming.setMatchDate(LocalDateTime.now().plusDays(3));
+        nodeA.getBean(MatchRepository.class).save(upcoming);
+
+        // Kickoff and full-time events
+        await(() -> registryB.get("match.transitions.pending").gauge().value() == before + 2);
+    }
+
+    @Test
+    void unreadCountFollowsNotificationsSentOnAnotherNode() {
+        User user = new User();
+        user.setEmail("cluster-it@example.com");
+        user.setPassword("secret-password");
+        user.setCreatedAt(LocalDateTime.now());
+        user = nodeA.getBean(UserRepository.class).save(user);
+
+        NotificationService notificationsB = nodeB.getBean(NotificationService.class);
+        assertThat(notificationsB.getUnreadCount(user)).isZero();
+
+        nodeA.getBean(NotificationService.class).sendNotification(user, Notification.NotificationType.MATCH_RESULT,
+                "Result", "Sweden 3-0 Norway", null, null);
+
+        User recipient = user;
+        await(() -> notificationsB.getUnreadCount(recipient) == 1);
+    }
+
+    private static Match match(String externalApiId, String group, MatchStatus status, Integer home, Integer away) {
+        Match match = new Match();
+        match.setHomeTeam("Sweden");
+        match.setAwayTeam("Norway");
+        match.setMatchDate(LocalDateTime.of(2026, 6, 20, 18, 0));
+        match.setVenue("Friends Arena");
+        match.setGroup(group);
+        match.setStatus(status);
+        match.setHomeScore(home);
+        match.setAwayScore(away);
+        match.setExternalApiId(externalApiId);
+        match.setCompetitionId(competitionId);
+        return match;
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.getAsBoolean()) {
+                return;
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+        throw new AssertionError("Condition not met within 10s");
+    }
+}
@@ -0,0 +1,97 @@
+package com.worldcup.service;
+
+import com.worldcup.exception.FootballApiUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FootballApiCircuitBreakerTest {
+
+    private static final IOException DOWN = new IOException("Connection refused");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void opensAfterThresholdConsecutiveFailures() {
+        FootballApiCircuitBreaker breaker = breaker(Duration.ofMinutes(1), Duration.ofMinutes(5));
+
+        breaker.onFailure(DOWN);
+        breaker.onFailure(DOWN);
+        breaker.onSuccess();
+        breaker.onFailure(DOWN);
+        breaker.onFailure(DOWN);
+        assertThat(breaker.getState()).isEqualTo(FootballApiCircuitBreaker.State.CLOSED);
+        breaker.acquirePermission();
+
+        breaker.onFailure(DOWN);
+
+        assertThat(breaker.getState()).isEqualTo(FootballApiCircuitBreaker.State.OPEN);
+        assertThatThrownBy(breaker::acquirePermission).isInstanceOf(FootballApiUnavailableException.class);
+        assertThat(meterRegistry.get("football.api.circuit.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void halfOpenLetsOneProbeThroughAndClosesOnSuccess() throws InterruptedException {
+        FootballApiCircuitBreaker breaker = opened(Duration.ofMillis(100), Duration.ofSeconds(1));
+        Thread.sleep(150);
+
+        breaker.acquirePermission();
+        assertThat(breaker.getState()).isEqualTo(FootballApiCircuitBreaker.State.HALF_OPEN);
+        assertThatThrownBy(breaker::acquirePermission).isInstanceOf(FootballApiUnavailableException.class);
+
+        breaker.onSuccess();
+
+        assertThat(breaker.getState()).isEqualTo(FootballApiCircuitBreaker.State.CLOSED);
+        breaker.acquirePermission();
+        assertThat(meterRegistry.get("football.api.circuit.transitions").tag("to", "CLOSED").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void failedProbeReopensForTwiceAsLong() throws InterruptedException {
+        FootballApiCircuitBreaker breaker = opened(Duration.ofMillis(200), Duration.ofSeconds(5));
+        Thread.sleep(250);
+        breaker.acquirePermission();
+
+        breaker.onFailure(DOWN);
+
+        assertThat(breaker.getState()).isEqualTo(FootballApiCircuitBreaker.State.OPEN);
+        // Past the original 200 ms but within the doubled 400 ms
+        Thread.sleep(250);
+        assertThatThrownBy(breaker::acquirePermission).isInstanceOf(FootballApiUnavailableException.class);
+        Thread.sleep(250);
+        breaker.acquirePermission();
+        assertThat(breaker.getState()).isEqualTo(FootballApiCircuitBreaker.State.HALF_OPEN);
+    }
+
+    @Test
+    void ignoredProbeFreesTheProbeSlot() throws InterruptedException {
+        FootballApiCircuitBreaker breaker = opened(Duration.ofMillis(100), Duration.ofSeconds(1));
+        Thread.sleep(150);
+        breaker.acquirePermission();
+
+        // e.g. the probe got no rate-limit token and was never sent
+        breaker.onIgnored();
+
+        breaker.acquirePermission();
+        assertThat(breaker.getState()).isEqualTo(FootballApiCircuitBreaker.State.HALF_OPEN);
+    }
+
+    private FootballApiCircuitBreaker opened(Duration openDuration, Duration maxOpenDuration) {
+        FootballApiCircuitBreaker breaker = breaker(openDuration, maxOpenDuration);
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure(DOWN);
+        }
+        assertThat(breaker.getState()).isEqualTo(FootballApiCircuitBreaker.State.OPEN);
+        return breaker;
+    }
+
+    private FootballApiCircuitBreaker breaker(Duration openDuration, Duration maxOpenDuration) {
+        return new FootballApiCircuitBreaker(meterRegistry, 3, openDuration, maxOpenDuration);
+    }
+}
@@ -0,0 +1,108 @@
+package com.worldcup.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withException;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Which Football API errors count against the circuit breaker: I/O errors
+ * and 5xx do, responses that arrive but cannot be parsed do not.
+ */
+class FootballApiFailureClassificationTest {
+
+    private static final String BASE_URL = "http://football.test/v4";
+    private static final String LIVE_URL = BASE_URL + "/competitions/2000/matches?status=LIVE";
+    private static final String STANDINGS_URL = BASE_URL + "/competitions/2000/standings";
+
+    private MockRestServiceServer server;
+    private FootballApiCircuitBreaker circuitBreaker;
+    private FootballApiService footballApiService;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        // A single failure opens the circuit
+        circuitBreaker = new FootballApiCircuitBreaker(meterRegistry, 1, Duration.ofSeconds(30), Duration.ofMinutes(5));
+        FootballApiRequestScheduler scheduler = new FootballApiRequestScheduler(
+                restTemplate, circuitBreaker, meterRegistry, 10, 1000);
+        footballApiService = new FootballApiService(scheduler, new ObjectMapper(),
+                new FootballApiSnapshotStore(false, "unused"), meterRegistry, Duration.ofMinutes(1), Duration.ofSeconds(15));
+        ReflectionTestUtils.setField(footballApiService, "apiEnabled", true);
+        ReflectionTestUtils.setField(footballApiService, "apiKey", "test-key");
+        ReflectionTestUtils.setField(footballApiService, "baseUrl", BASE_URL);
+        ReflectionTestUtils.setField(footballApiService, "competitionId", "2000");
+    }
+
+    @Test
+    void malformedStreamedResponseDoesNotOpenCircuit() {
+        server.expect(requestTo(LIVE_URL))
+                .andRespond(withSuccess("{\"matches\": [{\"id\": 1,", MediaType.APPLICATION_JSON));
+
+        assertThat(footballApiService.streamLiveMatches("2000", match -> { })).isEqualTo(-1);
+        assertThat(circuitBreaker.getState()).isEqualTo(FootballApiCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void unexpectedDocumentDoesNotOpenCircuit() {
+        server.expect(requestTo(LIVE_URL))
+                .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+
+        assertThat(footballApiService.streamLiveMatches("2000", match -> { })).isEqualTo(-1);
+        assertThat(circuitBreaker.getState()).isEqualTo(FootballApiCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void malformedTypedResponseDoesNotOpenCircuit() {
+        server.expect(requestTo(STANDINGS_URL))
+                .andRespond(withSuccess("{\"standings\": [", MediaType.APPLICATION_JSON));
+
+        assertThat(footballApiService.fetchStandings()).isEmpty();
+        assertThat(circuitBreaker.getState()).isEqualTo(FootballApiCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void ioErrorOpensCircuit() {
+        server.expect(requestTo(LIVE_URL))
+                .andRespond(withException(new SocketTimeoutException("Read timed out")));
+
+        assertThat(footballApiService.streamLiveMatches("2000", match -> { })).isEqualTo(-1);
+        assertThat(circuitBreaker.getState()).isEqualTo(FootballApiCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void serverErrorOpensCircuit() {
+        server.expect(requestTo(LIVE_URL))
+                .andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+
+        assertThat(footballApiService.streamLiveMatches("2000", match -> { })).isEqualTo(-1);
+        assertThat(circuitBreaker.getState()).isEqualTo(FootballApiCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void sinkErrorDoesNotOpenCircuit() {
+        server.expect(requestTo(LIVE_URL))
+                .andRespond(withSuccess("{\"matches\": [{\"id\": 1}]}", MediaType.APPLICATION_JSON));
+
+        assertThat(footballApiService.streamLiveMatches("2000", match -> {
+            throw new IllegalStateException("database down");
+        })).isEqualTo(-1);
+        assertThat(circuitBreaker.getState()).isEqualTo(FootballApiCircuitBreaker.State.CLOSED);
+    }
+}
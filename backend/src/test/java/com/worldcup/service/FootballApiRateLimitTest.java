@@ -0,0 +1,123 @@
+package com.worldcup.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.worldcup.exception.FootballApiRateLimitException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The request scheduler against a throttling Football API (FootballApiStubServer):
+ * it follows the provider's rate headers and never sends into a known 429.
+ */
+class FootballApiRateLimitTest {
+
+    private static final String COMPETITION = "2000";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private FootballApiStubServer stub;
+    private FootballApiCircuitBreaker circuitBreaker;
+    private FootballApiRequestScheduler scheduler;
+    private FootballApiService footballApiService;
+
+    @AfterEach
+    void stopStub() {
+        if (stub != null) {
+            stub.close();
+        }
+    }
+
+    @Test
+    void stopsBeforeTheProviderQuotaRunsOut() throws IOException {
+        // The provider allows 2 a minute, the local bucket would allow 10
+        start(2, 10, 200);
+
+        assertThat(footballApiService.streamLiveMatches(COMPETITION, match -> { })).isZero();
+        assertThat(footballApiService.streamLiveMatches(COMPETITION, match -> { })).isZero();
+        assertThat(providerAvailable()).isZero();
+
+        // The last response said 0 left: the third request waits instead of drawing a 429
+        assertThat(footballApiService.streamLiveMatches(COMPETITION, match -> { })).isEqualTo(-1);
+        assertThat(stub.served()).isEqualTo(2);
+        assertThat(stub.throttled()).isZero();
+        assertThat(starved()).isEqualTo(1);
+    }
+
+    @Test
+    void throttledResponseBlocksRequestsUntilReset() throws IOException {
+        start(2, 10, 200);
+        // Another client of the same key used up this minute
+        stub.spendQuota(2);
+
+        assertThatThrownBy(() -> scheduler.exchange(FootballApiRequestScheduler.Priority.LIVE,
+                stub.baseUrl() + "/competitions/" + COMPETITION + "/matches", HttpEntity.EMPTY, String.class))
+            .isInstanceOf(HttpClientErrorException.TooManyRequests.class);
+        assertThat(stub.throttled()).isEqualTo(1);
+
+        // X-RequestCounter-Reset says 60 s: nothing is sent meanwhile
+        assertThatThrownBy(() -> scheduler.exchange(FootballApiRequestScheduler.Priority.LIVE,
+                stub.baseUrl() + "/competitions/" + COMPETITION + "/standings", HttpEntity.EMPTY, String.class))
+            .isInstanceOf(FootballApiRateLimitException.class);
+        assertThat(stub.throttled()).isEqualTo(1);
+        assertThat(stub.served()).isZero();
+
+        // A 429 shows the API is up
+        assertThat(circuitBreaker.getState()).isEqualTo(FootballApiCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void requestsResumeAfterReset() throws IOException {
+        // A local token every second, so only the provider's reset holds requests back
+        start(1, 60, 5_000);
+        stub.spendQuota(1);
+        // One second of the provider's minute left
+        stub.advance(Duration.ofSeconds(59));
+
+        assertThatThrownBy(() -> exchange("/matches"))
+            .isInstanceOf(HttpClientErrorException.TooManyRequests.class);
+
+        stub.advance(Duration.ofSeconds(2));
+        long start = System.nanoTime();
+        assertThat(exchange("/standings")).contains("standings");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(900));
+        assertThat(stub.throttled()).isEqualTo(1);
+        assertThat(stub.served()).isEqualTo(1);
+    }
+
+    private String exchange(String path) {
+        return scheduler.exchange(FootballApiRequestScheduler.Priority.STANDINGS,
+                stub.baseUrl() + "/competitions/" + COMPETITION + path, HttpEntity.EMPTY, String.class).getBody();
+    }
+
+    private void start(int providerRequestsPerMinute, int localRequestsPerMinute, long maxWaitMs) throws IOException {
+        stub = new FootballApiStubServer().requestsPerMinute(providerRequestsPerMinute).start();
+        circuitBreaker = new FootballApiCircuitBreaker(meterRegistry, 1, Duration.ofSeconds(30), Duration.ofMinutes(5));
+        scheduler = new FootballApiRequestScheduler(new RestTemplate(), circuitBreaker, meterRegistry,
+                localRequestsPerMinute, maxWaitMs);
+        footballApiService = new FootballApiService(scheduler, new ObjectMapper(),
+                new FootballApiSnapshotStore(false, "unused"), meterRegistry, Duration.ofMinutes(1), Duration.ofSeconds(15));
+        ReflectionTestUtils.setField(footballApiService, "apiEnabled", true);
+        ReflectionTestUtils.setField(footballApiService, "apiKey", "test-key");
+        ReflectionTestUtils.setField(footballApiService, "baseUrl", stub.baseUrl());
+        ReflectionTestUtils.setField(footballApiService, "competitionId", COMPETITION);
+    }
+
+    private double providerAvailable() {
+        return meterRegistry.get("football.api.rate.provider.available").gauge().value();
+    }
+
+    private double starved() {
+        return meterRegistry.find("football.api.requests").tag("outcome", "starved").counters().stream()
+                .mapToDouble(c -> c.count()).sum();
+    }
+}
@@ -0,0 +1,91 @@
+package com.worldcup.service;
+
+import com.worldcup.exception.FootballApiRateLimitException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Token bucket behaviour of FootballApiRequestScheduler.
+ */
+class FootballApiRequestSchedulerTest {
+
+    private static final String URL = "http://football.test/v4/competitions/2000/matches";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RestTemplate restTemplate;
+    private MockRestServiceServer server;
+
+    @BeforeEach
+    void setUp() {
+        restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+    }
+
+    @AfterEach
+    void clearTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void requestInsideTransactionFailsFastWithoutToken() {
+        // One token a minute and a long max wait
+        FootballApiRequestScheduler scheduler = scheduler(1, 30_000);
+        server.expect(once(), requestTo(URL)).andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+        scheduler.exchange(FootballApiRequestScheduler.Priority.FIXTURES, URL, HttpEntity.EMPTY, String.class);
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> scheduler.exchange(FootballApiRequestScheduler.Priority.LIVE, URL + "?status=LIVE",
+                HttpEntity.EMPTY, String.class))
+            .isInstanceOf(FootballApiRateLimitException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+        assertThat(meterRegistry.get("football.api.requests").tag("outcome", "starved").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void requestInsideTransactionTakesFreeToken() {
+        FootballApiRequestScheduler scheduler = scheduler(10, 30_000);
+        server.expect(once(), requestTo(URL)).andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        assertThat(scheduler.exchange(FootballApiRequestScheduler.Priority.FIXTURES, URL, HttpEntity.EMPTY, String.class)
+                .getBody()).isEqualTo("{}");
+        server.verify();
+    }
+
+    @Test
+    void requestOutsideTransactionWaitsForToken() {
+        // A full bucket of 300, then a token every 200 ms
+        FootballApiRequestScheduler scheduler = scheduler(300, 5_000);
+        for (int i = 0; i <= 300; i++) {
+            server.expect(requestTo(URL + "?n=" + i)).andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i <= 300; i++) {
+            scheduler.exchange(FootballApiRequestScheduler.Priority.FIXTURES, URL + "?n=" + i, HttpEntity.EMPTY, String.class);
+        }
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThan(Duration.ofMillis(150));
+        assertThat(meterRegistry.get("football.api.requests").tag("outcome", "sent").counter().count()).isEqualTo(301);
+    }
+
+    private FootballApiRequestScheduler scheduler(int requestsPerMinute, long maxWaitMs) {
+        FootballApiCircuitBreaker circuitBreaker = new FootballApiCircuitBreaker(
+                meterRegistry, 5, Duration.ofSeconds(30), Duration.ofMinutes(5));
+        return new FootballApiRequestScheduler(restTemplate, circuitBreaker, meterRegistry, requestsPerMinute, maxWaitMs);
+    }
+}
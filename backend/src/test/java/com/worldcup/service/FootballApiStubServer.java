@@ -0,0 +1,565 @@
+package com.worldcup.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for football-data.org v4, for exercising the sync path and
+ * the rate limiter without spending API quota. Point football.api.base-url
+ * at baseUrl(), e.g. from a @DynamicPropertySource.
+ *
+ * Serves GET /v4/competitions/{id}/matches (dateFrom/dateTo/status filters)
+ * and /v4/competitions/{id}/standings:
+ * - Replay: with a data dir, responses recorded there (matches-{id}.json) are
+ *   served; a missing file is recorded from the real API when an upstream key
+ *   is set. Otherwise a synthetic group stage of groups x 6 matches is
+ *   generated.
+ * - Simulation: kickoffs are rebased so the first match starts kickoffOffset
+ *   after the stub's clock started, and status and score follow that clock.
+ *   The clock only moves through advance(), and goal minutes come from a
+ *   seeded random per match, so every response is deterministic.
+ * - Latency: every response is delayed latency.
+ * - Throttling: with requestsPerMinute set, more requests than that in a
+ *   sliding minute of the stub's clock get a 429, and every response carries
+ *   the provider's rate headers.
+ */
+final class FootballApiStubServer implements AutoCloseable {
+
+    private static final String MATCHES_FILE = "matches-%s.json";
+
+    // Regulation plus half-time break, in match minutes
+    private static final int FULL_TIME_MINUTE = 105;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private int groups = 12;
+    private Duration kickoffOffset = Duration.ofMinutes(2);
+    private Duration kickoffSpacing = Duration.ofMinutes(30);
+    private long seed = 42;
+    private Duration latency = Duration.ZERO;
+    private int requestsPerMinute = Integer.MAX_VALUE;
+    private Path dataDir;
+    private String upstreamUrl = "https://api.football-data.org/v4";
+    private String upstreamKey;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    private final Instant startedAt = Instant.now().truncatedTo(ChronoUnit.MINUTES);
+    private volatile Instant now = startedAt;
+
+    // Competition id -> matches as loaded (and rebased), with goal minutes per match id
+    private final Map<String, List<ObjectNode>> competitions = new ConcurrentHashMap<>();
+    private final Map<Long, int[][]> goalScript = new ConcurrentHashMap<>();
+
+    // Request times (stub clock) within the last minute, guarded by itself
+    private final Deque<Instant> recentRequests = new ArrayDeque<>();
+    private final AtomicInteger served = new AtomicInteger();
+    private final AtomicInteger throttled = new AtomicInteger();
+
+    FootballApiStubServer groups(int groups) {
+        this.groups = groups;
+        return this;
+    }
+
+    FootballApiStubServer kickoffOffset(Duration kickoffOffset) {
+        this.kickoffOffset = kickoffOffset;
+        return this;
+    }
+
+    FootballApiStubServer seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    FootballApiStubServer latency(Duration latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    FootballApiStubServer requestsPerMinute(int requestsPerMinute) {
+        this.requestsPerMinute = requestsPerMinute;
+        return this;
+    }
+
+    /**
+     * Replay responses from dataDir, recording missing ones from upstreamUrl
+     * when upstreamKey is set (record mode).
+     */
+    FootballApiStubServer replay(Path dataDir, String upstreamUrl, String upstreamKey) {
+        this.dataDir = dataDir;
+        this.upstreamUrl = upstreamUrl;
+        this.upstreamKey = upstreamKey;
+        return this;
+    }
+
+    FootballApiStubServer start() throws IOException {
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "football-stub");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v4/competitions/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+        return this;
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v4";
+    }
+
+    /**
+     * Move the stub's clock forward: matches kick off, score and finish, and
+     * the throttling window slides.
+     */
+    void advance(Duration duration) {
+        now = now.plus(duration);
+    }
+
+    Instant now() {
+        return now;
+    }
+
+    /**
+     * Kickoff of the index-th match (in kickoff order) of a competition.
+     */
+    Instant kickoff(String competitionId, int index) {
+        return Instant.parse(matches(competitionId).get(index).path("utcDate").asText());
+    }
+
+    /**
+     * Spend part of this minute's quota as another client of the same API key would.
+     */
+    void spendQuota(int requests) {
+        synchronized (recentRequests) {
+            for (int i = 0; i < requests; i++) {
+                recentRequests.addLast(now);
+            }
+        }
+    }
+
+    /**
+     * The matches of a competition as the API currently reports them, optionally
+     * filtered by status (e.g. "LIVE").
+     */
+    List<JsonNode> currentMatches(String competitionId, String status) {
+        List<JsonNode> current = new ArrayList<>();
+        for (ObjectNode stored : matches(competitionId)) {
+            ObjectNode match = simulated(stored, now);
+            if (status == null || statusMatches(status, match.path("status").asText())) {
+                current.add(match);
+            }
+        }
+        return current;
+    }
+
+    int served() {
+        return served.get();
+    }
+
+    int throttled() {
+        return throttled.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            sleepLatency();
+
+            long resetSeconds = admit();
+            if (requestsPerMinute != Integer.MAX_VALUE) {
+                exchange.getResponseHeaders().set("X-Requests-Available-Minute", String.valueOf(availableThisMinute()));
+            }
+            if (resetSeconds > 0) {
+                throttled.incrementAndGet();
+                exchange.getResponseHeaders().set("X-RequestCounter-Reset", String.valueOf(resetSeconds));
+                send(exchange, 429, "{\"message\":\"You reached your request limit. Wait " + resetSeconds + " seconds.\",\"errorCode\":429}");
+                return;
+            }
+
+            // /v4/competitions/{id}/{resource}
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            if (!"GET".equals(exchange.getRequestMethod()) || path.length != 5) {
+                send(exchange, 404, "{\"message\":\"Not found\"}");
+                return;
+            }
+            String competitionId = path[3];
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+
+            String body = switch (path[4]) {
+                case "matches" -> matchesResponse(competitionId, query);
+                case "standings" -> objectMapper.writeValueAsString(computeStandings(competitionId));
+                default -> null;
+            };
+            if (body == null) {
+                send(exchange, 404, "{\"message\":\"Not found\"}");
+                return;
+            }
+            served.incrementAndGet();
+            send(exchange, 200, body);
+        } catch (Exception e) {
+            send(exchange, 500, "{\"message\":\"Stub error: " + e.getMessage() + "\"}");
+        }
+    }
+
+    private String matchesResponse(String competitionId, Map<String, String> query) throws IOException {
+        LocalDate dateFrom = query.containsKey("dateFrom") ? LocalDate.parse(query.get("dateFrom")) : null;
+        LocalDate dateTo = query.containsKey("dateTo") ? LocalDate.parse(query.get("dateTo")) : null;
+        String status = query.get("status");
+
+        ArrayNode matches = objectMapper.createArrayNode();
+        for (JsonNode match : currentMatches(competitionId, status)) {
+            LocalDate day = Instant.parse(match.path("utcDate").asText()).atZone(ZoneOffset.UTC).toLocalDate();
+            if ((dateFrom != null && day.isBefore(dateFrom)) || (dateTo != null && day.isAfter(dateTo))) {
+                continue;
+            }
+            matches.add(match);
+        }
+
+        ObjectNode response = objectMapper.createObjectNode();
+        response.putObject("resultSet").put("count", matches.size());
+        response.set("matches", matches);
+        return objectMapper.writeValueAsString(response);
+    }
+
+    private List<ObjectNode> matches(String competitionId) {
+        return competitions.computeIfAbsent(competitionId, id -> {
+            try {
+                JsonNode root = dataDir != null ? recorded(id) : generate(id);
+                List<ObjectNode> loaded = new ArrayList<>();
+                root.path("matches").forEach(m -> loaded.add((ObjectNode) m));
+                rebase(loaded);
+                return loaded;
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot load stub data for competition " + id, e);
+            }
+        });
+    }
+
+    private JsonNode recorded(String competitionId) throws IOException {
+        Path recorded = dataDir.resolve(String.format(MATCHES_FILE, competitionId));
+        if (!Files.exists(recorded)) {
+            Files.createDirectories(dataDir);
+            Files.writeString(recorded, upstreamKey != null && !upstreamKey.isBlank()
+                    ? fetchUpstream("/competitions/" + competitionId + "/matches")
+                    : objectMapper.writeValueAsString(generate(competitionId)));
+        }
+        return objectMapper.readTree(recorded.toFile());
+    }
+
+    /**
+     * Fetch path from the real API once (record mode).
+     */
+    private String fetchUpstream(String path) throws IOException {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(upstreamUrl + path))
+                    .header("X-Auth-Token", upstreamKey)
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+            HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IOException("Recording " + path + " failed: HTTP " + response.statusCode());
+            }
+            return response.body();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while recording " + path, e);
+        }
+    }
+
+    /**
+     * Synthetic group stage: groups of 4 teams, 6 matches per group, kickoffs
+     * kickoffSpacing apart. Match ids are distinct per competition.
+     */
+    private ObjectNode generate(String competitionId) {
+        ObjectNode root = objectMapper.createObjectNode();
+        ArrayNode matches = root.putArray("matches");
+        Instant kickoff = startedAt;
+        int[][] pairings = { {0, 1}, {2, 3}, {0, 2}, {1, 3}, {0, 3}, {1, 2} };
+        long id = 900_000 + Math.floorMod(competitionId.hashCode(), 100) * 100_000L;
+        for (int round = 0; round < 3; round++) {
+            for (int group = 0; group < groups; group++) {
+                String label = groupLabel(group);
+                for (int p = round * 2; p < round * 2 + 2; p++) {
+                    ObjectNode match = matches.addObject();
+                    match.put("id", id++);
+                    match.put("utcDate", kickoff.toString());
+                    match.put("status", "TIMED");
+                    match.put("stage", "GROUP_STAGE");
+                    match.put("group", "GROUP_" + label);
+                    match.put("venue", "Stub Stadium " + label);
+                    team(match.putObject("homeTeam"), label, pairings[p][0]);
+                    team(match.putObject("awayTeam"), label, pairings[p][1]);
+                    ObjectNode score = match.putObject("score");
+                    score.putObject("fullTime").putNull("home").putNull("away");
+                    score.putObject("halfTime").putNull("home").putNull("away");
+                    kickoff = kickoff.plus(kickoffSpacing);
+                }
+            }
+        }
+        return root;
+    }
+
+    // A..Z, then AA, AB, ...
+    private static String groupLabel(int index) {
+        String label = "";
+        for (int i = index; i >= 0; i = i / 26 - 1) {
+            label = (char) ('A' + i % 26) + label;
+        }
+        return label;
+    }
+
+    private static void team(ObjectNode team, String group, int index) {
+        String name = "Team " + group + (index + 1);
+        team.put("name", name);
+        team.put("shortName", name);
+        team.put("crest", "https://crests.invalid/" + group + (index + 1) + ".svg");
+    }
+
+    /**
+     * Shift kickoffs so the first one is kickoffOffset after the clock
+     * started, keeping the spacing, and script each match's goals.
+     */
+    private void rebase(List<ObjectNode> matches) {
+        matches.sort(Comparator.comparing(m -> m.path("utcDate").asText()));
+        if (matches.isEmpty()) {
+            return;
+        }
+        Instant first = Instant.parse(matches.get(0).path("utcDate").asText());
+        Duration shift = Duration.between(first, startedAt.plus(kickoffOffset)).truncatedTo(ChronoUnit.MINUTES);
+        for (ObjectNode match : matches) {
+            match.put("utcDate", Instant.parse(match.path("utcDate").asText()).plus(shift).toString());
+            long id = match.path("id").asLong();
+            Random random = new Random(seed ^ id);
+            int[][] goals = new int[2][];
+            for (int side = 0; side < 2; side++) {
+                goals[side] = random.ints(random.nextInt(4), 1, 91).sorted().toArray();
+            }
+            goalScript.put(id, goals);
+        }
+    }
+
+    private ObjectNode simulated(ObjectNode stored, Instant at) {
+        ObjectNode match = stored.deepCopy();
+        Instant kickoff = Instant.parse(stored.path("utcDate").asText());
+        double minute = Duration.between(kickoff, at).toMillis() / 60_000d;
+        int[][] goals = goalScript.get(stored.path("id").asLong());
+
+        String status;
+        if (minute < 0) {
+            status = "TIMED";
+        } else if (minute >= FULL_TIME_MINUTE) {
+            status = "FINISHED";
+        } else if (minute >= 45 && minute < 60) {
+            status = "PAUSED";
+        } else {
+            status = "IN_PLAY";
+        }
+        match.put("status", status);
+
+        ObjectNode score = match.putObject("score");
+        ObjectNode fullTime = score.putObject("fullTime");
+        ObjectNode halfTime = score.putObject("halfTime");
+        if (minute < 0) {
+            fullTime.putNull("home").putNull("away");
+            halfTime.putNull("home").putNull("away");
+        } else {
+            // Match minute on the pitch: the clock stops during the break
+            double played = minute < 45 ? minute : minute < 60 ? 45 : minute - 15;
+            fullTime.put("home", goalsBy(goals[0], played)).put("away", goalsBy(goals[1], played));
+            if (minute >= 45) {
+                halfTime.put("home", goalsBy(goals[0], 45)).put("away", goalsBy(goals[1], 45));
+            } else {
+                halfTime.putNull("home").putNull("away");
+            }
+        }
+        return match;
+    }
+
+    private static int goalsBy(int[] goalMinutes, double minute) {
+        int count = 0;
+        for (int goal : goalMinutes) {
+            if (goal <= minute) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * TOTAL group tables from the finished group matches.
+     */
+    private ObjectNode computeStandings(String competitionId) {
+        Map<String, Map<String, int[]>> tables = new LinkedHashMap<>();
+        Map<String, JsonNode> teams = new HashMap<>();
+        for (JsonNode match : currentMatches(competitionId, null)) {
+            String group = match.path("group").asText(null);
+            if (group == null || group.isBlank()) {
+                continue;
+            }
+            Map<String, int[]> table = tables.computeIfAbsent(group, g -> new LinkedHashMap<>());
+            JsonNode home = match.path("homeTeam");
+            JsonNode away = match.path("awayTeam");
+            teams.put(home.path("name").asText(), home);
+            teams.put(away.path("name").asText(), away);
+            // played, won, draw, lost, points, goalsFor, goalsAgainst
+            int[] h = table.computeIfAbsent(home.path("name").asText(), t -> new int[7]);
+            int[] a = table.computeIfAbsent(away.path("name").asText(), t -> new int[7]);
+            JsonNode fullTime = match.path("score").path("fullTime");
+            if (!"FINISHED".equals(match.path("status").asText()) || !fullTime.path("home").isInt()) {
+                continue;
+            }
+            int hg = fullTime.path("home").asInt();
+            int ag = fullTime.path("away").asInt();
+            addResult(h, hg, ag);
+            addResult(a, ag, hg);
+        }
+
+        ObjectNode root = objectMapper.createObjectNode();
+        ArrayNode standings = root.putArray("standings");
+        tables.forEach((group, table) -> {
+            ObjectNode standing = standings.addObject();
+            standing.put("stage", "GROUP_STAGE");
+            standing.put("type", "TOTAL");
+            standing.put("group", "Group " + group.replace("GROUP_", ""));
+            ArrayNode rows = standing.putArray("table");
+            List<Map.Entry<String, int[]>> sorted = new ArrayList<>(table.entrySet());
+            sorted.sort(Comparator.comparingInt((Map.Entry<String, int[]> e) -> -e.getValue()[4])
+                    .thenComparingInt(e -> -(e.getValue()[5] - e.getValue()[6]))
+                    .thenComparingInt(e -> -e.getValue()[5]));
+            int position = 1;
+            for (Map.Entry<String, int[]> entry : sorted) {
+                int[] s = entry.getValue();
+                ObjectNode row = rows.addObject();
+                row.put("position", position++);
+                row.set("team", teams.get(entry.getKey()));
+                row.put("playedGames", s[0]).put("won", s[1]).put("draw", s[2]).put("lost", s[3])
+                   .put("points", s[4]).put("goalsFor", s[5]).put("goalsAgainst", s[6])
+                   .put("goalDifference", s[5] - s[6]);
+            }
+        });
+        return root;
+    }
+
+    private static void addResult(int[] row, int scored, int conceded) {
+        row[0]++;
+        if (scored > conceded) {
+            row[1]++;
+            row[4] += 3;
+        } else if (scored == conceded) {
+            row[2]++;
+            row[4] += 1;
+        } else {
+            row[3]++;
+        }
+        row[5] += scored;
+        row[6] += conceded;
+    }
+
+    private static boolean statusMatches(String filter, String status) {
+        if ("LIVE".equals(filter)) {
+            return status.equals("IN_PLAY") || status.equals("PAUSED") || status.equals("LIVE");
+        }
+        return filter.equals(status);
+    }
+
+    /**
+     * Count the request against the sliding minute. Returns 0 if admitted,
+     * else the seconds until a slot frees up.
+     */
+    private long admit() {
+        Instant at = now;
+        synchronized (recentRequests) {
+            while (!recentRequests.isEmpty() && !recentRequests.peekFirst().isAfter(at.minusSeconds(60))) {
+                recentRequests.removeFirst();
+            }
+            if (recentRequests.size() >= requestsPerMinute) {
+                long untilFree = Duration.between(at, recentRequests.peekFirst().plusSeconds(60)).toMillis();
+                return Math.max(1, (untilFree + 999) / 1000);
+            }
+            recentRequests.addLast(at);
+            return 0;
+        }
+    }
+
+    private int availableThisMinute() {
+        synchronized (recentRequests) {
+            return Math.max(0, requestsPerMinute - recentRequests.size());
+        }
+    }
+
+    private void sleepLatency() {
+        if (!latency.isZero()) {
+            try {
+                Thread.sleep(latency.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String param : rawQuery.split("&")) {
+            String[] pair = param.split("=", 2);
+            query.put(URLDecoder.decode(pair[0], StandardCharsets.UTF_8),
+                    pair.length > 1 ? URLDecoder.decode(pair[1], StandardCharsets.UTF_8) : "");
+        }
+        return query;
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.worldcup.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.worldcup.config.FootballApiSyncScheduler;
+import com.worldcup.entity.Match;
+import com.worldcup.entity.MatchStatus;
+import com.worldcup.repository.MatchRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The sync jobs end to end against FootballApiStubServer: one request per
+ * sync however many matches, and database work only for matches whose API
+ * content changed. The stub's clock and goals are scripted, so every count
+ * is exact; the logged rates are for comparing runs.
+ */
+@Slf4j
+@SpringBootTest
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class FootballApiSyncStubTest {
+
+    private static final String COMPETITION = "2000";
+
+    // 250 groups x 6 matches; kickoffs start a day out, so the live planner stays idle
+    private static final int GROUPS = 250;
+    private static final int MATCHES = GROUPS * 6;
+
+    private static final FootballApiStubServer stub = startStub();
+
+    @Autowired
+    private FootballApiSyncScheduler syncScheduler;
+
+    @Autowired
+    private MatchRepository matchRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @DynamicPropertySource
+    static void footballApi(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:h2:mem:football-sync-stub");
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
+        registry.add("football.api.enabled", () -> "true");
+        registry.add("football.api.key", () -> "stub");
+        registry.add("football.api.base-url", stub::baseUrl);
+        registry.add("football.api.competition-id", () -> COMPETITION);
+        registry.add("football.api.competition-ids", () -> COMPETITION);
+        registry.add("football.api.snapshot.enabled", () -> "false");
+        registry.add("football.api.rate-limit.requests-per-minute", () -> "1000");
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @BeforeEach
+    void resetStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @Order(1)
+    void startupSyncCreatesEveryFixtureFromOneRequest() throws InterruptedException {
+        // The scheduled fixture sync runs once at startup
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (lastFixtureSync("created") < MATCHES && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        assertThat(lastFixtureSync("created")).isEqualTo(MATCHES);
+        assertThat(matchRepository.count()).isEqualTo(MATCHES);
+        assertThat(stub.served()).isEqualTo(1);
+    }
+
+    @Test
+    @Order(2)
+    void unchangedResyncLoadsAndWritesNothing() {
+        int requests = stub.served();
+
+        long start = System.nanoTime();
+        syncScheduler.syncFixturesInternal();
+        logRate("unchanged fixture sync", MATCHES, start);
+
+        assertThat(lastFixtureSync("unchanged")).isEqualTo(MATCHES);
+        assertThat(lastFixtureSync("changed")).isZero();
+        assertThat(lastFixtureSync("created")).isZero();
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getEntityUpdateCount()).isZero();
+        assertThat(stub.served()).isEqualTo(requests + 1);
+    }
+
+    @Test
+    @Order(3)
+    void liveSyncUpdatesOnlyMatchesInPlay() {
+        // Three hours after the first kickoff: the earliest matches are over, a few are in play
+        stub.advance(Duration.between(stub.now(), stub.kickoff(COMPETITION, 0)).plusHours(3));
+        List<JsonNode> live = stub.currentMatches(COMPETITION, "LIVE");
+        assertThat(live).hasSizeGreaterThan(1);
+
+        long start = System.nanoTime();
+        syncScheduler.syncLiveScores(COMPETITION);
+        logRate("live sync", live.size(), start);
+
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(live.size());
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(live.size());
+        Map<String, Match> saved = matchRepository.findByStatus(MatchStatus.LIVE).stream()
+                .collect(Collectors.toMap(Match::getExternalApiId, Function.identity()));
+        assertThat(saved).hasSize(live.size());
+        for (JsonNode match : live) {
+            Match local = saved.get(match.path("id").asText());
+            assertThat(local.getHomeScore()).isEqualTo(match.path("score").path("fullTime").path("home").asInt());
+            assertThat(local.getAwayScore()).isEqualTo(match.path("score").path("fullTime").path("away").asInt());
+        }
+    }
+
+    @Test
+    @Order(4)
+    void repeatedLiveSyncWithoutGoalsWritesNothing() {
+        int requests = stub.served();
+
+        syncScheduler.syncLiveScores(COMPETITION);
+
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getEntityUpdateCount()).isZero();
+        assertThat(stub.served()).isEqualTo(requests + 1);
+    }
+
+    private long lastFixtureSync(String result) {
+        return (long) meterRegistry.get("football.sync.fixtures.last.run")
+                .tag("competition", COMPETITION).tag("result", result).gauge().value();
+    }
+
+    private static void logRate(String sync, int matches, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        log.info("{}: {} matches in {} ms ({} matches/s)", sync, matches, Math.round(seconds * 1000),
+                Math.round(matches / seconds));
+    }
+
+    private static FootballApiStubServer startStub() {
+        try {
+            return new FootballApiStubServer().groups(GROUPS).kickoffOffset(Duration.ofDays(1)).start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.worldcup.service;
+
+import com.worldcup.entity.Match;
+import com.worldcup.entity.MatchStatus;
+import com.worldcup.repository.MatchRepository;
+import com.worldcup.service.FootballApiService.StandingData;
+import com.worldcup.service.FootballApiService.StandingRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class LocalStandingsServiceTest {
+
+    private static final String GROUP = "Group A";
+
+    private LocalStandingsService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new LocalStandingsService(mock(MatchRepository.class), mock(ClusterFanoutService.class), "2000");
+    }
+
+    @Test
+    void threeWayTieIsSplitByHeadToHeadBeforeOverallGoalDifference() {
+        // Spain, Japan and Mexico all finish on 6 points. Among themselves each
+        // won once, but Spain's 2-0 gives it the best head-to-head goal difference.
+        // Overall goal difference would have ranked them Japan, Mexico, Spain.
+        StandingData table = service.computeTable(GROUP, List.of(
+                finished("Spain", "Japan", 2, 0),
+                finished("Japan", "Mexico", 1, 0),
+                finished("Mexico", "Spain", 1, 0),
+                finished("Spain", "Ghana", 1, 0),
+                finished("Japan", "Ghana", 5, 0),
+                finished("Mexico", "Ghana", 3, 0)));
+
+        assertThat(teams(table)).containsExactly("Spain", "Mexico", "Japan", "Ghana");
+        assertThat(table.table).extracting(row -> row.points).containsExactly(6, 6, 6, 0);
+        assertThat(table.provisional).isFalse();
+    }
+
+    @Test
+    void subsetStillLevelOnHeadToHeadFallsBackToOverallGoalDifference() {
+        // All three draw each other and beat Ghana. Head-to-head goals put
+        // Canada (no goals between them) last; Brazil and Chile are level on
+        // their 1-1 draw too, so overall goal difference decides between them.
+        // By name Brazil would come first; by overall goal difference it is Chile.
+        StandingData table = service.computeTable(GROUP, List.of(
+                finished("Brazil", "Chile", 1, 1),
+                finished("Brazil", "Canada", 0, 0),
+                finished("Chile", "Canada", 0, 0),
+                finished("Brazil", "Ghana", 1, 0),
+                finished("Chile", "Ghana", 3, 0),
+                finished("Canada", "Ghana", 4, 0)));
+
+        assertThat(teams(table)).containsExactly("Chile", "Brazil", "Canada", "Ghana");
+        assertThat(table.table).extracting(row -> row.points).containsExactly(5, 5, 5, 0);
+    }
+
+    @Test
+    void liveMatchesCountWithTheirCurrentScoreAndMarkTheTableProvisional() {
+        Match live = finished("Spain", "Japan", 0, 1);
+        live.setStatus(MatchStatus.LIVE);
+        Match scheduled = finished("Mexico", "Ghana", null, null);
+        scheduled.setStatus(MatchStatus.SCHEDULED);
+
+        StandingData table = service.computeTable(GROUP, List.of(live, scheduled));
+
+        assertThat(table.provisional).isTrue();
+        assertThat(teams(table)).first().isEqualTo("Japan");
+        StandingRow japan = table.table.get(0);
+        assertThat(japan.points).isEqualTo(3);
+        assertThat(japan.playedGames).isEqualTo(1);
+        assertThat(table.table).filteredOn(row -> row.team.getName().equals("Mexico"))
+                .singleElement().extracting(row -> row.playedGames).isEqualTo(0);
+    }
+
+    private static Match finished(String home, String away, Integer homeScore, Integer awayScore) {
+        Match match = new Match();
+        match.setHomeTeam(home);
+        match.setAwayTeam(away);
+        match.setMatchDate(LocalDateTime.of(2026, 6, 14, 18, 0));
+        match.setGroup(GROUP);
+        match.setStatus(MatchStatus.FINISHED);
+        match.setHomeScore(homeScore);
+        match.setAwayScore(awayScore);
+        match.setCompetitionId("2000");
+        return match;
+    }
+
+    private static List<String> teams(StandingData table) {
+        return table.table.stream().map(row -> row.team.getName()).toList();
+    }
+}
@@ -0,0 +1,75 @@
+package com.worldcup.service;
+
+import com.worldcup.entity.Notification;
+import com.worldcup.entity.User;
+import com.worldcup.repository.NotificationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationServiceTest {
+
+    private final NotificationRepository repository = mock(NotificationRepository.class);
+    private final WebSocketService webSocketService = mock(WebSocketService.class);
+    private final ClusterFanoutService clusterFanoutService = mock(ClusterFanoutService.class);
+    private final NotificationService service = new NotificationService(repository, webSocketService, clusterFanoutService);
+    private final User user = new User();
+
+    @BeforeEach
+    void setUp() {
+        user.setId(7L);
+        user.setEmail("fan@example.com");
+        when(repository.save(any(Notification.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void countLoadedBetweenCommitAndAfterCommitIsNotCountedTwice() {
+        service.sendNotification(user, Notification.NotificationType.MATCH_RESULT, "Result", "2-1", null, null);
+
+        // Committed, and another request loads the count before the after-commit hook runs
+        when(repository.countByUserIdAndReadFalse(7L)).thenReturn(4L);
+        assertThat(service.getUnreadCount(user)).isEqualTo(4);
+        commit();
+
+        assertThat(service.getUnreadCount(user)).isEqualTo(4);
+        verify(webSocketService).sendUnreadCountToUser("fan@example.com", 4);
+    }
+
+    @Test
+    void invalidatedCountsAreDroppedOnlyAfterCommit() {
+        when(repository.countByUserIdAndReadFalse(7L)).thenReturn(3L);
+        assertThat(service.getUnreadCount(user)).isEqualTo(3);
+
+        service.invalidateUnreadCounts();
+        when(repository.countByUserIdAndReadFalse(7L)).thenReturn(0L);
+        assertThat(service.getUnreadCount(user)).isEqualTo(3);
+        commit();
+
+        assertThat(service.getUnreadCount(user)).isZero();
+        verify(clusterFanoutService).publishEvent("unread-count-changed", "*".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void commit() {
+        var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+    }
+}
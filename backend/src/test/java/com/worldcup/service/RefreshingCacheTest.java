@@ -0,0 +1,145 @@
+package com.worldcup.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RefreshingCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RefreshingCache<String, String> cache;
+
+    @AfterEach
+    void tearDown() {
+        if (cache != null) {
+            cache.shutdown();
+        }
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        cache = cache(key -> {
+            loads.incrementAndGet();
+            await(release);
+            return "standings";
+        }, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> cache.get("2000"));
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> cache.get("2000"));
+        awaitCount("upstream.cache.gets", "miss", 2);
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("standings");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("standings");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void staleValueIsServedWhileOneRefreshRuns() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        cache = cache(key -> {
+            if (loads.incrementAndGet() == 1) {
+                return "v1";
+            }
+            await(release);
+            return "v2";
+        }, Duration.ofMillis(200), Duration.ZERO);
+        assertThat(cache.get("2000")).isEqualTo("v1");
+        Thread.sleep(250);
+
+        assertThat(cache.get("2000")).isEqualTo("v1");
+        assertThat(cache.get("2000")).isEqualTo("v1");
+        CompletableFuture<String> refresh = cache.refresh("2000");
+        release.countDown();
+
+        assertThat(refresh.get(5, TimeUnit.SECONDS)).isEqualTo("v2");
+        assertThat(cache.get("2000")).isEqualTo("v2");
+        assertThat(loads).hasValue(2);
+        assertThat(meterRegistry.get("upstream.cache.gets").tag("result", "stale").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void staleReadRightAfterALoadStartsANewLoad() throws Exception {
+        Map<String, AtomicInteger> loads = new ConcurrentHashMap<>();
+        // Every value is stale as soon as it is stored
+        cache = cache(key -> key + "-" + loads.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet(),
+                Duration.ZERO, Duration.ZERO);
+
+        // The race is between the loader thread and the caller, so try many keys
+        for (int i = 0; i < 200; i++) {
+            String key = "key" + i;
+            assertThat(cache.get(key)).isEqualTo(key + "-1");
+
+            assertThat(cache.get(key)).isEqualTo(key + "-1");
+        }
+
+        awaitCount("upstream.cache.loads", "success", 400);
+        assertThat(loads.values()).allSatisfy(count -> assertThat(count).hasValue(2));
+    }
+
+    @Test
+    void failedRefreshKeepsTheLastGoodValueUntilErrorRetry() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        cache = cache(key -> {
+            if (loads.incrementAndGet() == 1) {
+                return "v1";
+            }
+            throw new IllegalStateException("upstream down");
+        }, Duration.ZERO, Duration.ofMinutes(1));
+        assertThat(cache.get("2000")).isEqualTo("v1");
+
+        assertThat(cache.get("2000")).isEqualTo("v1");
+        awaitCount("upstream.cache.loads", "failure", 1);
+
+        // Not retried before error-retry has passed
+        assertThat(cache.get("2000")).isEqualTo("v1");
+        assertThat(loads).hasValue(2);
+        assertThat(meterRegistry.get("upstream.cache.gets").tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void failedFirstLoadThrowsTheLoadersException() {
+        cache = cache(key -> {
+            throw new IllegalStateException("upstream down");
+        }, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        assertThatThrownBy(() -> cache.get("2000"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("upstream down");
+    }
+
+    private RefreshingCache<String, String> cache(Function<String, String> loader, Duration ttl, Duration errorRetry) {
+        return new RefreshingCache<>("test", loader, ttl, errorRetry, meterRegistry);
+    }
+
+    private void awaitCount(String meter, String result, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (meterRegistry.find(meter).tag("result", result).counters().stream()
+                .mapToDouble(c -> c.count()).sum() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.worldcup.service;
+
+import com.worldcup.WorldCupApplication;
+import org.junit.jupiter.api.Assumptions;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+/**
+ * Two application contexts sharing one PostgreSQL database with
+ * websocket.cluster.enabled, i.e. two backend nodes.
+ *
+ * Uses the database in TEST_POSTGRES_URL (with TEST_POSTGRES_USER and
+ * TEST_POSTGRES_PASSWORD) if set, otherwise a Testcontainers PostgreSQL;
+ * start() aborts the calling test class when neither is available. Each
+ * cluster works in its own schema and NOTIFY channel.
+ */
+final class TwoNodeCluster implements AutoCloseable {
+
+    private final PostgreSQLContainer<?> container;
+    private final String url;
+    private final String user;
+    private final String password;
+    private final String schema;
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+
+    private TwoNodeCluster(PostgreSQLContainer<?> container, String url, String user, String password, String schema) {
+        this.container = container;
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.schema = schema;
+    }
+
+    static TwoNodeCluster start() throws SQLException {
+        String url = System.getenv("TEST_POSTGRES_URL");
+        String user = System.getenv().getOrDefault("TEST_POSTGRES_USER", "postgres");
+        String password = System.getenv().getOrDefault("TEST_POSTGRES_PASSWORD", "");
+        PostgreSQLContainer<?> container = null;
+        if (url == null) {
+            Assumptions.assumeTrue(DockerClientFactory.instance().isDockerAvailable(),
+                    "Needs Docker or TEST_POSTGRES_URL");
+            container = new PostgreSQLContainer<>("postgres:16-alpine");
+            container.start();
+            url = container.getJdbcUrl();
+            user = container.getUsername();
+            password = container.getPassword();
+        }
+
+        String suffix = UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+        TwoNodeCluster cluster = new TwoNodeCluster(container, url, user, password, "cluster_it_" + suffix);
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA " + cluster.schema);
+        }
+        cluster.nodeA = cluster.startNode("ws_it_" + suffix);
+        cluster.nodeB = cluster.startNode("ws_it_" + suffix);
+        return cluster;
+    }
+
+    ConfigurableApplicationContext nodeA() {
+        return nodeA;
+    }
+
+    ConfigurableApplicationContext nodeB() {
+        return nodeB;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+        if (container != null) {
+            container.stop();
+            return;
+        }
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA " + schema + " CASCADE");
+        }
+    }
+
+    private ConfigurableApplicationContext startNode(String channel) {
+        String schemaUrl = url + (url.contains("?") ? "&" : "?") + "currentSchema=" + schema;
+        // Command-line arguments, since default properties lose to application.properties
+        return new SpringApplicationBuilder(WorldCupApplication.class).run(
+            "--server.port=0",
+            "--spring.main.banner-mode=off",
+            "--spring.datasource.url=" + schemaUrl,
+            "--spring.datasource.username=" + user,
+            "--spring.datasource.password=" + password,
+            "--spring.datasource.driver-class-name=org.postgresql.Driver",
+            "--spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+            // As in the prod profile: Hibernate is told the pool disables autocommit
+            "--spring.datasource.hikari.auto-commit=false",
+            "--spring.jpa.show-sql=false",
+            "--football.api.enabled=false",
+            "--websocket.cluster.enabled=true",
+            "--websocket.cluster.channel=" + channel,
+            "--websocket.broadcast.batch-window-ms=10");
+    }
+}
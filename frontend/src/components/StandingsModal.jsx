@@ -71,6 +71,10 @@ const StandingsModal = ({ isOpen, onClose, group }) => {
           <div className="standings-empty">No standings available yet for this group.</div>
         )}
 
+        {!loading && !error && rows.length > 0 && groupStanding?.provisional && (
+          <div className="standings-provisional">Live – provisional table</div>
+        )}
+
         {!loading && !error && rows.length > 0 && (
           <div className="standings-table-wrapper">
             <table className="standings-table">
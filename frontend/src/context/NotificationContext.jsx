@@ -38,16 +38,17 @@ export const NotificationProvider = ({ children }) => {
     }
   }, []);
 
-  // Fetch notifications from API
-  const fetchNotifications = useCallback(async (page = 0, size = 50) => {
+  // Fetch the newest page of notifications from API (cursor-paginated)
+  const fetchNotifications = useCallback(async (limit = 50) => {
     if (!isAuthenticated) return;
 
     try {
       setLoading(true);
       const response = await apiClient.get('/notifications', {
-        params: { page, size }
+        params: { limit }
       });
-      setNotifications(response.data.content || response.data);
+      setNotifications(response.data.items || []);
+      setUnreadCount(response.data.unreadCount || 0);
     } catch (error) {
       console.error('Failed to fetch notifications:', error);
     } finally {
@@ -55,18 +56,6 @@ export const NotificationProvider = ({ children }) => {
     }
   }, [isAuthenticated]);
 
-  // Fetch unread count
-  const fetchUnreadCount = useCallback(async () => {
-    if (!isAuthenticated) return;
-
-    try {
-      const response = await apiClient.get('/notifications/unread-count');
-      setUnreadCount(response.data.count || 0);
-    } catch (error) {
-      console.error('Failed to fetch unread count:', error);
-    }
-  }, [isAuthenticated]);
-
   // Mark notification as read
   const markAsRead = useCallback(async (notificationId) => {
     try {
@@ -92,11 +81,14 @@ export const NotificationProvider = ({ children }) => {
   }, []);
 
   // Handle new notification from WebSocket
+  // (the unread badge is updated by the separate unread-count frame)
   const handleNewNotification = useCallback((notification) => {
     setNotifications(prev => [notification, ...prev]);
-    if (!notification.read) {
-      setUnreadCount(prev => prev + 1);
-    }
+  }, []);
+
+  // Handle unread count pushed from WebSocket
+  const handleUnreadCount = useCallback((count) => {
+    setUnreadCount(count);
   }, []);
 
   // Derived: unread counts per top-level section (route)
@@ -237,29 +229,17 @@ export const NotificationProvider = ({ children }) => {
   );
 
   // Subscribe to WebSocket notifications
-  useNotificationWebSocket(handleNewNotification, isAuthenticated);
+  useNotificationWebSocket(handleNewNotification, handleUnreadCount, isAuthenticated);
 
   // Initial fetch
   useEffect(() => {
     if (isAuthenticated) {
       fetchNotifications();
-      fetchUnreadCount();
     } else {
       setNotifications([]);
       setUnreadCount(0);
     }
-  }, [isAuthenticated, fetchNotifications, fetchUnreadCount]);
-
-  // Refresh unread count periodically (every 30 seconds)
-  useEffect(() => {
-    if (!isAuthenticated) return;
-
-    const interval = setInterval(() => {
-      fetchUnreadCount();
-    }, 30000);
-
-    return () => clearInterval(interval);
-  }, [isAuthenticated, fetchUnreadCount]);
+  }, [isAuthenticated, fetchNotifications]);
 
   const value = {
     notifications,
@@ -269,7 +249,6 @@ export const NotificationProvider = ({ children }) => {
     getUnreadCountForPath,
     getNotificationTextForPath,
     fetchNotifications,
-    fetchUnreadCount,
     markAsRead,
     markAllAsRead,
     markSectionAsRead,
@@ -21,11 +21,20 @@ const getWebSocketUrl = () => {
   return import.meta.env.VITE_WS_BASE_URL || 'http://localhost:8080';
 };
 
+// The server sends a jittered reconnect delay on CONNECTED and ERROR frames so
+// clients dropped together (e.g. by a server restart) don't all reconnect at once
+const applyReconnectHint = (client, frame) => {
+  const delay = Number(frame?.headers?.['reconnect-delay-ms']);
+  if (delay > 0) {
+    client.reconnectDelay = delay;
+  }
+};
+
 /**
  * Custom hook for WebSocket connection to receive real-time notifications
- * Subscribes to user-specific notification channel
+ * Subscribes to user-specific notification and unread-count channels
  */
-export const useNotificationWebSocket = (onNotification, isAuthenticated) => {
+export const useNotificationWebSocket = (onNotification, onUnreadCount, isAuthenticated) => {
   const { user } = useAuth();
   const clientRef = useRef(null);
   const reconnectTimeoutRef = useRef(null);
@@ -41,20 +50,23 @@ export const useNotificationWebSocket = (onNotification, isAuthenticated) => {
     }
 
     const wsUrl = getWebSocketUrl();
-    const socket = new SockJS(`${wsUrl}/ws`);
     
     // Get JWT token from localStorage
     const token = localStorage.getItem('token');
     
     const stompClient = new Client({
-      webSocketFactory: () => socket,
-      reconnectDelay: 5000,
+      // A new socket per attempt: a closed SockJS instance cannot be reopened
+      webSocketFactory: () => new SockJS(`${wsUrl}/ws`),
+      // Jittered until the server's hint arrives
+      reconnectDelay: 5000 + Math.floor(Math.random() * 5000),
       heartbeatIncoming: 4000,
       heartbeatOutgoing: 4000,
       connectHeaders: token ? {
         'Authorization': `Bearer ${token}`
       } : {},
-      onConnect: () => {
+      onConnect: (frame) => {
+        applyReconnectHint(stompClient, frame);
+
         // Subscribe to user-specific notification channel
         // Spring automatically routes /user/{username}/queue/notifications
         // Use /user/queue/notifications - Spring will route to the authenticated user
@@ -69,9 +81,22 @@ export const useNotificationWebSocket = (onNotification, isAuthenticated) => {
           }
         });
 
+        // Server pushes the authoritative unread count whenever it changes
+        stompClient.subscribe('/user/queue/unread-count', (message) => {
+          try {
+            const { count } = JSON.parse(message.body);
+            if (onUnreadCount) {
+              onUnreadCount(count || 0);
+            }
+          } catch (error) {
+            console.error('Error parsing unread count:', error);
+          }
+        });
+
         console.log('Subscribed to notification channel for user:', user.email);
       },
       onStompError: (frame) => {
+        applyReconnectHint(stompClient, frame);
         console.error('WebSocket STOMP error:', frame);
       },
       onWebSocketError: (error) => {
@@ -84,7 +109,7 @@ export const useNotificationWebSocket = (onNotification, isAuthenticated) => {
 
     clientRef.current = stompClient;
     stompClient.activate();
-  }, [isAuthenticated, user?.email, onNotification]);
+  }, [isAuthenticated, user?.email, onNotification, onUnreadCount]);
 
   const disconnect = useCallback(() => {
     if (clientRef.current) {
@@ -20,13 +20,63 @@ const getWebSocketUrl = () => {
   return import.meta.env.VITE_WS_BASE_URL || 'http://localhost:8080';
 };
 
+// The server sends a jittered reconnect delay on CONNECTED and ERROR frames so
+// clients dropped together (e.g. by a server restart) don't all reconnect at once
+const applyReconnectHint = (client, frame) => {
+  const delay = Number(frame?.headers?.['reconnect-delay-ms']);
+  if (delay > 0) {
+    client.reconnectDelay = delay;
+  }
+};
+
 /**
- * Custom hook for WebSocket connection to receive real-time match updates
+ * Custom hook for a STOMP connection subscribed to exactly the given topics.
+ * onMessage(destination, payload) receives each parsed frame. Changing topics
+ * subscribes and unsubscribes on the open connection without reconnecting.
+ * onConnect runs after every (re)connect, e.g. to refetch what may have been
+ * missed while disconnected.
  */
-export const useWebSocket = (onMatchUpdate) => {
+export const useWebSocket = (topics, onMessage, onConnect) => {
   const { isAuthenticated } = useAuth();
   const clientRef = useRef(null);
   const reconnectTimeoutRef = useRef(null);
+  // destination -> STOMP subscription on the current connection
+  const subscriptionsRef = useRef(new Map());
+  const topicsRef = useRef(topics);
+  const onMessageRef = useRef(onMessage);
+  const onConnectRef = useRef(onConnect);
+
+  useEffect(() => {
+    onMessageRef.current = onMessage;
+    onConnectRef.current = onConnect;
+  }, [onMessage, onConnect]);
+
+  // Bring the subscriptions of a connected client in line with topicsRef
+  const syncSubscriptions = useCallback((stompClient) => {
+    if (!stompClient?.connected) {
+      return;
+    }
+    const wanted = new Set(topicsRef.current);
+    const subscriptions = subscriptionsRef.current;
+    subscriptions.forEach((subscription, destination) => {
+      if (!wanted.has(destination)) {
+        subscription.unsubscribe();
+        subscriptions.delete(destination);
+      }
+    });
+    wanted.forEach((destination) => {
+      if (subscriptions.has(destination)) {
+        return;
+      }
+      subscriptions.set(destination, stompClient.subscribe(destination, (message) => {
+        try {
+          onMessageRef.current?.(destination, JSON.parse(message.body));
+        } catch (error) {
+          console.error(`Error handling message on ${destination}:`, error);
+        }
+      }));
+    });
+  }, []);
 
   const connect = useCallback(() => {
     if (!isAuthenticated) {
@@ -39,38 +89,29 @@ export const useWebSocket = (onMatchUpdate) => {
     }
 
     const wsUrl = getWebSocketUrl();
-    const socket = new SockJS(`${wsUrl}/ws`);
+
+    // League topics are only open to members, so the connection is authenticated
+    const token = localStorage.getItem('token');
+
     const stompClient = new Client({
-      webSocketFactory: () => socket,
-      reconnectDelay: 5000,
+      // A new socket per attempt: a closed SockJS instance cannot be reopened
+      webSocketFactory: () => new SockJS(`${wsUrl}/ws`),
+      // Jittered until the server's hint arrives
+      reconnectDelay: 5000 + Math.floor(Math.random() * 5000),
       heartbeatIncoming: 4000,
       heartbeatOutgoing: 4000,
-      onConnect: () => {
-        // Subscribe to match updates
-        stompClient.subscribe('/topic/matches/update', (message) => {
-          try {
-            const matchUpdate = JSON.parse(message.body);
-            if (onMatchUpdate) {
-              onMatchUpdate(matchUpdate);
-            }
-          } catch (error) {
-            console.error('Error parsing match update:', error);
-          }
-        });
-
-        // Subscribe to match status changes
-        stompClient.subscribe('/topic/matches/status', (message) => {
-          try {
-            const matchUpdate = JSON.parse(message.body);
-            if (onMatchUpdate) {
-              onMatchUpdate(matchUpdate);
-            }
-          } catch (error) {
-            console.error('Error parsing match status update:', error);
-          }
-        });
+      connectHeaders: token ? {
+        'Authorization': `Bearer ${token}`
+      } : {},
+      onConnect: (frame) => {
+        applyReconnectHint(stompClient, frame);
+        // Subscriptions do not survive a reconnect
+        subscriptionsRef.current.clear();
+        syncSubscriptions(stompClient);
+        onConnectRef.current?.();
       },
       onStompError: (frame) => {
+        applyReconnectHint(stompClient, frame);
         console.error('WebSocket STOMP error:', frame);
       },
       onWebSocketError: (error) => {
@@ -83,21 +124,24 @@ export const useWebSocket = (onMatchUpdate) => {
 
     clientRef.current = stompClient;
     stompClient.activate();
-  }, [isAuthenticated, onMatchUpdate]);
+  }, [isAuthenticated, syncSubscriptions]);
 
   const disconnect = useCallback(() => {
     if (clientRef.current) {
       clientRef.current.deactivate();
       clientRef.current = null;
     }
+    subscriptionsRef.current.clear();
     if (reconnectTimeoutRef.current) {
       clearTimeout(reconnectTimeoutRef.current);
       reconnectTimeoutRef.current = null;
     }
   }, []);
 
+  // No connection at all while there is nothing to subscribe to
+  const hasTopics = topics.length > 0;
   useEffect(() => {
-    if (isAuthenticated) {
+    if (isAuthenticated && hasTopics) {
       connect();
     } else {
       disconnect();
@@ -106,8 +150,14 @@ export const useWebSocket = (onMatchUpdate) => {
     return () => {
       disconnect();
     };
-  }, [isAuthenticated, connect, disconnect]);
+  }, [isAuthenticated, hasTopics, connect, disconnect]);
+
+  // Topics compared by value, so a new array with the same topics changes nothing
+  const topicsKey = topics.join('|');
+  useEffect(() => {
+    topicsRef.current = topicsKey ? topicsKey.split('|') : [];
+    syncSubscriptions(clientRef.current);
+  }, [topicsKey, syncSubscriptions]);
 
   return { connect, disconnect };
 };
-
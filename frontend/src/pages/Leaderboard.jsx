@@ -1,13 +1,26 @@
-import { useEffect, useState } from 'react';
+import { useCallback, useEffect, useMemo, useRef, useState } from 'react';
 import { useNavigate, useSearchParams } from 'react-router-dom';
 import { FiUsers } from 'react-icons/fi';
 import { useAuth } from '../context/AuthContext';
 import { useNotifications } from '../context/NotificationContext';
+import { useWebSocket } from '../hooks/useWebSocket';
 import apiClient from '../config/api';
 import Navigation from '../components/Navigation';
 import { formatCurrency } from '../utils/currency';
 import './Leaderboard.css';
 
+// Merge a /topic/leagues/{id}/leaderboard delta into the entries. Changed
+// entries are complete except for the email, which the server leaves out.
+const applyLeaderboardDelta = (entries, delta) => {
+  const byUser = new Map(entries.map(entry => [entry.userId, entry]));
+  delta.removed.forEach(userId => byUser.delete(userId));
+  delta.changed.forEach(entry => {
+    const existing = byUser.get(entry.userId);
+    byUser.set(entry.userId, { ...existing, ...entry, email: entry.email ?? existing?.email });
+  });
+  return [...byUser.values()].sort((a, b) => (a.rank ?? Infinity) - (b.rank ?? Infinity));
+};
+
 const Leaderboard = () => {
   const { user } = useAuth();
   const navigate = useNavigate();
@@ -17,7 +30,6 @@ const Leaderboard = () => {
   const [selectedLeagueId, setSelectedLeagueId] = useState(null);
   const [loading, setLoading] = useState(true);
   const [leaguesLoading, setLeaguesLoading] = useState(true);
-  const [userPosition, setUserPosition] = useState(null);
   const { markSectionAsRead } = useNotifications();
 
   // Clear any notifications that belong to the Leaderboard section when this page is viewed
@@ -52,35 +64,61 @@ const Leaderboard = () => {
   }, [searchParams]);
 
   // Fetch leaderboard based on selected league
-  useEffect(() => {
-    const fetchLeaderboard = async () => {
-      if (leaguesLoading) return; // Wait for leagues to load first
-      
-      try {
+  const fetchLeaderboard = useCallback(async (showLoading) => {
+    if (leaguesLoading) return; // Wait for leagues to load first
+
+    try {
+      if (showLoading) {
         setLoading(true);
-        let response;
-        
-        if (selectedLeagueId) {
-          response = await apiClient.get(`/leagues/${selectedLeagueId}/leaderboard`);
-        } else {
-          response = await apiClient.get('/users/leaderboard');
-        }
-        
-        const data = response.data;
-        setLeaderboard(data);
-        
-        // Find current user's position
-        const position = data.findIndex(entry => entry.userId === user?.id);
-        setUserPosition(position >= 0 ? position + 1 : null);
-      } catch (error) {
-        console.error('Failed to fetch leaderboard:', error);
-      } finally {
-        setLoading(false);
       }
-    };
+      let response;
+
+      if (selectedLeagueId) {
+        response = await apiClient.get(`/leagues/${selectedLeagueId}/leaderboard`);
+      } else {
+        response = await apiClient.get('/users/leaderboard');
+      }
+
+      setLeaderboard(response.data);
+    } catch (error) {
+      console.error('Failed to fetch leaderboard:', error);
+    } finally {
+      setLoading(false);
+    }
+  }, [selectedLeagueId, leaguesLoading]);
+
+  useEffect(() => {
+    fetchLeaderboard(true);
+  }, [fetchLeaderboard]);
+
+  // Live updates for the selected league's leaderboard (the overall
+  // leaderboard has no topic and is loaded once)
+  const leaderboardTopics = useMemo(
+    () => (selectedLeagueId ? [`/topic/leagues/${selectedLeagueId}/leaderboard`] : []),
+    [selectedLeagueId]
+  );
+  const leaderboardVersionRef = useRef(0);
+  useEffect(() => {
+    leaderboardVersionRef.current = 0;
+  }, [selectedLeagueId]);
+
+  const handleLeaderboardDelta = useCallback((destination, delta) => {
+    if (delta.leagueId !== selectedLeagueId || delta.version <= leaderboardVersionRef.current) {
+      return;
+    }
+    leaderboardVersionRef.current = delta.version;
+    setLeaderboard(prev => applyLeaderboardDelta(prev, delta));
+  }, [selectedLeagueId]);
+
+  // Refetch on reconnect: deltas sent while disconnected are not replayed
+  const refetchLeaderboard = useCallback(() => fetchLeaderboard(false), [fetchLeaderboard]);
+  useWebSocket(leaderboardTopics, handleLeaderboardDelta, refetchLeaderboard);
 
-    fetchLeaderboard();
-  }, [selectedLeagueId, user?.id, leaguesLoading]);
+  // Current user's position
+  const userPosition = useMemo(() => {
+    const position = leaderboard.findIndex(entry => entry.userId === user?.id);
+    return position >= 0 ? position + 1 : null;
+  }, [leaderboard, user?.id]);
 
   const getRankIcon = (position) => {
     switch (position) {
@@ -1,4 +1,4 @@
-import { useEffect, useState, useCallback, useRef } from 'react';
+import { useEffect, useState, useCallback, useMemo, useRef } from 'react';
 import { useSearchParams } from 'react-router-dom';
 import { useAuth } from '../context/AuthContext';
 import { useNotifications } from '../context/NotificationContext';
@@ -132,37 +132,97 @@ const Matches = () => {
     }
   }, []);
 
-  // Handle WebSocket match updates
-  const handleMatchUpdate = useCallback((updatedMatch) => {
-    setMatches(prevMatches => {
-      const index = prevMatches.findIndex(m => m.id === updatedMatch.id);
-      if (index !== -1) {
-        // Update existing match
+  // Fetch a single match we have no copy of yet and add (or replace) it
+  const pendingMatchFetches = useRef(new Set());
+  const fetchMatch = useCallback(async (matchId) => {
+    if (pendingMatchFetches.current.has(matchId)) return;
+    pendingMatchFetches.current.add(matchId);
+    try {
+      const response = await apiClient.get(`/matches/${matchId}`);
+      const match = response.data;
+      setMatches(prevMatches => {
+        const index = prevMatches.findIndex(m => m.id === match.id);
+        if (index === -1) return [...prevMatches, match];
         const updated = [...prevMatches];
-        // Handle status - can be enum object or string
-        const statusValue = updatedMatch.status?.name || updatedMatch.status || updatedMatch.status;
-        updated[index] = {
-          ...updated[index],
-          ...updatedMatch,
-          status: statusValue,
-        };
+        updated[index] = match;
         return updated;
-      } else {
-        // New match added
-        const statusValue = updatedMatch.status?.name || updatedMatch.status || updatedMatch.status;
-        return [...prevMatches, { ...updatedMatch, status: statusValue }];
+      });
+    } catch (error) {
+      console.error(`Failed to fetch match ${matchId}:`, error);
+    } finally {
+      pendingMatchFetches.current.delete(matchId);
+    }
+  }, []);
+
+  const matchesRef = useRef(matches);
+  useEffect(() => {
+    matchesRef.current = matches;
+  }, [matches]);
+
+  // Handle WebSocket match deltas ({ id, version, ...changedFields })
+  const handleMatchUpdate = useCallback((matchDelta) => {
+    const { version, ...changes } = matchDelta;
+    // Handle status - can be enum object or string
+    if (changes.status !== undefined) {
+      changes.status = changes.status?.name || changes.status;
+    }
+
+    // A delta only carries the fields that changed against the server's last
+    // broadcast, so for a match we don't have yet it is not a whole match:
+    // load the full match instead of appending the partial one
+    if (!matchesRef.current.some(m => m.id === changes.id)) {
+      fetchMatch(changes.id);
+      return;
+    }
+
+    setMatches(prevMatches => {
+      const index = prevMatches.findIndex(m => m.id === changes.id);
+      if (index === -1) {
+        // Removed meanwhile (e.g. by a refetch); the next poll settles it
+        return prevMatches;
       }
+      // Merge changed fields into existing match
+      const updated = [...prevMatches];
+      updated[index] = { ...updated[index], ...changes };
+      return updated;
     });
     
-    // If match status changed or scores updated, refresh predictions
-    const statusValue = updatedMatch.status?.name || updatedMatch.status || updatedMatch.status;
-    if (statusValue === 'FINISHED' || updatedMatch.homeScore !== null) {
+    // If match finished or scores updated, refresh predictions
+    if (changes.status === 'FINISHED' || 'homeScore' in changes || 'awayScore' in changes) {
       fetchPredictions();
     }
-  }, [fetchPredictions]);
+  }, [fetchPredictions, fetchMatch]);
+
+  // Real-time updates only for the days whose matches can change now: today,
+  // tomorrow and any day with a match in play (UTC dates, as the server keys
+  // its day topics). Anything else is picked up by the 30 second poll.
+  const matchTopics = useMemo(() => {
+    const now = Date.now();
+    const days = new Set([0, 1].map(offset => new Date(now + offset * 86400000).toISOString().slice(0, 10)));
+    matches.forEach(match => {
+      if (match.status === 'LIVE' && match.matchDate) {
+        days.add(match.matchDate.slice(0, 10));
+      }
+    });
+    return [...days].sort().map(day => `/topic/matches/day/${day}`);
+  }, [matches]);
+
+  // Each delta carries the match id, a version and only the changed fields.
+  // A rescheduled match is sent to both its old and new day, and deltas can
+  // repeat after a reconnect, so skip versions already applied.
+  const versionsRef = useRef({});
+  const handleMatchFrame = useCallback((destination, matchDelta) => {
+    const seen = versionsRef.current[matchDelta.id];
+    if (seen !== undefined && matchDelta.version <= seen) {
+      return;
+    }
+    versionsRef.current[matchDelta.id] = matchDelta.version;
+    handleMatchUpdate(matchDelta);
+  }, [handleMatchUpdate]);
 
-  // Connect to WebSocket for real-time updates
-  useWebSocket(handleMatchUpdate);
+  // Connect to WebSocket for real-time updates; refetch whatever was missed
+  // while disconnected
+  useWebSocket(matchTopics, handleMatchFrame, fetchMatches);
 
   useEffect(() => {
     fetchMatches();